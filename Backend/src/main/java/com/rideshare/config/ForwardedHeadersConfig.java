@@ -0,0 +1,37 @@
+package com.rideshare.config;
+
+import org.apache.catalina.valves.RemoteIpValve;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Resolves the real client address behind a load balancer.
+ *
+ * X-Forwarded-For and X-Forwarded-Proto are honoured only when the connection
+ * comes from a trusted proxy, so request.getRemoteAddr() (used by the login
+ * throttle) is the client's address and can't be spoofed by a direct caller.
+ */
+@Configuration
+public class ForwardedHeadersConfig {
+
+    // Regex of proxy addresses allowed to set forwarded headers; empty keeps Tomcat's
+    // default of loopback and private ranges
+    @Value("${server.trusted-proxies:}")
+    private String trustedProxies;
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> remoteIpCustomizer() {
+        return factory -> {
+            RemoteIpValve valve = new RemoteIpValve();
+            valve.setRemoteIpHeader("X-Forwarded-For");
+            valve.setProtocolHeader("X-Forwarded-Proto");
+            if (!trustedProxies.isBlank()) {
+                valve.setInternalProxies(trustedProxies);
+            }
+            factory.addEngineValves(valve);
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.rideshare.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+@Configuration
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    // Several jobs run for minutes (chunked auto-complete, retention, rollups, index sweep,
+    // dashboard reconcile); on Boot's single default thread they would hold the 10 s
+    // cluster heartbeat past the node timeout, so @Scheduled methods share a pool instead.
+    @Value("${scheduling.pool-size:8}")
+    private int poolSize;
+
+    private ThreadPoolTaskScheduler scheduler;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduled-");
+        scheduler.initialize();
+        registrar.setTaskScheduler(scheduler);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.rideshare.config;
 
+import com.rideshare.security.BoundedPasswordEncoder;
 import com.rideshare.security.JwtAuthenticationFilter;
 import com.rideshare.security.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -28,16 +31,34 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
+    // BCrypt runs on its own bounded pool so login bursts can't pin every request thread
+    @Value("${security.password-hash.threads:0}")
+    private int passwordHashThreads;
+    
+    @Value("${security.password-hash.queue-size:64}")
+    private int passwordHashQueueSize;
+    
+    @Value("${security.password-hash.timeout-ms:5000}")
+    private long passwordHashTimeoutMs;
+    
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int threads = passwordHashThreads > 0
+                ? passwordHashThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(), threads, passwordHashQueueSize, passwordHashTimeoutMs);
+        
+        meterRegistry.gauge("password.hash.queue.size", encoder, BoundedPasswordEncoder::getQueueSize);
+        meterRegistry.gauge("password.hash.rejected", encoder, BoundedPasswordEncoder::getRejectedCount);
+        return encoder;
     }
     
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
     
@@ -47,18 +68,21 @@ public class SecurityConfig {
     }
     
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           DaoAuthenticationProvider authenticationProvider) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/rides/search").permitAll()
+                // SockJS handshake; STOMP sessions authenticate on CONNECT (StompAuthInterceptor)
+                .requestMatchers("/ws/**").permitAll()
                 // Admin routes now strictly require ADMIN role; login is handled via common auth
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
-            .authenticationProvider(authenticationProvider())
+            .authenticationProvider(authenticationProvider)
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         
         return http.build();
@@ -0,0 +1,20 @@
+package com.rideshare.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    // Async requests are the streamed admin exports; a large export can run well past
+    // Tomcat's 30 s default. Zero or less removes the limit.
+    @Value("${admin.export.timeout-ms:1800000}")
+    private long exportTimeoutMs;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(exportTimeoutMs);
+    }
+}
@@ -1,6 +1,10 @@
 package com.rideshare.config;
 
+import com.rideshare.security.StompAuthInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -10,14 +14,57 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private WebSocketMetrics webSocketMetrics;
+
+    @Autowired
+    private StompAuthInterceptor stompAuthInterceptor;
+
+    // Relay to an external STOMP broker so several app instances share subscriptions
+    @Value("${messaging.broker.relay.enabled:false}")
+    private boolean relayEnabled;
+
+    @Value("${messaging.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${messaging.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${messaging.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${messaging.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple memory-based message broker
-        // Clients will subscribe to /topic/user/{userId}
-        config.enableSimpleBroker("/topic");
+        // Clients will subscribe to /topic/user/{userId} and /topic/ride/{rideId}
+        if (relayEnabled) {
+            config.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+        } else {
+            // Enable a simple memory-based message broker (single instance only)
+            config.enableSimpleBroker("/topic");
+        }
         config.setApplicationDestinationPrefixes("/app");
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Authenticate CONNECT and authorise SUBSCRIBE before frames reach the broker
+        registration.interceptors(stompAuthInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(webSocketMetrics);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // Endpoint for clients to connect to
@@ -25,4 +72,4 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*") // Allow all origins for development
                 .withSockJS();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package com.rideshare.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection, subscription and fan-out metrics for the STOMP endpoint.
+ * Works the same with the simple broker and the broker relay.
+ */
+@Component
+public class WebSocketMetrics implements ChannelInterceptor {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Active subscriptions per session, so a disconnect can release all of them
+    private final ConcurrentHashMap<String, AtomicInteger> subscriptionsBySession = new ConcurrentHashMap<>();
+    private final AtomicInteger activeSubscriptions = new AtomicInteger();
+
+    private Counter connections;
+    private Counter disconnections;
+    private Counter outboundMessages;
+
+    @PostConstruct
+    public void init() {
+        connections = Counter.builder("websocket.connections")
+                .description("STOMP sessions connected")
+                .register(meterRegistry);
+        disconnections = Counter.builder("websocket.disconnections")
+                .description("STOMP sessions disconnected")
+                .register(meterRegistry);
+        outboundMessages = Counter.builder("websocket.messages.outbound")
+                .description("Messages delivered to WebSocket clients (fan-out throughput)")
+                .register(meterRegistry);
+
+        Gauge.builder("websocket.sessions.active", subscriptionsBySession, ConcurrentHashMap::size)
+                .description("Currently connected STOMP sessions")
+                .register(meterRegistry);
+        Gauge.builder("websocket.subscriptions.active", activeSubscriptions, AtomicInteger::get)
+                .description("Currently active STOMP subscriptions")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        subscriptionsBySession.putIfAbsent(sessionId, new AtomicInteger());
+        connections.increment();
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        AtomicInteger subscriptions = subscriptionsBySession.remove(event.getSessionId());
+        if (subscriptions != null) {
+            activeSubscriptions.addAndGet(-subscriptions.get());
+            disconnections.increment();
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        AtomicInteger subscriptions = subscriptionsBySession.get(
+                StompHeaderAccessor.wrap(event.getMessage()).getSessionId());
+        if (subscriptions != null) {
+            subscriptions.incrementAndGet();
+            activeSubscriptions.incrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        AtomicInteger subscriptions = subscriptionsBySession.get(
+                StompHeaderAccessor.wrap(event.getMessage()).getSessionId());
+        if (subscriptions != null && subscriptions.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            activeSubscriptions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Counts MESSAGE frames leaving through the client outbound channel
+     */
+    @Override
+    public void postSend(Message<?> message, MessageChannel channel, boolean sent) {
+        if (sent && StompCommand.MESSAGE.equals(StompHeaderAccessor.wrap(message).getCommand())) {
+            outboundMessages.increment();
+        }
+    }
+}
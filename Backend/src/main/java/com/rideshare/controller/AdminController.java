@@ -1,15 +1,24 @@
 package com.rideshare.controller;
 
 import com.rideshare.dto.*;
+import com.rideshare.model.AnalyticsRollup;
+import com.rideshare.service.AdminExportService;
 import com.rideshare.service.AdminService;
+import com.rideshare.service.ReportJobService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -20,6 +29,12 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
     
+    @Autowired
+    private AdminExportService adminExportService;
+    
+    @Autowired
+    private ReportJobService reportJobService;
+    
     /**
      * Get dashboard statistics
      */
@@ -41,9 +56,11 @@ public class AdminController {
     public ResponseEntity<?> getAllUsers(
             @RequestParam(required = false) String role,
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
         try {
-            var users = adminService.getAllUsers(role, status, search);
+            var users = adminService.getAllUsers(role, status, search, cursor, size);
             return ResponseEntity.ok(new ApiResponse(true, "Users retrieved successfully", users));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -180,7 +197,7 @@ public class AdminController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
         try {
-            var report = adminService.generateReport(reportType, startDate, endDate);
+            var report = reportJobService.generateNow(reportType, startDate, endDate);
             return ResponseEntity.ok(new ApiResponse(true, "Report generated", report));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -188,15 +205,101 @@ public class AdminController {
         }
     }
     
+    /**
+     * Submit a report to be generated in the background.
+     * Progress is pushed on /topic/admin/reports/{jobId}; identical recent reports return at once.
+     */
+    @PostMapping("/reports/jobs")
+    public ResponseEntity<?> submitReportJob(
+            @RequestParam String reportType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        try {
+            var job = reportJobService.submit(reportType, startDate, endDate);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new ApiResponse(true, "Report job submitted", job));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ApiResponse(false, "Too many reports in progress, please try again shortly"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+    
+    /**
+     * Poll a report job
+     */
+    @GetMapping("/reports/jobs/{jobId}")
+    public ResponseEntity<?> getReportJob(@PathVariable String jobId) {
+        try {
+            var job = reportJobService.getStatus(jobId);
+            return ResponseEntity.ok(new ApiResponse(true, "Report job status", job));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+    
+    /**
+     * Export payments, bookings, rides or a report time series as CSV or NDJSON.
+     * Rows are streamed from a database cursor as they are written.
+     */
+    @GetMapping("/export/{dataset}")
+    public ResponseEntity<?> export(
+            @PathVariable String dataset,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        if (!AdminExportService.isSupportedFormat(format)) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Unsupported export format: " + format));
+        }
+        
+        StreamingResponseBody body;
+        switch (dataset.toLowerCase()) {
+            case "payments":
+                body = out -> adminExportService.exportPayments(status, startDate, endDate, format, out);
+                break;
+            case "bookings":
+                body = out -> adminExportService.exportBookings(status, startDate, endDate, format, out);
+                break;
+            case "rides":
+                body = out -> adminExportService.exportRides(status, startDate, endDate, format, out);
+                break;
+            case "reports":
+                String bucket = granularity.toUpperCase();
+                if (startDate == null || endDate == null
+                        || !(AnalyticsRollup.DAY.equals(bucket) || AnalyticsRollup.HOUR.equals(bucket))) {
+                    return ResponseEntity.badRequest()
+                            .body(new ApiResponse(false, "Report exports need startDate, endDate and a DAY or HOUR granularity"));
+                }
+                body = out -> adminExportService.exportReport(bucket, startDate, endDate, format, out);
+                break;
+            default:
+                return ResponseEntity.badRequest()
+                        .body(new ApiResponse(false, "Unknown export: " + dataset));
+        }
+        
+        boolean csv = AdminExportService.CSV.equalsIgnoreCase(format);
+        String filename = dataset.toLowerCase() + "-" + LocalDate.now() + (csv ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .body(body);
+    }
+    
     /**
      * Get recent activity logs
      */
     @GetMapping("/activity-logs")
     public ResponseEntity<?> getActivityLogs(
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "50") int size) {
         try {
-            var logs = adminService.getActivityLogs(page, size);
+            var logs = adminService.getActivityLogs(cursor, size);
             return ResponseEntity.ok(new ApiResponse(true, "Activity logs retrieved", logs));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -1,8 +1,10 @@
 package com.rideshare.controller;
 
 import com.rideshare.dto.*;
+import com.rideshare.security.LoginThrottledException;
 import com.rideshare.service.AuthService;
 import com.rideshare.service.OTPService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -21,10 +23,14 @@ public class AuthController {
     private OTPService otpService;
     
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
+    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request,
+                                      HttpServletRequest httpRequest) {
         try {
-            AuthResponse response = authService.register(request);
+            AuthResponse response = authService.register(request, httpRequest.getRemoteAddr());
             return ResponseEntity.ok(new ApiResponse(true, "User registered successfully", response));
+        } catch (LoginThrottledException e) {
+            // Answered as 429 with Retry-After by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -33,10 +39,14 @@ public class AuthController {
     }
     
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request,
+                                   HttpServletRequest httpRequest) {
         try {
-            AuthResponse response = authService.login(request);
+            AuthResponse response = authService.login(request, httpRequest.getRemoteAddr());
             return ResponseEntity.ok(new ApiResponse(true, "Login successful", response));
+        } catch (LoginThrottledException e) {
+            // Answered as 429 with Retry-After by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -69,10 +79,14 @@ public class AuthController {
     }
     
     @PostMapping("/complete-login")
-    public ResponseEntity<?> completeLogin(@Valid @RequestBody CompleteLoginRequest request) {
+    public ResponseEntity<?> completeLogin(@Valid @RequestBody CompleteLoginRequest request,
+                                           HttpServletRequest httpRequest) {
         try {
-            AuthResponse response = authService.completeLogin(request);
+            AuthResponse response = authService.completeLogin(request, httpRequest.getRemoteAddr());
             return ResponseEntity.ok(new ApiResponse(true, "Login successful", response));
+        } catch (LoginThrottledException e) {
+            // Answered as 429 with Retry-After by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -3,7 +3,10 @@ package com.rideshare.controller;
 import com.rideshare.dto.ApiResponse;
 import com.rideshare.service.DistanceCalculationService;
 import com.rideshare.service.FareCalculationService;
+import com.rideshare.service.GeoApiRateLimiter;
+import com.rideshare.service.GeoApiShedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -29,14 +32,17 @@ public class DistanceController {
             @RequestParam String origin,
             @RequestParam String destination) {
         try {
-            Double distance = distanceCalculationService.calculateDistance(origin, destination);
+            DistanceCalculationService.DistanceData data = distanceOrEstimate(origin, destination);
             
             Map<String, Object> response = new HashMap<>();
             response.put("origin", origin);
             response.put("destination", destination);
-            response.put("distanceKm", distance);
+            response.put("distanceKm", data.getDistanceKm());
+            response.put("approximate", data.isApproximate());
             
             return ResponseEntity.ok(new ApiResponse(true, "Distance calculated successfully", response));
+        } catch (GeoApiShedException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse(false, e.getMessage()));
@@ -51,16 +57,18 @@ public class DistanceController {
             @RequestParam String origin,
             @RequestParam String destination) {
         try {
-            DistanceCalculationService.DistanceData data = 
-                    distanceCalculationService.getDistanceAndDuration(origin, destination);
+            DistanceCalculationService.DistanceData data = distanceOrEstimate(origin, destination);
             
             Map<String, Object> response = new HashMap<>();
             response.put("origin", origin);
             response.put("destination", destination);
             response.put("distanceKm", data.getDistanceKm());
             response.put("durationMinutes", data.getDurationMinutes());
+            response.put("approximate", data.isApproximate());
             
             return ResponseEntity.ok(new ApiResponse(true, "Distance details retrieved successfully", response));
+        } catch (GeoApiShedException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse(false, e.getMessage()));
@@ -77,14 +85,13 @@ public class DistanceController {
             @RequestParam Double pricePerKm,
             @RequestParam(defaultValue = "1") Integer seatsBooked) {
         try {
-            // Get distance
-            DistanceCalculationService.DistanceData data = 
-                    distanceCalculationService.getDistanceAndDuration(origin, destination);
+            // Get distance, straight-line if the geo quota is short
+            DistanceCalculationService.DistanceData data = distanceOrEstimate(origin, destination);
             
             // Calculate fare breakdown
             FareCalculationService.FareBreakdown breakdown = 
                     fareCalculationService.calculateFareBreakdown(
-                            data.getDistanceKm(), pricePerKm, seatsBooked);
+                            data.getDistanceKm(), pricePerKm, seatsBooked, origin);
             
             // Calculate driver earnings
             Double driverEarnings = fareCalculationService.calculateDriverEarnings(breakdown.getTotalFare());
@@ -94,20 +101,47 @@ public class DistanceController {
             response.put("destination", destination);
             response.put("distanceKm", data.getDistanceKm());
             response.put("durationMinutes", data.getDurationMinutes());
+            response.put("approximate", data.isApproximate());
             response.put("pricePerKm", pricePerKm);
             response.put("seatsBooked", seatsBooked);
             response.put("baseFare", breakdown.getBaseFare());
             response.put("distanceFare", breakdown.getDistanceFare());
             response.put("bookingFee", breakdown.getBookingFee());
+            response.put("surgeMultiplier", breakdown.getSurgeMultiplier());
             response.put("totalFare", breakdown.getTotalFare());
             response.put("minimumFareApplied", breakdown.isMinimumFareApplied());
             response.put("driverEarnings", driverEarnings);
             response.put("platformCommission", breakdown.getTotalFare() - driverEarnings);
             
             return ResponseEntity.ok(new ApiResponse(true, "Fare estimated successfully", response));
+        } catch (GeoApiShedException e) {
+            return busy(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse(false, e.getMessage()));
         }
     }
+    
+    /**
+     * Road distance from Google Maps, or a straight-line estimate when the geo quota sheds the call
+     */
+    private DistanceCalculationService.DistanceData distanceOrEstimate(String origin, String destination) {
+        try {
+            return distanceCalculationService.getDistanceAndDuration(
+                    origin, destination, GeoApiRateLimiter.Priority.FARE_ESTIMATE);
+        } catch (GeoApiShedException e) {
+            DistanceCalculationService.DistanceData estimate =
+                    distanceCalculationService.estimateStraightLine(origin, destination);
+            if (estimate == null) {
+                // A location never resolved on this node; nothing to estimate from
+                throw e;
+            }
+            return estimate;
+        }
+    }
+    
+    private ResponseEntity<?> busy(GeoApiShedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ApiResponse(false, e.getMessage()));
+    }
 }
\ No newline at end of file
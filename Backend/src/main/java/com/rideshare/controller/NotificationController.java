@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/notifications")
 @CrossOrigin(origins = "*")
@@ -20,6 +22,20 @@ public class NotificationController {
                 notificationService.getUserUnreadNotifications()));
     }
     
+    @GetMapping("/unread-count")
+    public ResponseEntity<?> getUnreadCount() {
+        return ResponseEntity.ok(new ApiResponse(true, "Unread count fetched", 
+                Map.of("count", notificationService.getUnreadCount())));
+    }
+    
+    @GetMapping("/history")
+    public ResponseEntity<?> getHistory(
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(new ApiResponse(true, "Notification history fetched", 
+                notificationService.getNotificationHistory(before, size)));
+    }
+    
     @PutMapping("/{id}/read")
     public ResponseEntity<?> markAsRead(@PathVariable Long id) {
         try {
@@ -30,6 +46,22 @@ public class NotificationController {
         }
     }
     
+    @GetMapping("/ride-events")
+    public ResponseEntity<?> getUnreadRideEvents() {
+        return ResponseEntity.ok(new ApiResponse(true, "Ride updates fetched", 
+                notificationService.getUnreadRideEvents()));
+    }
+    
+    @PutMapping("/ride-events/{id}/read")
+    public ResponseEntity<?> markRideEventAsRead(@PathVariable Long id) {
+        try {
+            notificationService.markRideEventAsRead(id);
+            return ResponseEntity.ok(new ApiResponse(true, "Marked as read"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
+        }
+    }
+    
     @PutMapping("/read-all")
     public ResponseEntity<?> markAllAsRead() {
         notificationService.markAllAsRead();
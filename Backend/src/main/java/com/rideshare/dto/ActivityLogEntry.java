@@ -0,0 +1,27 @@
+package com.rideshare.dto;
+
+import com.rideshare.model.ActivityLog;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ActivityLogEntry {
+    private Long id;
+    private LocalDateTime timestamp;
+    private String type;
+    private String user;
+    private String details;
+    private Long relatedId;
+    
+    public static ActivityLogEntry fromActivityLog(ActivityLog log) {
+        ActivityLogEntry entry = new ActivityLogEntry();
+        entry.setId(log.getId());
+        entry.setTimestamp(log.getOccurredAt());
+        entry.setType(log.getType());
+        entry.setUser(log.getActorName() != null ? log.getActorName() : "System");
+        entry.setDetails(log.getDetails());
+        entry.setRelatedId(log.getRelatedId());
+        return entry;
+    }
+}
@@ -0,0 +1,16 @@
+package com.rideshare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One page of the activity feed; pass nextCursor back to get the following page (null at the end)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityLogPage {
+    private List<ActivityLogEntry> items;
+    private String nextCursor;
+}
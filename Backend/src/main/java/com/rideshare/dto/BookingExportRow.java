@@ -0,0 +1,28 @@
+package com.rideshare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Flat booking row for exports, built by a JPQL constructor expression
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingExportRow {
+    private Long id;
+    private Long rideId;
+    private String source;
+    private String destination;
+    private LocalDateTime departureDateTime;
+    private Long passengerId;
+    private String passengerName;
+    private String passengerEmail;
+    private Integer seatsBooked;
+    private String pickupLocation;
+    private String dropLocation;
+    private Double estimatedFare;
+    private String status;
+    private LocalDateTime bookingTime;
+}
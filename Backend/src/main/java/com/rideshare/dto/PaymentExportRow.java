@@ -0,0 +1,30 @@
+package com.rideshare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Flat payment row for exports, built by a JPQL constructor expression
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentExportRow {
+    private Long id;
+    private Long bookingId;
+    private Long passengerId;
+    private String passengerEmail;
+    private Long driverId;
+    private String driverEmail;
+    private Double amount;
+    private Double platformCommission;
+    private Double driverEarnings;
+    private String currency;
+    private String status;
+    private String razorpayOrderId;
+    private String razorpayPaymentId;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime refundedAt;
+}
@@ -0,0 +1,27 @@
+package com.rideshare.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Snapshot of an asynchronous report job, returned when polling and pushed on progress
+@Data
+public class ReportJobStatus {
+    private String jobId;
+    private String reportType;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+    private int completedSections;
+    private int totalSections;
+    private int progress; // percentage
+    private boolean cached;
+    
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+    
+    private Map<String, Object> result;
+    private String error;
+}
@@ -0,0 +1,26 @@
+package com.rideshare.dto;
+
+import com.rideshare.model.RideEvent;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class RideEventResponse {
+    private Long id;
+    private Long rideId;
+    private String type;
+    private String message;
+    private boolean isRead;
+    private LocalDateTime createdAt;
+    
+    public static RideEventResponse fromEntity(RideEvent e) {
+        RideEventResponse response = new RideEventResponse();
+        response.setId(e.getId());
+        response.setRideId(e.getRideId());
+        response.setType(e.getType());
+        response.setMessage(e.getMessage());
+        response.setRead(false);
+        response.setCreatedAt(e.getCreatedAt());
+        return response;
+    }
+}
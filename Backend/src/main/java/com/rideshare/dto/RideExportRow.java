@@ -0,0 +1,26 @@
+package com.rideshare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Flat ride row for exports, built by a JPQL constructor expression
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideExportRow {
+    private Long id;
+    private Long driverId;
+    private String driverName;
+    private String driverEmail;
+    private String source;
+    private String destination;
+    private LocalDateTime departureDateTime;
+    private Integer totalSeats;
+    private Integer availableSeats;
+    private Double pricePerKm;
+    private String status;
+    private LocalDateTime createdAt;
+}
@@ -26,6 +26,10 @@ public class RideResponse {
     private String suggestedPickup;
     private String suggestedDrop;
     
+    // One-seat fare estimate for the searched trip (search results only)
+    private Double estimatedDistanceKm;
+    private Double estimatedFare;
+    
     @Data
     public static class DriverInfo {
         private Long id;
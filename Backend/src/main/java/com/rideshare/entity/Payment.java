@@ -5,11 +5,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_payments_updated_at", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -63,6 +66,10 @@ public class Payment {
     @Column(updatable = false)
     private LocalDateTime createdAt;
     
+    // Drives incremental analytics rollups
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+    
     private LocalDateTime completedAt;
     
     private LocalDateTime refundedAt;
@@ -0,0 +1,47 @@
+package com.rideshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only feed of notable platform events for the admin activity page.
+ * Rows are never updated; the actor's name is copied in so reading the feed needs no joins.
+ */
+@Entity
+@Table(name = "activity_log", indexes = {
+    @Index(name = "idx_activity_log_occurred", columnList = "occurred_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityLog {
+
+    public static final int ACTOR_NAME_LENGTH = 255;
+    public static final int DETAILS_LENGTH = 500;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(nullable = false, length = 40)
+    private String type;
+
+    // Null for system events
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Column(name = "actor_name", length = ACTOR_NAME_LENGTH)
+    private String actorName;
+
+    @Column(length = DETAILS_LENGTH)
+    private String details;
+
+    private Long relatedId;
+}
@@ -0,0 +1,52 @@
+package com.rideshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated activity for one hour or one day, maintained by AnalyticsRollupService.
+ * Rides, bookings, payments and users are bucketed by creation time and counted by
+ * their current status, matching what the analytics endpoints used to compute from entities.
+ */
+@Entity
+@Table(name = "analytics_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_analytics_rollups_bucket", columnNames = {"granularity", "bucket_start"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsRollup {
+
+    public static final String HOUR = "HOUR";
+    public static final String DAY = "DAY";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 8)
+    private String granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    private long ridesCreated;
+    private long ridesCompleted;
+    private long ridesCancelled;
+
+    private long bookingsCreated;
+    private long bookingsCompleted;
+
+    private long paymentsCreated;
+    private long paymentsSucceeded;
+    private double revenue;
+    private double platformCommission;
+
+    private long newUsers;
+    private long newDrivers;
+    private long newPassengers;
+}
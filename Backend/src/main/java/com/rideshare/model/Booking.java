@@ -9,11 +9,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_updated_at", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -53,6 +56,10 @@ public class Booking {
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime bookingTime;
+    
+    // Drives incremental analytics rollups; bulk SQL updates must set it too
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
 
     // FIX: Added JsonIgnore to prevent infinite recursion in API response
     @OneToOne(mappedBy = "booking", cascade = CascadeType.ALL)
@@ -0,0 +1,27 @@
+package com.rideshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A running application instance, kept alive by periodic heartbeats.
+ * Live nodes are used to partition ride ids for scheduled work.
+ */
+@Entity
+@Table(name = "cluster_nodes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterNode {
+
+    @Id
+    @Column(name = "node_id", length = 128)
+    private String nodeId;
+
+    @Column(name = "last_heartbeat", nullable = false)
+    private LocalDateTime lastHeartbeat;
+}
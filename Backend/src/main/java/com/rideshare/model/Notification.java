@@ -9,7 +9,12 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    // Per-user unread/history lookups stay index-only as the table grows
+    @Index(name = "idx_notifications_recipient_read_created", columnList = "user_id, is_read, created_at"),
+    // Retention purge scans by age
+    @Index(name = "idx_notifications_created", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
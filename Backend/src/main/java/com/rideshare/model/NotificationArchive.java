@@ -0,0 +1,44 @@
+package com.rideshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notifications moved out of the live table by the retention job.
+ * Keeps the original id and a plain user id so archived rows never join back to the hot path.
+ */
+@Entity
+@Table(name = "notifications_archive", indexes = {
+    @Index(name = "idx_notifications_archive_user_created", columnList = "user_id, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationArchive {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false)
+    private String type;
+    
+    @Column(nullable = false)
+    private String message;
+    
+    private Long relatedId;
+    
+    @Column(nullable = false)
+    private boolean isRead;
+    
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -22,12 +22,20 @@ public class OTP {
     @Column(nullable = false)
     private String email;
     
+    // HMAC of the code, never the code itself
     @Column(nullable = false)
     private String otpCode;
     
     @Column(nullable = false)
     private Boolean verified = false;
     
+    // Failed verification attempts for this email, carried over when a new code replaces this one
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    // When the attempt count above lapses; null while there are no failures
+    private LocalDateTime attemptsWindowEndsAt;
+    
     @Column(nullable = false)
     private LocalDateTime expiresAt;
     
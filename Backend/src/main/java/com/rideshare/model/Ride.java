@@ -9,13 +9,16 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "rides")
+@Table(name = "rides", indexes = {
+    @Index(name = "idx_rides_updated_at", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -64,4 +67,8 @@ public class Ride {
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime createdAt;
+    
+    // Drives incremental analytics rollups; bulk SQL updates must set it too
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.rideshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A ride-wide update (cancellation, completion, reminder) stored once for all booked passengers.
+ * Passengers receive it on /topic/ride/{rideId}; per-user read state lives in RideEventRead.
+ */
+@Entity
+@Table(name = "ride_events", indexes = {
+    @Index(name = "idx_ride_events_ride", columnList = "ride_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "ride_id", nullable = false)
+    private Long rideId;
+    
+    @Column(nullable = false)
+    private String type; // RIDE_CANCELLED, RIDE_COMPLETED, RIDE_REMINDER, etc.
+    
+    @Column(nullable = false)
+    private String message;
+    
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,39 @@
+package com.rideshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ride events moved out of the live table by the retention job.
+ * Keeps the original id so archived read markers still point at their event.
+ */
+@Entity
+@Table(name = "ride_events_archive", indexes = {
+    @Index(name = "idx_ride_events_archive_ride", columnList = "ride_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideEventArchive {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "ride_id", nullable = false)
+    private Long rideId;
+    
+    @Column(nullable = false)
+    private String type;
+    
+    @Column(nullable = false)
+    private String message;
+    
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
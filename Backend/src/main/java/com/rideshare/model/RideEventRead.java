@@ -0,0 +1,36 @@
+package com.rideshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a ride event as read by one passenger. No row means unread.
+ */
+@Entity
+@Table(name = "ride_event_reads", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_ride_event_reads_event_user", columnNames = {"ride_event_id", "user_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideEventRead {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "ride_event_id", nullable = false)
+    private Long rideEventId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime readAt;
+}
@@ -0,0 +1,35 @@
+package com.rideshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read markers of archived ride events, moved out of the live table by the retention job.
+ */
+@Entity
+@Table(name = "ride_event_reads_archive", indexes = {
+    @Index(name = "idx_ride_event_reads_archive_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideEventReadArchive {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "ride_event_id", nullable = false)
+    private Long rideEventId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    private LocalDateTime readAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,44 @@
+package com.rideshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Delivery state of a scheduled ride reminder.
+ * One row per ride and reminder type. A node claims the row (claimedAt) before
+ * sending and sets deliveredAt once the send succeeded; a claim left behind by a
+ * crashed node goes stale and the reminder is picked up again.
+ */
+@Entity
+@Table(name = "ride_reminders",
+       uniqueConstraints = @UniqueConstraint(name = "uk_ride_reminders_ride_type",
+                                             columnNames = {"ride_id", "reminder_type"}),
+       indexes = @Index(name = "idx_ride_reminders_pending", columnList = "delivered_at, due_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideReminder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "ride_id", nullable = false)
+    private Long rideId;
+
+    @Column(name = "reminder_type", nullable = false)
+    private String reminderType; // DEPARTURE_2H, DRIVER_1H
+
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+}
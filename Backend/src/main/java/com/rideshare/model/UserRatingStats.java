@@ -0,0 +1,32 @@
+package com.rideshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running rating aggregate per reviewed user, so listings can join one row
+ * instead of averaging the reviews table for every user shown.
+ * Maintained on each new review and reconciled from reviews by UserDirectoryService.
+ */
+@Entity
+@Table(name = "user_rating_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRatingStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long reviewCount;
+
+    @Column(nullable = false)
+    private long ratingSum;
+
+    @Column(nullable = false)
+    private double averageRating;
+}
@@ -0,0 +1,42 @@
+package com.rideshare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One lower-cased word of a user's name or email (plus the full email and its local part).
+ * The primary key (term, user_id) is the search index: a prefix query is a single
+ * range scan instead of a '%keyword%' scan over every user.
+ */
+@Entity
+@Table(name = "user_search_terms", indexes = {
+    @Index(name = "idx_user_search_terms_user", columnList = "user_id")
+})
+@IdClass(UserSearchTerm.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchTerm {
+
+    @Id
+    @Column(length = 64)
+    private String term;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String term;
+        private Long userId;
+    }
+}
@@ -0,0 +1,24 @@
+package com.rideshare.repository;
+
+import com.rideshare.model.ActivityLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ActivityLogRepository extends JpaRepository<ActivityLog, Long> {
+
+    // Keyset pagination over (occurredAt, id), newest first: first page, then pages after a cursor
+    List<ActivityLog> findAllByOrderByOccurredAtDescIdDesc(Pageable pageable);
+
+    @Query("SELECT a FROM ActivityLog a WHERE a.occurredAt < :occurredAt " +
+           "OR (a.occurredAt = :occurredAt AND a.id < :id) ORDER BY a.occurredAt DESC, a.id DESC")
+    List<ActivityLog> findPageBefore(@Param("occurredAt") LocalDateTime occurredAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+}
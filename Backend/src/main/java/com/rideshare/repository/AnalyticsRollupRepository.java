@@ -0,0 +1,41 @@
+package com.rideshare.repository;
+
+import com.rideshare.model.AnalyticsRollup;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public interface AnalyticsRollupRepository extends JpaRepository<AnalyticsRollup, Long> {
+
+    // Buckets of one granularity in [start, end)
+    @Query("SELECT r FROM AnalyticsRollup r WHERE r.granularity = :granularity " +
+           "AND r.bucketStart >= :start AND r.bucketStart < :end ORDER BY r.bucketStart")
+    List<AnalyticsRollup> findBuckets(@Param("granularity") String granularity,
+                                      @Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end);
+
+    // Same buckets streamed through a cursor for exports; must run in a transaction
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r FROM AnalyticsRollup r WHERE r.granularity = :granularity " +
+           "AND r.bucketStart >= :start AND r.bucketStart < :end ORDER BY r.bucketStart")
+    Stream<AnalyticsRollup> streamBuckets(@Param("granularity") String granularity,
+                                          @Param("start") LocalDateTime start,
+                                          @Param("end") LocalDateTime end);
+
+    @Query("SELECT MAX(r.bucketStart) FROM AnalyticsRollup r WHERE r.granularity = 'HOUR'")
+    LocalDateTime findLatestHour();
+}
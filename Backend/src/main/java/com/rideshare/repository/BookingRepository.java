@@ -1,24 +1,46 @@
 package com.rideshare.repository;
 
+import com.rideshare.dto.BookingExportRow;
 import com.rideshare.model.Booking;
 import com.rideshare.model.Ride;
 import com.rideshare.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByPassengerOrderByBookingTimeDesc(User passenger);
     List<Booking> findByRideDriverOrderByBookingTimeDesc(User driver);
+
+    // Same lookups by id, for callers that only have the authenticated user's id
+    List<Booking> findByPassenger_IdOrderByBookingTimeDesc(Long passengerId);
+    List<Booking> findByRide_Driver_IdOrderByBookingTimeDesc(Long driverId);
+    
+    // Counts and newest-N pages for admin user details, without loading a user's whole history
+    long countByPassenger_Id(Long passengerId);
+    long countByRide_Driver_Id(Long driverId);
+    List<Booking> findByPassenger_IdOrderByBookingTimeDesc(Long passengerId, Pageable pageable);
     
     // NEW: Find all bookings for a specific ride
     List<Booking> findByRide(Ride ride);
 
+    boolean existsByRide_IdAndPassenger_Id(Long rideId, Long passengerId);
+
+    boolean existsByRide_IdAndPassenger_IdAndStatusNot(Long rideId, Long passengerId, String status);
+
     Long countByStatus(String status);
 
     @Query("SELECT COUNT(b) FROM Booking b WHERE DATE(b.bookingTime) = CURRENT_DATE")
@@ -29,4 +51,34 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByStatusOrderByBookingTimeDesc(String status);
 
     List<Booking> findByBookingTimeBetween(LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+
+    // Completed bookings of rides completed in a departure window, with ride, driver and
+    // passenger fetched in the same row. Streamed through a cursor; must run in a transaction.
+    // nodeCount/nodeIndex select this node's partition of ride ids (1/0 for all rides).
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b JOIN FETCH b.ride r JOIN FETCH r.driver JOIN FETCH b.passenger " +
+           "WHERE r.status = 'COMPLETED' AND b.status = 'COMPLETED' " +
+           "AND r.departureDateTime BETWEEN :start AND :end " +
+           "AND MOD(r.id, :nodeCount) = :nodeIndex")
+    Stream<Booking> streamCompletedForReviewReminder(@Param("start") LocalDateTime start,
+                                                     @Param("end") LocalDateTime end,
+                                                     @Param("nodeCount") long nodeCount,
+                                                     @Param("nodeIndex") long nodeIndex);
+
+    // Flat rows for the admin export, oldest first; optional status and booking-time range.
+    // Streamed through a cursor; must run in a transaction.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.rideshare.dto.BookingExportRow(b.id, r.id, r.source, r.destination, " +
+           "r.departureDateTime, p.id, p.name, p.email, b.seatsBooked, b.pickupLocation, b.dropLocation, " +
+           "b.estimatedFare, b.status, b.bookingTime) " +
+           "FROM Booking b JOIN b.ride r JOIN b.passenger p " +
+           "WHERE (:status IS NULL OR b.status = :status) " +
+           "AND (:start IS NULL OR b.bookingTime >= :start) AND (:end IS NULL OR b.bookingTime < :end) " +
+           "ORDER BY b.id")
+    Stream<BookingExportRow> streamForExport(@Param("status") String status,
+                                             @Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end);
+}
@@ -2,7 +2,11 @@ package com.rideshare.repository;
 
 import com.rideshare.model.Notification;
 import com.rideshare.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,7 +15,22 @@ import java.util.List;
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     // Fetch unread notifications sorted by newest first
     List<Notification> findByRecipientAndIsReadFalseOrderByCreatedAtDesc(User recipient);
-    
+
+    // Newest unread notifications, limited by the pageable
+    List<Notification> findByRecipient_IdAndIsReadFalseOrderByIdDesc(Long recipientId, Pageable pageable);
+
     // Optional: Fetch all recent notifications
     List<Notification> findByRecipientOrderByCreatedAtDesc(User recipient);
-}
\ No newline at end of file
+
+    // Keyset pagination over history: first page, then pages older than a cursor id
+    List<Notification> findByRecipient_IdOrderByIdDesc(Long recipientId, Pageable pageable);
+
+    List<Notification> findByRecipient_IdAndIdLessThanOrderByIdDesc(Long recipientId, Long beforeId, Pageable pageable);
+
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.recipient.id = :userId AND n.isRead = false")
+    long countUnreadForUser(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.recipient.id = :userId AND n.isRead = false")
+    int markAllAsReadForUser(@Param("userId") Long userId);
+}
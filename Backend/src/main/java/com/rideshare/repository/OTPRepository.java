@@ -2,6 +2,9 @@ package com.rideshare.repository;
 
 import com.rideshare.model.OTP;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -13,6 +16,13 @@ public interface OTPRepository extends JpaRepository<OTP, Long> {
     Optional<OTP> findByEmailAndOtpCodeAndVerifiedFalse(String email, String otpCode);
     Optional<OTP> findByEmailAndOtpCode(String email, String otpCode);
     List<OTP> findByEmailAndVerifiedFalse(String email);
+    Optional<OTP> findFirstByEmailOrderByIdDesc(String email);
     void deleteByExpiresAtBefore(LocalDateTime dateTime);
     void deleteByEmail(String email);
+
+    // Expired codes, except those still holding a running attempt window for their email
+    @Modifying
+    @Query("DELETE FROM OTP o WHERE o.expiresAt < :now " +
+           "AND (o.attemptsWindowEndsAt IS NULL OR o.attemptsWindowEndsAt < :now)")
+    int deleteExpired(@Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.rideshare.repository;
 
+import com.rideshare.dto.PaymentExportRow;
 import com.rideshare.model.Payment;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,6 +13,9 @@ import java.time.LocalDateTime;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
@@ -53,4 +59,18 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     List<Payment> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
     long countByStatus(String status);
-    }
\ No newline at end of file
+    
+    // Flat rows for the admin export, oldest first; optional status and creation range.
+    // Streamed through a cursor; must run in a transaction.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.rideshare.dto.PaymentExportRow(p.id, p.booking.id, pa.id, pa.email, d.id, d.email, " +
+           "p.amount, p.platformCommission, p.driverEarnings, p.currency, p.status, p.razorpayOrderId, " +
+           "p.razorpayPaymentId, p.createdAt, p.completedAt, p.refundedAt) " +
+           "FROM Payment p JOIN p.passenger pa JOIN p.driver d " +
+           "WHERE (:status IS NULL OR p.status = :status) " +
+           "AND (:start IS NULL OR p.createdAt >= :start) AND (:end IS NULL OR p.createdAt < :end) " +
+           "ORDER BY p.id")
+    Stream<PaymentExportRow> streamForExport(@Param("status") String status,
+                                             @Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,26 @@
+package com.rideshare.repository;
+
+import com.rideshare.model.RideEventRead;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RideEventReadRepository extends JpaRepository<RideEventRead, Long> {
+    
+    boolean existsByRideEventIdAndUserId(Long rideEventId, Long userId);
+    
+    // Mark every unread event on the passenger's booked rides as read in one statement
+    @Modifying
+    @Query(value = "INSERT INTO ride_event_reads (ride_event_id, user_id, read_at) " +
+                   "SELECT e.id, :userId, NOW() FROM ride_events e " +
+                   "WHERE EXISTS (SELECT 1 FROM bookings b WHERE b.ride_id = e.ride_id " +
+                   "AND b.passenger_id = :userId AND b.booking_time <= e.created_at " +
+                   "AND (b.status <> 'CANCELLED' OR e.type IN ('RIDE_CANCELLED', 'RIDE_CANCELLED_ADMIN'))) " +
+                   "AND NOT EXISTS (SELECT 1 FROM ride_event_reads r " +
+                   "WHERE r.ride_event_id = e.id AND r.user_id = :userId)",
+           nativeQuery = true)
+    int markAllReadForPassenger(@Param("userId") Long userId);
+}
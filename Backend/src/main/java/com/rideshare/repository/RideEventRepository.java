@@ -0,0 +1,30 @@
+package com.rideshare.repository;
+
+import com.rideshare.model.RideEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RideEventRepository extends JpaRepository<RideEvent, Long> {
+    
+    // A passenger sees an event only if it was published after they booked, and their booking
+    // is still live, unless the event is the cancellation that ended it
+    String VISIBLE_TO_PASSENGER =
+           "EXISTS (SELECT b FROM Booking b WHERE b.ride.id = e.rideId AND b.passenger.id = :userId " +
+           "AND b.bookingTime <= e.createdAt " +
+           "AND (b.status <> 'CANCELLED' OR e.type IN ('RIDE_CANCELLED', 'RIDE_CANCELLED_ADMIN')))";
+    
+    // Unread events on rides the passenger has booked, newest first
+    @Query("SELECT e FROM RideEvent e WHERE " + VISIBLE_TO_PASSENGER + " AND " +
+           "NOT EXISTS (SELECT r FROM RideEventRead r WHERE r.rideEventId = e.id AND r.userId = :userId) " +
+           "ORDER BY e.id DESC")
+    List<RideEvent> findUnreadForPassenger(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT COUNT(e) > 0 FROM RideEvent e WHERE e.id = :eventId AND " + VISIBLE_TO_PASSENGER)
+    boolean isVisibleToPassenger(@Param("eventId") Long eventId, @Param("userId") Long userId);
+}
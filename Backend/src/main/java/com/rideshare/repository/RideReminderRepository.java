@@ -0,0 +1,40 @@
+package com.rideshare.repository;
+
+import com.rideshare.model.RideReminder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RideReminderRepository extends JpaRepository<RideReminder, Long> {
+
+    List<RideReminder> findByRideId(Long rideId);
+
+    // Undelivered reminders of rides that are still active, used to rebuild the wheel
+    @Query("SELECT rr FROM RideReminder rr WHERE rr.deliveredAt IS NULL AND rr.rideId IN " +
+           "(SELECT r.id FROM Ride r WHERE r.status = 'ACTIVE')")
+    List<RideReminder> findPendingForActiveRides();
+
+    // Undelivered reminders falling due before the horizon, to pick up rides posted on other nodes
+    List<RideReminder> findByDeliveredAtIsNullAndDueAtBefore(LocalDateTime horizon);
+
+    // Claim a reminder for sending; returns 0 if it was delivered or another node holds a live claim
+    @Modifying
+    @Query("UPDATE RideReminder rr SET rr.claimedAt = :now WHERE rr.id = :id AND rr.deliveredAt IS NULL " +
+           "AND (rr.claimedAt IS NULL OR rr.claimedAt < :staleBefore)")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("UPDATE RideReminder rr SET rr.deliveredAt = :now WHERE rr.id = :id AND rr.deliveredAt IS NULL")
+    int markDelivered(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Give up a claim after a failed send so the next sync retries it
+    @Modifying
+    @Query("UPDATE RideReminder rr SET rr.claimedAt = NULL WHERE rr.id = :id AND rr.deliveredAt IS NULL")
+    int releaseClaim(@Param("id") Long id);
+}
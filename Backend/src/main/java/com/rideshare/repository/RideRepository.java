@@ -1,19 +1,35 @@
 package com.rideshare.repository;
 
+import com.rideshare.dto.RideExportRow;
 import com.rideshare.model.Ride;
 import com.rideshare.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface RideRepository extends JpaRepository<Ride, Long> {
     
     List<Ride> findByDriverOrderByDepartureDateTimeDesc(User driver);
+
+    List<Ride> findByDriver_IdOrderByDepartureDateTimeDesc(Long driverId);
+
+    // Count and newest-N page for admin user details
+    long countByDriver_Id(Long driverId);
+
+    boolean existsByIdAndDriver_Id(Long id, Long driverId);
+
+    List<Ride> findByDriver_IdOrderByDepartureDateTimeDesc(Long driverId, Pageable pageable);
     
     List<Ride> findByStatusOrderByDepartureDateTimeAsc(String status);
     
@@ -52,4 +68,23 @@ public interface RideRepository extends JpaRepository<Ride, Long> {
        List<Ride> findByStatusOrderByDepartureDateTimeDesc(String status);
 
        List<Ride> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+
+       // Active upcoming rides that have no reminder rows yet (rides posted before reminders were persisted)
+       @Query("SELECT r FROM Ride r WHERE r.status = 'ACTIVE' AND r.departureDateTime > :now AND " +
+              "NOT EXISTS (SELECT rr.id FROM RideReminder rr WHERE rr.rideId = r.id)")
+       List<Ride> findActiveRidesWithoutReminders(@Param("now") LocalDateTime now);
+
+       // Flat rows for the admin export, oldest first; optional status and creation range.
+       // Streamed through a cursor; must run in a transaction.
+       @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+       @Query("SELECT new com.rideshare.dto.RideExportRow(r.id, d.id, d.name, d.email, r.source, " +
+              "r.destination, r.departureDateTime, r.totalSeats, r.availableSeats, r.pricePerKm, " +
+              "r.status, r.createdAt) " +
+              "FROM Ride r JOIN r.driver d " +
+              "WHERE (:status IS NULL OR r.status = :status) " +
+              "AND (:start IS NULL OR r.createdAt >= :start) AND (:end IS NULL OR r.createdAt < :end) " +
+              "ORDER BY r.id")
+       Stream<RideExportRow> streamForExport(@Param("status") String status,
+                                             @Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end);
+}
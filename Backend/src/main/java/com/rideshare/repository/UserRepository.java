@@ -29,9 +29,4 @@ public interface UserRepository extends JpaRepository<User, Long> {
     }
 
     List<User> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
-
-    // 2. Fix for searchUsers
-    // This searches for a user by name OR email (case-insensitive)
-    @Query("SELECT u FROM User u WHERE LOWER(u.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<User> searchUsers(@Param("keyword") String keyword);
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.rideshare.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
@@ -9,6 +10,7 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtTokenProvider {
@@ -19,8 +21,22 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private Long jwtExpiration;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    // Recently verified tokens, so repeat requests skip the parse and HMAC check
+    @Value("${jwt.verified-cache.max-entries:10000}")
+    private int maxCachedTokens;
+    
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    private final ConcurrentHashMap<String, Claims> verifiedTokens = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        // Key and parser are immutable and thread-safe, so build them once
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
     
     public String generateToken(Authentication authentication) {
@@ -28,33 +44,66 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
         
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(email)
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+                .expiration(expiryDate);
+        
+        // Carry id and role so requests can be authorised without a user lookup
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            builder.claim(UserPrincipal.CLAIM_USER_ID, principal.getId())
+                   .claim(UserPrincipal.CLAIM_ROLE, principal.getRole().name());
+        }
+        
+        return builder.signWith(signingKey).compact();
     }
     
-    public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Verify a token and return its claims in a single parse
+     * @return the claims, or null if the token is invalid or expired
+     */
+    public Claims validateAndGetClaims(String token) {
+        Claims cached = verifiedTokens.get(token);
+        if (cached != null) {
+            if (!isExpired(cached)) {
+                return cached;
+            }
+            verifiedTokens.remove(token, cached);
+            return null;
+        }
+        
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
         
+        if (verifiedTokens.size() >= maxCachedTokens) {
+            // Drop expired entries first; if that's not enough start over rather than track recency
+            verifiedTokens.values().removeIf(this::isExpired);
+            if (verifiedTokens.size() >= maxCachedTokens) {
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(token, claims);
+        return claims;
+    }
+    
+    public String getEmailFromToken(String token) {
+        Claims claims = validateAndGetClaims(token);
+        if (claims == null) {
+            throw new JwtException("Invalid JWT token");
+        }
         return claims.getSubject();
     }
     
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return validateAndGetClaims(token) != null;
+    }
+    
+    private boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
     }
-}
\ No newline at end of file
+}
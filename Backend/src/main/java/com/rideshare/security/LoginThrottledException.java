@@ -0,0 +1,20 @@
+package com.rideshare.security;
+
+/**
+ * Login or registration refused because of throttling or hashing overload.
+ * Mapped to HTTP 429 with a Retry-After header so clients back off instead of
+ * retrying immediately, and can tell shedding apart from bad credentials.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,141 @@
+package com.rideshare.security;
+
+import com.rideshare.model.Role;
+import com.rideshare.repository.BookingRepository;
+import com.rideshare.repository.RideRepository;
+import com.rideshare.service.UserStateCache;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Authenticates STOMP sessions and authorises what they subscribe to.
+ *
+ * The CONNECT frame carries the same bearer token as REST calls in an
+ * Authorization header; the principal built from it is attached to the session
+ * and every later frame. SUBSCRIBE is then checked against the destination
+ * (topics not listed here are refused), and clients may never SEND straight
+ * to a broker topic.
+ */
+@Component
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    private static final String TOPIC_PREFIX = "/topic/";
+    private static final String RIDE_TOPIC_PREFIX = "/topic/ride/";
+    private static final String USER_TOPIC_PREFIX = "/topic/user/";
+    private static final String ADMIN_TOPIC_PREFIX = "/topic/admin/";
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private UserStateCache userStateCache;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        StompCommand command = accessor.getCommand();
+        if (StompCommand.CONNECT.equals(command)) {
+            accessor.setUser(authenticate(accessor));
+        } else if (StompCommand.SUBSCRIBE.equals(command)) {
+            authorizeSubscription(principalOf(accessor), accessor.getDestination());
+        } else if (StompCommand.SEND.equals(command)) {
+            String destination = accessor.getDestination();
+            if (destination != null && destination.startsWith(TOPIC_PREFIX)) {
+                throw new AccessDeniedException("Clients cannot publish to " + destination);
+            }
+        }
+        return message;
+    }
+
+    private UsernamePasswordAuthenticationToken authenticate(StompHeaderAccessor accessor) {
+        String bearerToken = accessor.getFirstNativeHeader("Authorization");
+        if (!StringUtils.hasText(bearerToken) || !bearerToken.startsWith("Bearer ")) {
+            throw new BadCredentialsException("Missing bearer token");
+        }
+
+        Claims claims = tokenProvider.validateAndGetClaims(bearerToken.substring(7));
+        if (claims == null) {
+            throw new BadCredentialsException("Invalid or expired token");
+        }
+
+        UserPrincipal principal = UserPrincipal.fromClaims(claims);
+        if (principal == null) {
+            // Token issued before id and role were embedded
+            principal = (UserPrincipal) userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        if (userStateCache.isBlocked(principal.getId())) {
+            throw new BadCredentialsException("Account is blocked");
+        }
+
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    private UserPrincipal principalOf(StompHeaderAccessor accessor) {
+        if (accessor.getUser() instanceof UsernamePasswordAuthenticationToken authentication
+                && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal;
+        }
+        throw new AccessDeniedException("Session is not authenticated");
+    }
+
+    private void authorizeSubscription(UserPrincipal principal, String destination) {
+        if (destination == null) {
+            throw new AccessDeniedException("Missing destination");
+        }
+
+        if (destination.startsWith(USER_TOPIC_PREFIX)) {
+            // Personal notifications are only for their owner
+            if (!idAfter(destination, USER_TOPIC_PREFIX).equals(principal.getId())) {
+                throw new AccessDeniedException("Cannot subscribe to another user's notifications");
+            }
+        } else if (destination.startsWith(RIDE_TOPIC_PREFIX)) {
+            Long rideId = idAfter(destination, RIDE_TOPIC_PREFIX);
+            // Ride-wide events go to the driver and passengers with a live booking
+            boolean allowed = principal.getRole() == Role.ADMIN
+                    || rideRepository.existsByIdAndDriver_Id(rideId, principal.getId())
+                    || bookingRepository.existsByRide_IdAndPassenger_IdAndStatusNot(rideId, principal.getId(), "CANCELLED");
+            if (!allowed) {
+                throw new AccessDeniedException("Not booked on ride #" + rideId);
+            }
+        } else if (destination.startsWith(ADMIN_TOPIC_PREFIX)) {
+            // Dashboard stats and report progress, same audience as /api/admin/**
+            if (principal.getRole() != Role.ADMIN) {
+                throw new AccessDeniedException("Admin topics require the ADMIN role");
+            }
+        } else if (destination.startsWith(TOPIC_PREFIX)) {
+            throw new AccessDeniedException("Unknown topic " + destination);
+        }
+    }
+
+    private static Long idAfter(String destination, String prefix) {
+        try {
+            return Long.parseLong(destination.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            throw new AccessDeniedException("Invalid destination " + destination);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.rideshare.security;
+
+import com.rideshare.model.Role;
+import com.rideshare.model.User;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Authenticated user as carried in the security context.
+ * Built from the JWT claims on each request, so services can read the
+ * current user's id and role without loading the user.
+ */
+public class UserPrincipal implements UserDetails {
+    
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    
+    private final Long id;
+    private final String email;
+    private final String password;
+    private final Role role;
+    private final boolean blocked;
+    
+    public UserPrincipal(Long id, String email, String password, Role role, boolean blocked) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.role = role;
+        this.blocked = blocked;
+    }
+    
+    public static UserPrincipal fromUser(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getPassword(), user.getRole(), user.isBlocked());
+    }
+    
+    /**
+     * Principal from verified token claims, or null for tokens issued without id and role
+     */
+    public static UserPrincipal fromClaims(Claims claims) {
+        Long id = claims.get(CLAIM_USER_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (id == null || role == null) {
+            return null;
+        }
+        return new UserPrincipal(id, claims.getSubject(), null, Role.valueOf(role), false);
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getEmail() {
+        return email;
+    }
+    
+    public Role getRole() {
+        return role;
+    }
+    
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+    
+    @Override
+    public String getPassword() {
+        return password;
+    }
+    
+    @Override
+    public String getUsername() {
+        return email;
+    }
+    
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+    
+    @Override
+    public boolean isAccountNonLocked() {
+        return !blocked;
+    }
+    
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -0,0 +1,259 @@
+package com.rideshare.service;
+
+import com.rideshare.dto.ActivityLogEntry;
+import com.rideshare.dto.ActivityLogPage;
+import com.rideshare.model.ActivityLog;
+import com.rideshare.model.User;
+import com.rideshare.repository.ActivityLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only activity feed for admins.
+ *
+ * Services record events after their transaction commits; a BatchWriter
+ * drains the queue and writes them as JDBC batches, so logging never adds a
+ * round trip to the request. Text is cut to the column lengths on the way in,
+ * and a batch the database rejects is retried row by row so one bad entry
+ * costs only itself. The feed is read newest first with keyset cursors
+ * over (occurred_at, id), which stays one index range scan however deep the
+ * admin pages.
+ */
+@Service
+public class ActivityLogService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO activity_log (occurred_at, type, actor_id, actor_name, details, related_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String BACKFILL_RIDES =
+            "INSERT INTO activity_log (occurred_at, type, actor_id, actor_name, details, related_id) " +
+            "SELECT r.created_at, 'RIDE_CREATED', u.id, u.name, " +
+            "SUBSTRING(CONCAT(r.source, ' → ', r.destination), 1, " + ActivityLog.DETAILS_LENGTH + "), r.id " +
+            "FROM rides r JOIN users u ON u.id = r.driver_id WHERE r.created_at >= :since";
+
+    private static final String BACKFILL_BOOKINGS =
+            "INSERT INTO activity_log (occurred_at, type, actor_id, actor_name, details, related_id) " +
+            "SELECT b.booking_time, 'BOOKING_CREATED', u.id, u.name, CONCAT(b.seats_booked, ' seats'), b.id " +
+            "FROM bookings b JOIN users u ON u.id = b.passenger_id WHERE b.booking_time >= :since";
+
+    private static final String BACKFILL_USERS =
+            "INSERT INTO activity_log (occurred_at, type, actor_id, actor_name, details, related_id) " +
+            "SELECT u.created_at, 'USER_REGISTERED', u.id, u.name, u.role, u.id " +
+            "FROM users u WHERE u.created_at >= :since";
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${activity-log.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${activity-log.batch.max-size:200}")
+    private int maxBatchSize;
+
+    @Value("${activity-log.batch.max-latency-ms:500}")
+    private long maxLatencyMs;
+
+    // How far back to seed an empty log from rides, bookings and users
+    @Value("${activity-log.backfill-days:90}")
+    private int backfillDays;
+
+    @Value("${activity-log.page.max-size:200}")
+    private int maxPageSize;
+
+    private BatchWriter<ActivityLog> writer;
+    private Counter dropped;
+    private Counter failed;
+
+    @PostConstruct
+    public void start() {
+        dropped = Counter.builder("activity.log.dropped")
+                .description("Activity events dropped because the write queue was full")
+                .register(meterRegistry);
+        failed = Counter.builder("activity.log.failed")
+                .description("Activity events the database rejected even when written alone")
+                .register(meterRegistry);
+
+        // One attempt, then row by row: a batch the database rejects is usually one bad entry
+        writer = new BatchWriter<>("activity-log-writer", queueCapacity, maxBatchSize, maxLatencyMs, 1, 0) {
+            @Override
+            protected List<Long> insert(List<ActivityLog> batch) {
+                insertBatch(batch);
+                return List.of();
+            }
+
+            @Override
+            protected void dropped(ActivityLog entry, Exception error) {
+                failed.increment();
+                System.err.println("Dropped activity event " + entry.getType() + ": " + error.getMessage());
+            }
+        };
+        meterRegistry.gauge("activity.log.queue.size", writer, BatchWriter::queueSize);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        writer.stop(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Record an event performed by a user, once the current transaction commits
+     */
+    public void record(String type, User actor, String details, Long relatedId) {
+        record(type, actor != null ? actor.getId() : null, actor != null ? actor.getName() : null,
+                details, relatedId);
+    }
+
+    /**
+     * Record an event, once the current transaction commits.
+     * A null actor marks a system event.
+     */
+    public void record(String type, Long actorId, String actorName, String details, Long relatedId) {
+        ActivityLog entry = new ActivityLog(null, LocalDateTime.now(), type, actorId,
+                truncate(actorName, ActivityLog.ACTOR_NAME_LENGTH), truncate(details, ActivityLog.DETAILS_LENGTH),
+                relatedId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    /**
+     * One page of the feed, newest first, starting after the given cursor (null for the first page)
+     */
+    public ActivityLogPage getPage(String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        PageRequest page = PageRequest.of(0, limit);
+
+        List<ActivityLog> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = activityLogRepository.findAllByOrderByOccurredAtDescIdDesc(page);
+        } else {
+            int sep = cursor.lastIndexOf('_');
+            if (sep < 0) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            try {
+                rows = activityLogRepository.findPageBefore(
+                        LocalDateTime.parse(cursor.substring(0, sep)),
+                        Long.parseLong(cursor.substring(sep + 1)),
+                        page);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+
+        String nextCursor = null;
+        if (rows.size() == limit) {
+            ActivityLog last = rows.get(rows.size() - 1);
+            nextCursor = last.getOccurredAt() + "_" + last.getId();
+        }
+
+        List<ActivityLogEntry> items = rows.stream()
+                .map(ActivityLogEntry::fromActivityLog)
+                .collect(Collectors.toList());
+        return new ActivityLogPage(items, nextCursor);
+    }
+
+    /**
+     * Seed an empty log from existing rides, bookings and users
+     * Runs once at startup on one node
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        jobLeaseService.runWithLease("activity-log-backfill", Duration.ofMinutes(30), Duration.ZERO, () -> {
+            if (activityLogRepository.count() > 0) {
+                return;
+            }
+            MapSqlParameterSource since = new MapSqlParameterSource("since",
+                    Timestamp.valueOf(LocalDateTime.now().minusDays(backfillDays)));
+            int rows = namedJdbcTemplate.update(BACKFILL_USERS, since)
+                    + namedJdbcTemplate.update(BACKFILL_RIDES, since)
+                    + namedJdbcTemplate.update(BACKFILL_BOOKINGS, since);
+            System.out.println("Activity log seeded with " + rows + " events from the last " + backfillDays + " days");
+        });
+    }
+
+    private void enqueue(ActivityLog entry) {
+        if (!writer.offer(entry)) {
+            // The feed is informational; never block a request on it
+            dropped.increment();
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private void insertBatch(List<ActivityLog> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ActivityLog entry = batch.get(i);
+                ps.setTimestamp(1, Timestamp.valueOf(entry.getOccurredAt()));
+                ps.setString(2, entry.getType());
+                if (entry.getActorId() != null) {
+                    ps.setLong(3, entry.getActorId());
+                } else {
+                    ps.setNull(3, Types.BIGINT);
+                }
+                ps.setString(4, entry.getActorName());
+                ps.setString(5, entry.getDetails());
+                if (entry.getRelatedId() != null) {
+                    ps.setLong(6, entry.getRelatedId());
+                } else {
+                    ps.setNull(6, Types.BIGINT);
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,241 @@
+package com.rideshare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rideshare.dto.BookingExportRow;
+import com.rideshare.dto.PaymentExportRow;
+import com.rideshare.dto.RideExportRow;
+import com.rideshare.model.AnalyticsRollup;
+import com.rideshare.repository.AnalyticsRollupRepository;
+import com.rideshare.repository.BookingRepository;
+import com.rideshare.repository.PaymentRepository;
+import com.rideshare.repository.RideRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streams admin lists and report series as CSV or NDJSON.
+ *
+ * Rows come from repository cursors (flat DTO projections where possible) inside
+ * a read-only transaction and are written one at a time, so heap use stays
+ * constant however many rows an export covers.
+ */
+@Service
+public class AdminExportService {
+
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+
+    private static final String[] PAYMENT_COLUMNS = {
+        "id", "bookingId", "passengerId", "passengerEmail", "driverId", "driverEmail", "amount",
+        "platformCommission", "driverEarnings", "currency", "status", "razorpayOrderId",
+        "razorpayPaymentId", "createdAt", "completedAt", "refundedAt"
+    };
+
+    private static final String[] BOOKING_COLUMNS = {
+        "id", "rideId", "source", "destination", "departureDateTime", "passengerId", "passengerName",
+        "passengerEmail", "seatsBooked", "pickupLocation", "dropLocation", "estimatedFare", "status",
+        "bookingTime"
+    };
+
+    private static final String[] RIDE_COLUMNS = {
+        "id", "driverId", "driverName", "driverEmail", "source", "destination", "departureDateTime",
+        "totalSeats", "availableSeats", "pricePerKm", "status", "createdAt"
+    };
+
+    private static final String[] ROLLUP_COLUMNS = {
+        "bucketStart", "ridesCreated", "ridesCompleted", "ridesCancelled", "bookingsCreated",
+        "bookingsCompleted", "paymentsCreated", "paymentsSucceeded", "revenue", "platformCommission",
+        "newUsers", "newDrivers", "newPassengers"
+    };
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private AnalyticsRollupRepository rollupRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Rows written between flushes to the client
+    @Value("${admin.export.flush-rows:500}")
+    private int flushRows;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Check an export format before the response is committed
+     */
+    public static boolean isSupportedFormat(String format) {
+        return CSV.equalsIgnoreCase(format) || NDJSON.equalsIgnoreCase(format);
+    }
+
+    public void exportPayments(String status, LocalDateTime start, LocalDateTime end,
+                               String format, OutputStream out) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            try (Stream<PaymentExportRow> rows = paymentRepository.streamForExport(blankToNull(status), start, end)) {
+                write(rows, format, PAYMENT_COLUMNS, p -> new Object[] {
+                    p.getId(), p.getBookingId(), p.getPassengerId(), p.getPassengerEmail(), p.getDriverId(),
+                    p.getDriverEmail(), p.getAmount(), p.getPlatformCommission(), p.getDriverEarnings(),
+                    p.getCurrency(), p.getStatus(), p.getRazorpayOrderId(), p.getRazorpayPaymentId(),
+                    p.getCreatedAt(), p.getCompletedAt(), p.getRefundedAt()
+                }, out);
+            }
+        });
+    }
+
+    public void exportBookings(String status, LocalDateTime start, LocalDateTime end,
+                               String format, OutputStream out) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            try (Stream<BookingExportRow> rows = bookingRepository.streamForExport(blankToNull(status), start, end)) {
+                write(rows, format, BOOKING_COLUMNS, b -> new Object[] {
+                    b.getId(), b.getRideId(), b.getSource(), b.getDestination(), b.getDepartureDateTime(),
+                    b.getPassengerId(), b.getPassengerName(), b.getPassengerEmail(), b.getSeatsBooked(),
+                    b.getPickupLocation(), b.getDropLocation(), b.getEstimatedFare(), b.getStatus(),
+                    b.getBookingTime()
+                }, out);
+            }
+        });
+    }
+
+    public void exportRides(String status, LocalDateTime start, LocalDateTime end,
+                            String format, OutputStream out) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            try (Stream<RideExportRow> rows = rideRepository.streamForExport(blankToNull(status), start, end)) {
+                write(rows, format, RIDE_COLUMNS, r -> new Object[] {
+                    r.getId(), r.getDriverId(), r.getDriverName(), r.getDriverEmail(), r.getSource(),
+                    r.getDestination(), r.getDepartureDateTime(), r.getTotalSeats(), r.getAvailableSeats(),
+                    r.getPricePerKm(), r.getStatus(), r.getCreatedAt()
+                }, out);
+            }
+        });
+    }
+
+    /**
+     * Report time series: one row per hourly or daily rollup bucket in the range
+     */
+    public void exportReport(String granularity, LocalDateTime start, LocalDateTime end,
+                             String format, OutputStream out) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            try (Stream<AnalyticsRollup> rows = rollupRepository.streamBuckets(granularity, start, end)) {
+                write(rows, format, ROLLUP_COLUMNS, r -> new Object[] {
+                    r.getBucketStart(), r.getRidesCreated(), r.getRidesCompleted(), r.getRidesCancelled(),
+                    r.getBookingsCreated(), r.getBookingsCompleted(), r.getPaymentsCreated(),
+                    r.getPaymentsSucceeded(), r.getRevenue(), r.getPlatformCommission(), r.getNewUsers(),
+                    r.getNewDrivers(), r.getNewPassengers()
+                }, out);
+            }
+        });
+    }
+
+    private <T> void write(Stream<T> rows, String format, String[] columns,
+                           Function<T, Object[]> values, OutputStream out) {
+        boolean csv = CSV.equalsIgnoreCase(format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        try {
+            if (csv) {
+                writeCsvLine(writer, columns);
+            }
+
+            int written = 0;
+            Iterator<T> it = rows.iterator();
+            while (it.hasNext()) {
+                T row = it.next();
+                if (csv) {
+                    writeCsvLine(writer, values.apply(row));
+                } else {
+                    writeJsonLine(writer, columns, values.apply(row));
+                }
+
+                if (++written % flushRows == 0) {
+                    writer.flush();
+                    // Entity streams would otherwise keep every row in the persistence context
+                    entityManager.clear();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            // Usually the client went away mid-download
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeJsonLine(Writer writer, String[] columns, Object[] values) throws IOException {
+        writer.write('{');
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(objectMapper.writeValueAsString(columns[i]));
+            writer.write(':');
+            writer.write(objectMapper.writeValueAsString(values[i]));
+        }
+        writer.write("}\n");
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        // Spreadsheets run text cells starting with these as formulas; a leading quote keeps them literal
+        if (!(value instanceof Number) && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
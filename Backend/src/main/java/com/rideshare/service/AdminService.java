@@ -3,18 +3,35 @@ package com.rideshare.service;
 import com.rideshare.dto.*;
 import com.rideshare.model.*;
 import com.rideshare.repository.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class AdminService {
     
+    // Rides or bookings shown in the user details panel
+    private static final int RECENT_ITEMS = 10;
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -32,85 +49,69 @@ public class AdminService {
     
     @Autowired
     private NotificationService notificationService;
+    
+    @Autowired
+    private UserStateCache userStateCache;
+    
+    @Autowired
+    private DashboardStatsSnapshot dashboardStats;
+    
+    @Autowired
+    private ActivityLogService activityLog;
+    
+    @Autowired
+    private AnalyticsRollupService analyticsRollupService;
+    
+    @Autowired
+    private UserDirectoryService userDirectoryService;
+    
+    @Autowired
+    private DemandSupplyAggregator demandSupplyAggregator;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Value("${admin.user-details.pool-size:8}")
+    private int detailsPoolSize;
+    
+    @Value("${admin.user-details.timeout-ms:5000}")
+    private long detailsTimeoutMs;
+    
+    // Runs the independent lookups of getUserDetails; when saturated the caller runs them itself
+    private ThreadPoolExecutor detailsExecutor;
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        detailsExecutor = new ThreadPoolExecutor(detailsPoolSize, detailsPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(detailsPoolSize * 16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "admin-details-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        detailsExecutor.shutdownNow();
+    }
 
     /**
      * Get dashboard statistics
+     * Served from the in-memory snapshot, which is kept current by domain events
      */
     public AdminDashboardStats getDashboardStatistics() {
-        AdminDashboardStats stats = new AdminDashboardStats();
-        
-        // User statistics
-        long totalUsers = userRepository.count();
-        long totalDrivers = userRepository.countByRole(Role.DRIVER);
-        long totalPassengers = userRepository.countByRole(Role.PASSENGER);
-        long activeUsersToday = userRepository.countActiveUsersToday();
-        
-        stats.setTotalUsers(totalUsers);
-        stats.setTotalDrivers(totalDrivers);
-        stats.setTotalPassengers(totalPassengers);
-        stats.setActiveUsersToday(activeUsersToday);
-        
-        // Ride statistics
-        long totalRides = rideRepository.count();
-        long activeRides = rideRepository.countByStatus("ACTIVE");
-        long completedRides = rideRepository.countByStatus("COMPLETED");
-        long cancelledRides = rideRepository.countByStatus("CANCELLED");
-        
-        stats.setTotalRides(totalRides);
-        stats.setActiveRides(activeRides);
-        stats.setCompletedRides(completedRides);
-        stats.setCancelledRides(cancelledRides);
-        
-        // Booking statistics
-        long totalBookings = bookingRepository.count();
-        long confirmedBookings = bookingRepository.countByStatus("CONFIRMED");
-        long completedBookings = bookingRepository.countByStatus("COMPLETED");
-        
-        stats.setTotalBookings(totalBookings);
-        stats.setConfirmedBookings(confirmedBookings);
-        stats.setCompletedBookings(completedBookings);
-        
-        // Payment statistics
-        Double totalRevenue = paymentRepository.getTotalRevenue();
-        Double platformCommission = paymentRepository.getTotalPlatformCommission();
-        Double driverEarnings = paymentRepository.getTotalDriverEarnings();
-        long successfulPayments = paymentRepository.countByStatus("SUCCESS");
-        
-        stats.setTotalRevenue(totalRevenue != null ? totalRevenue : 0.0);
-        stats.setPlatformCommission(platformCommission != null ? platformCommission : 0.0);
-        stats.setDriverEarnings(driverEarnings != null ? driverEarnings : 0.0);
-        stats.setSuccessfulPayments(successfulPayments);
-        
-        // Recent activity
-        stats.setRidesToday(rideRepository.countRidesCreatedToday());
-        stats.setBookingsToday(bookingRepository.countBookingsToday());
-        stats.setRevenueToday(paymentRepository.getRevenueToday());
-        
-        // Growth metrics
-        stats.setUserGrowthRate(calculateGrowthRate("users"));
-        stats.setRideGrowthRate(calculateGrowthRate("rides"));
-        stats.setRevenueGrowthRate(calculateGrowthRate("revenue"));
-        
-        return stats;
+        return dashboardStats.getStats();
     }
     
     /**
-     * Get all users with filtering
+     * Get one page of users with filtering
+     * Keyset-paged on id, newest first; see UserDirectoryService
      */
-    public List<UserManagementDTO> getAllUsers(String role, String status, String search) {
-        List<User> users;
-        
-        if (search != null && !search.isEmpty()) {
-            users = userRepository.searchUsers(search);
-        } else if (role != null && !role.isEmpty()) {
-            users = userRepository.findByRole(Role.valueOf(role));
-        } else {
-            users = userRepository.findAll();
-        }
-        
-        return users.stream()
-                .map(this::convertToUserManagementDTO)
-                .collect(Collectors.toList());
+    public UserDirectoryPage getAllUsers(String role, String status, String search, String cursor, int size) {
+        return userDirectoryService.getPage(role, status, search, cursor, size);
     }
     
     /**
@@ -121,33 +122,44 @@ public class AdminService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         Map<String, Object> details = new HashMap<>();
-        details.put("user", convertToUserManagementDTO(user));
+        PageRequest recent = PageRequest.of(0, RECENT_ITEMS);
         
-        if (user.getRole() == Role.DRIVER) {
-            List<Ride> rides = rideRepository.findByDriverOrderByDepartureDateTimeDesc(user);
-            List<Booking> bookings = bookingRepository.findByRideDriverOrderByBookingTimeDesc(user);
-            Double earnings = paymentRepository.getTotalEarningsForDriver(user.getId());
+        // Counts, sums and the newest few items are independent lookups, so run them side by side
+        try (LookupScope scope = new LookupScope()) {
+            Future<Double> avgRating = scope.fork(() -> reviewRepository.getAverageRatingForUser(userId));
+            Future<Long> totalReviews = scope.fork(() -> reviewRepository.getTotalReviewsForUser(userId));
             
-            details.put("totalRides", rides.size());
-            details.put("totalBookings", bookings.size());
-            details.put("totalEarnings", earnings != null ? earnings : 0.0);
-            details.put("recentRides", rides.stream().limit(10).collect(Collectors.toList()));
-        } else {
-            List<Booking> bookings = bookingRepository.findByPassengerOrderByBookingTimeDesc(user);
-            Double spent = paymentRepository.getTotalSpentByPassenger(user.getId());
+            if (user.getRole() == Role.DRIVER) {
+                Future<Long> totalRides = scope.fork(() -> rideRepository.countByDriver_Id(userId));
+                Future<Long> totalBookings = scope.fork(() -> bookingRepository.countByRide_Driver_Id(userId));
+                Future<Double> earnings = scope.fork(() -> paymentRepository.getTotalEarningsForDriver(userId));
+                Future<List<Ride>> recentRides =
+                        scope.fork(() -> rideRepository.findByDriver_IdOrderByDepartureDateTimeDesc(userId, recent));
+                
+                details.put("totalRides", scope.join(totalRides));
+                details.put("totalBookings", scope.join(totalBookings));
+                Double total = scope.join(earnings);
+                details.put("totalEarnings", total != null ? total : 0.0);
+                details.put("recentRides", scope.join(recentRides));
+            } else {
+                Future<Long> totalBookings = scope.fork(() -> bookingRepository.countByPassenger_Id(userId));
+                Future<Double> spent = scope.fork(() -> paymentRepository.getTotalSpentByPassenger(userId));
+                Future<List<Booking>> recentBookings =
+                        scope.fork(() -> bookingRepository.findByPassenger_IdOrderByBookingTimeDesc(userId, recent));
+                
+                details.put("totalBookings", scope.join(totalBookings));
+                Double total = scope.join(spent);
+                details.put("totalSpent", total != null ? total : 0.0);
+                details.put("recentBookings", scope.join(recentBookings));
+            }
             
-            details.put("totalBookings", bookings.size());
-            details.put("totalSpent", spent != null ? spent : 0.0);
-            details.put("recentBookings", bookings.stream().limit(10).collect(Collectors.toList()));
+            // Reviews
+            Double rating = scope.join(avgRating);
+            details.put("user", convertToUserManagementDTO(user, rating));
+            details.put("averageRating", rating != null ? rating : 0.0);
+            details.put("totalReviews", scope.join(totalReviews));
         }
         
-        // Reviews
-        Double avgRating = reviewRepository.getAverageRatingForUser(userId);
-        Long totalReviews = reviewRepository.getTotalReviewsForUser(userId);
-        
-        details.put("averageRating", avgRating != null ? avgRating : 0.0);
-        details.put("totalReviews", totalReviews);
-        
         return details;
     }
     
@@ -161,6 +173,10 @@ public class AdminService {
         
         user.setBlocked(!user.isBlocked());
         User updated = userRepository.save(user);
+        userStateCache.invalidate(userId);
+        // The admin is the actor; the affected user is the related id
+        activityLog.record(user.isBlocked() ? "USER_BLOCKED" : "USER_UNBLOCKED", userService.getCurrentUser(),
+                user.getName(), user.getId());
         
         // Send notification to user
         String message = user.isBlocked() 
@@ -190,6 +206,10 @@ public class AdminService {
         
         user.setVerified(true);
         User updated = userRepository.save(user);
+        userStateCache.invalidate(userId);
+        activityLog.record("DRIVER_VERIFIED", userService.getCurrentUser(),
+                user.getCarModel() != null ? user.getName() + " · " + user.getCarModel() : user.getName(),
+                user.getId());
         
         // Send notification
         try {
@@ -267,6 +287,9 @@ public class AdminService {
         
         ride.setStatus("CANCELLED");
         rideRepository.save(ride);
+        dashboardStats.ridesMoved("ACTIVE", "CANCELLED", 1);
+        demandSupplyAggregator.recordSeatsWithdrawn(ride.getSource(), ride.getAvailableSeats());
+        activityLog.record("RIDE_CANCELLED_ADMIN", userService.getCurrentUser(), "Reason: " + reason, ride.getId());
         
         // Notify driver
         try {
@@ -280,23 +303,27 @@ public class AdminService {
             System.err.println("Failed to notify driver: " + e.getMessage());
         }
         
-        // Notify passengers and cancel bookings
+        // Cancel bookings and notify passengers with one ride-wide event
         List<Booking> bookings = bookingRepository.findByRide(ride);
+        int cancelled = 0;
         for (Booking booking : bookings) {
             if ("CONFIRMED".equals(booking.getStatus())) {
                 booking.setStatus("CANCELLED");
                 bookingRepository.save(booking);
-                
-                try {
-                    notificationService.sendNotification(
-                            booking.getPassenger(),
-                            "RIDE_CANCELLED_ADMIN",
-                            "Your booked ride has been cancelled by admin. Reason: " + reason,
-                            booking.getId()
-                    );
-                } catch (Exception e) {
-                    System.err.println("Failed to notify passenger: " + e.getMessage());
-                }
+                cancelled++;
+            }
+        }
+        dashboardStats.bookingsMoved("CONFIRMED", "CANCELLED", cancelled);
+        
+        if (cancelled > 0) {
+            try {
+                notificationService.broadcastToRide(
+                        ride,
+                        "RIDE_CANCELLED_ADMIN",
+                        "Your booked ride has been cancelled by admin. Reason: " + reason
+                );
+            } catch (Exception e) {
+                System.err.println("Failed to notify passengers: " + e.getMessage());
             }
         }
     }
@@ -306,32 +333,24 @@ public class AdminService {
      */
     public Map<String, Object> getAnalytics(LocalDateTime startDate, LocalDateTime endDate) {
         Map<String, Object> analytics = new HashMap<>();
+        AnalyticsRollup totals = analyticsRollupService.getTotals(startDate, endDate);
         
         // Rides analytics
-        List<Ride> rides = rideRepository.findByCreatedAtBetween(startDate, endDate);
-        analytics.put("ridesCreated", rides.size());
-        analytics.put("ridesCompleted", rides.stream().filter(r -> "COMPLETED".equals(r.getStatus())).count());
+        analytics.put("ridesCreated", totals.getRidesCreated());
+        analytics.put("ridesCompleted", totals.getRidesCompleted());
         
         // Bookings analytics
-        List<Booking> bookings = bookingRepository.findByBookingTimeBetween(startDate, endDate);
-        analytics.put("bookingsCreated", bookings.size());
-        analytics.put("bookingsCompleted", bookings.stream().filter(b -> "COMPLETED".equals(b.getStatus())).count());
+        analytics.put("bookingsCreated", totals.getBookingsCreated());
+        analytics.put("bookingsCompleted", totals.getBookingsCompleted());
         
         // Revenue analytics
-        List<Payment> payments = paymentRepository.findByCreatedAtBetween(startDate, endDate);
-        Double revenue = payments.stream()
-                .filter(p -> "SUCCESS".equals(p.getStatus()))
-                .mapToDouble(Payment::getAmount)
-                .sum();
-        
-        analytics.put("totalRevenue", revenue);
-        analytics.put("successfulPayments", payments.stream().filter(p -> "SUCCESS".equals(p.getStatus())).count());
+        analytics.put("totalRevenue", totals.getRevenue());
+        analytics.put("successfulPayments", totals.getPaymentsSucceeded());
         
         // User analytics
-        List<User> newUsers = userRepository.findByCreatedAtBetween(startDate, endDate);
-        analytics.put("newUsers", newUsers.size());
-        analytics.put("newDrivers", newUsers.stream().filter(u -> u.getRole() == Role.DRIVER).count());
-        analytics.put("newPassengers", newUsers.stream().filter(u -> u.getRole() == Role.PASSENGER).count());
+        analytics.put("newUsers", totals.getNewUsers());
+        analytics.put("newDrivers", totals.getNewDrivers());
+        analytics.put("newPassengers", totals.getNewPassengers());
         
         return analytics;
     }
@@ -367,42 +386,134 @@ public class AdminService {
     }
     
     /**
-     * Get activity logs
+     * Independent sections of a report type, generated in parallel by report jobs
      */
-    public List<Map<String, Object>> getActivityLogs(int page, int size) {
-        List<Map<String, Object>> logs = new ArrayList<>();
-        
-        // Get recent rides
-        List<Ride> recentRides = rideRepository.findAll(PageRequest.of(page, size / 3)).getContent();
-        for (Ride ride : recentRides) {
-            Map<String, Object> log = new HashMap<>();
-            log.put("timestamp", ride.getCreatedAt());
-            log.put("type", "RIDE_CREATED");
-            log.put("user", ride.getDriver().getName());
-            log.put("details", ride.getSource() + " → " + ride.getDestination());
-            logs.add(log);
+    List<String> getReportSections(String reportType) {
+        switch (reportType.toUpperCase()) {
+            case "REVENUE":
+                return List.of("revenue");
+            case "RIDES":
+                return List.of("rides");
+            case "USERS":
+                return List.of("users");
+            case "COMPREHENSIVE":
+                return List.of("revenue", "rides", "users");
+            default:
+                throw new RuntimeException("Invalid report type");
         }
-        
-        // Get recent bookings
-        List<Booking> recentBookings = bookingRepository.findAll(PageRequest.of(page, size / 3)).getContent();
-        for (Booking booking : recentBookings) {
-            Map<String, Object> log = new HashMap<>();
-            log.put("timestamp", booking.getBookingTime());
-            log.put("type", "BOOKING_CREATED");
-            log.put("user", booking.getPassenger().getName());
-            log.put("details", booking.getSeatsBooked() + " seats");
-            logs.add(log);
+    }
+    
+    Map<String, Object> generateReportSection(String section, LocalDateTime start, LocalDateTime end) {
+        switch (section) {
+            case "revenue":
+                return generateRevenueReport(start, end);
+            case "rides":
+                return generateRidesReport(start, end);
+            case "users":
+                return generateUsersReport(start, end);
+            default:
+                throw new RuntimeException("Invalid report section");
         }
+    }
+    
+    /**
+     * Same shape as generateReport, built from sections generated separately
+     */
+    Map<String, Object> assembleReport(String reportType, LocalDateTime startDate, LocalDateTime endDate,
+                                       Map<String, Map<String, Object>> sections) {
+        Map<String, Object> report = new HashMap<>();
+        report.put("reportType", reportType);
+        report.put("startDate", startDate);
+        report.put("endDate", endDate);
+        report.put("generatedAt", LocalDateTime.now());
         
-        // Sort by timestamp
-        logs.sort((a, b) -> ((LocalDateTime) b.get("timestamp")).compareTo((LocalDateTime) a.get("timestamp")));
-        
-        return logs;
+        if ("COMPREHENSIVE".equalsIgnoreCase(reportType)) {
+            report.put("data", new HashMap<>(sections));
+        } else {
+            report.put("data", sections.values().iterator().next());
+        }
+        return report;
+    }
+    
+    /**
+     * Get activity logs, newest first, one keyset page at a time
+     */
+    public ActivityLogPage getActivityLogs(String cursor, int size) {
+        return activityLog.getPage(cursor, size);
     }
     
     // Helper methods
     
+    /**
+     * The lookups forked by one getUserDetails call, sharing one deadline.
+     * The first failure or timeout cancels every sibling still queued or running,
+     * and closing the scope cancels whatever was never joined. Stands in for
+     * StructuredTaskScope.ShutdownOnFailure, which Java 17 doesn't have.
+     */
+    private class LookupScope implements AutoCloseable {
+        private final List<Future<?>> forked = new CopyOnWriteArrayList<>();
+        private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        private final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(detailsTimeoutMs);
+        
+        <T> Future<T> fork(Supplier<T> query) {
+            Future<T> future = detailsExecutor.submit(() -> {
+                try {
+                    return query.get();
+                } catch (RuntimeException e) {
+                    fail(e);
+                    throw e;
+                }
+            });
+            forked.add(future);
+            if (firstFailure.get() != null) {
+                // A sibling already failed; don't leave this one running
+                future.cancel(true);
+            }
+            return future;
+        }
+        
+        <T> T join(Future<T> future) {
+            try {
+                return future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll();
+                throw new RuntimeException("Interrupted while loading user details");
+            } catch (ExecutionException | CancellationException e) {
+                Throwable cause = firstFailure.get() != null ? firstFailure.get() : e.getCause();
+                fail(cause);
+                throw new RuntimeException("Failed to load user details: "
+                        + (cause != null ? cause.getMessage() : "cancelled"));
+            } catch (TimeoutException e) {
+                cancelAll();
+                throw new RuntimeException("Timed out loading user details");
+            }
+        }
+        
+        private void fail(Throwable cause) {
+            if (firstFailure.compareAndSet(null, cause)) {
+                cancelAll();
+            }
+        }
+        
+        private void cancelAll() {
+            // Interrupts running lookups; queued ones never start
+            for (Future<?> future : forked) {
+                future.cancel(true);
+            }
+        }
+        
+        @Override
+        public void close() {
+            cancelAll();
+        }
+    }
+    
     private UserManagementDTO convertToUserManagementDTO(User user) {
+        return convertToUserManagementDTO(user, reviewRepository.getAverageRatingForUser(user.getId()));
+    }
+    
+    private UserManagementDTO convertToUserManagementDTO(User user, Double avgRating) {
         UserManagementDTO dto = new UserManagementDTO();
         dto.setId(user.getId());
         dto.setName(user.getName());
@@ -419,69 +530,61 @@ public class AdminService {
             dto.setVehicleCapacity(user.getVehicleCapacity());
         }
         
-        Double avgRating = reviewRepository.getAverageRatingForUser(user.getId());
         dto.setAverageRating(avgRating != null ? avgRating : 0.0);
         
         return dto;
     }
     
-    private Double calculateGrowthRate(String metric) {
-        // Simplified growth rate calculation
-        return 0.0;
+    private Map<String, Object> generateRevenueReport(LocalDateTime start, LocalDateTime end) {
+        return revenueReport(analyticsRollupService.getTotals(start, end));
     }
     
-    private Map<String, Object> generateRevenueReport(LocalDateTime start, LocalDateTime end) {
-        List<Payment> payments = paymentRepository.findByCreatedAtBetween(start, end);
+    private Map<String, Object> generateRidesReport(LocalDateTime start, LocalDateTime end) {
+        return ridesReport(analyticsRollupService.getTotals(start, end));
+    }
+    
+    private Map<String, Object> generateUsersReport(LocalDateTime start, LocalDateTime end) {
+        return usersReport(analyticsRollupService.getTotals(start, end));
+    }
+    
+    private Map<String, Object> generateComprehensiveReport(LocalDateTime start, LocalDateTime end) {
+        // All three sections come from the same rollup totals
+        AnalyticsRollup totals = analyticsRollupService.getTotals(start, end);
         Map<String, Object> report = new HashMap<>();
-        
-        report.put("totalTransactions", payments.size());
-        report.put("successfulTransactions", payments.stream().filter(p -> "SUCCESS".equals(p.getStatus())).count());
-        report.put("totalRevenue", payments.stream()
-                .filter(p -> "SUCCESS".equals(p.getStatus()))
-                .mapToDouble(Payment::getAmount)
-                .sum());
-        report.put("platformCommission", payments.stream()
-                .filter(p -> "SUCCESS".equals(p.getStatus()))
-                .mapToDouble(Payment::getPlatformCommission)
-                .sum());
-        
+        report.put("revenue", revenueReport(totals));
+        report.put("rides", ridesReport(totals));
+        report.put("users", usersReport(totals));
         return report;
     }
     
-    private Map<String, Object> generateRidesReport(LocalDateTime start, LocalDateTime end) {
-        List<Ride> rides = rideRepository.findByCreatedAtBetween(start, end);
+    private Map<String, Object> revenueReport(AnalyticsRollup totals) {
         Map<String, Object> report = new HashMap<>();
-        
-        report.put("totalRides", rides.size());
-        report.put("completedRides", rides.stream().filter(r -> "COMPLETED".equals(r.getStatus())).count());
-        report.put("cancelledRides", rides.stream().filter(r -> "CANCELLED".equals(r.getStatus())).count());
-        report.put("completionRate", calculateCompletionRate(rides));
-        
+        report.put("totalTransactions", totals.getPaymentsCreated());
+        report.put("successfulTransactions", totals.getPaymentsSucceeded());
+        report.put("totalRevenue", totals.getRevenue());
+        report.put("platformCommission", totals.getPlatformCommission());
         return report;
     }
     
-    private Map<String, Object> generateUsersReport(LocalDateTime start, LocalDateTime end) {
-        List<User> users = userRepository.findByCreatedAtBetween(start, end);
+    private Map<String, Object> ridesReport(AnalyticsRollup totals) {
         Map<String, Object> report = new HashMap<>();
-        
-        report.put("newUsers", users.size());
-        report.put("newDrivers", users.stream().filter(u -> u.getRole() == Role.DRIVER).count());
-        report.put("newPassengers", users.stream().filter(u -> u.getRole() == Role.PASSENGER).count());
-        
+        report.put("totalRides", totals.getRidesCreated());
+        report.put("completedRides", totals.getRidesCompleted());
+        report.put("cancelledRides", totals.getRidesCancelled());
+        report.put("completionRate", calculateCompletionRate(totals));
         return report;
     }
     
-    private Map<String, Object> generateComprehensiveReport(LocalDateTime start, LocalDateTime end) {
+    private Map<String, Object> usersReport(AnalyticsRollup totals) {
         Map<String, Object> report = new HashMap<>();
-        report.put("revenue", generateRevenueReport(start, end));
-        report.put("rides", generateRidesReport(start, end));
-        report.put("users", generateUsersReport(start, end));
+        report.put("newUsers", totals.getNewUsers());
+        report.put("newDrivers", totals.getNewDrivers());
+        report.put("newPassengers", totals.getNewPassengers());
         return report;
     }
     
-    private Double calculateCompletionRate(List<Ride> rides) {
-        if (rides.isEmpty()) return 0.0;
-        long completed = rides.stream().filter(r -> "COMPLETED".equals(r.getStatus())).count();
-        return (completed * 100.0) / rides.size();
+    private Double calculateCompletionRate(AnalyticsRollup totals) {
+        if (totals.getRidesCreated() == 0) return 0.0;
+        return (totals.getRidesCompleted() * 100.0) / totals.getRidesCreated();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,395 @@
+package com.rideshare.service;
+
+import com.rideshare.model.AnalyticsRollup;
+import com.rideshare.repository.AnalyticsRollupRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Hourly and daily rollups of rides, bookings, payments and new users.
+ *
+ * Every few minutes a background job finds the rows written since its last run
+ * (through the updated_at columns) and rebuilds only the hourly buckets those rows
+ * fall in, then the days containing them. Once a night it rebuilds the whole trailing
+ * window instead, which also picks up deleted rows and anything an incremental run
+ * missed. On an empty table it backfills from the oldest row, one day-aligned chunk
+ * per short transaction.
+ *
+ * Range queries read whole days from the daily buckets and only the partial days at
+ * either end from the hourly ones, so a one-year range touches a few hundred rows.
+ * Results are rounded to whole hours and lag the live tables by at most one run.
+ *
+ * The SQL sticks to standard expressions (EXTRACT, CASE, CAST AS DATE), so it runs
+ * unchanged on MySQL and on the H2 database used in tests.
+ */
+@Service
+public class AnalyticsRollupService {
+
+    // Creation-hour buckets; the hour is assembled in Java from the extracted fields
+    private static final String HOUR_OF_CREATED_AT =
+            "EXTRACT(YEAR FROM created_at) AS y, EXTRACT(MONTH FROM created_at) AS mo, " +
+            "EXTRACT(DAY FROM created_at) AS d, EXTRACT(HOUR FROM created_at) AS h";
+
+    private static final String GROUP_BY_HOUR = " GROUP BY y, mo, d, h";
+
+    private static final String SELECT_RIDES =
+            "SELECT " + HOUR_OF_CREATED_AT + ", COUNT(*) AS created, " +
+            "SUM(CASE WHEN status = 'COMPLETED' THEN 1 ELSE 0 END) AS completed, " +
+            "SUM(CASE WHEN status = 'CANCELLED' THEN 1 ELSE 0 END) AS cancelled " +
+            "FROM rides WHERE created_at >= :from AND created_at < :to" + GROUP_BY_HOUR;
+
+    private static final String SELECT_BOOKINGS =
+            "SELECT " + HOUR_OF_CREATED_AT.replace("created_at", "booking_time") + ", COUNT(*) AS created, " +
+            "SUM(CASE WHEN status = 'COMPLETED' THEN 1 ELSE 0 END) AS completed " +
+            "FROM bookings WHERE booking_time >= :from AND booking_time < :to" + GROUP_BY_HOUR;
+
+    private static final String SELECT_PAYMENTS =
+            "SELECT " + HOUR_OF_CREATED_AT + ", COUNT(*) AS created, " +
+            "SUM(CASE WHEN status = 'SUCCESS' THEN 1 ELSE 0 END) AS succeeded, " +
+            "COALESCE(SUM(CASE WHEN status = 'SUCCESS' THEN amount END), 0) AS revenue, " +
+            "COALESCE(SUM(CASE WHEN status = 'SUCCESS' THEN platform_commission END), 0) AS commission " +
+            "FROM payments WHERE created_at >= :from AND created_at < :to" + GROUP_BY_HOUR;
+
+    private static final String SELECT_USERS =
+            "SELECT " + HOUR_OF_CREATED_AT + ", COUNT(*) AS created, " +
+            "SUM(CASE WHEN role = 'DRIVER' THEN 1 ELSE 0 END) AS drivers, " +
+            "SUM(CASE WHEN role = 'PASSENGER' THEN 1 ELSE 0 END) AS passengers " +
+            "FROM users WHERE created_at >= :from AND created_at < :to" + GROUP_BY_HOUR;
+
+    // Creation times of rows written since the last incremental run
+    private static final String SELECT_CHANGED =
+            "SELECT created_at FROM rides WHERE updated_at >= :since UNION " +
+            "SELECT booking_time FROM bookings WHERE updated_at >= :since UNION " +
+            "SELECT created_at FROM payments WHERE updated_at >= :since UNION " +
+            "SELECT created_at FROM users WHERE updated_at >= :since";
+
+    private static final String SELECT_EARLIEST =
+            "SELECT MIN(earliest) FROM (" +
+            "SELECT MIN(created_at) AS earliest FROM rides UNION ALL " +
+            "SELECT MIN(booking_time) FROM bookings UNION ALL " +
+            "SELECT MIN(created_at) FROM payments UNION ALL " +
+            "SELECT MIN(created_at) FROM users) t";
+
+    private static final String DELETE_BUCKETS =
+            "DELETE FROM analytics_rollups WHERE granularity = :granularity " +
+            "AND bucket_start >= :from AND bucket_start < :to";
+
+    private static final String INSERT_HOUR =
+            "INSERT INTO analytics_rollups (granularity, bucket_start, rides_created, rides_completed, " +
+            "rides_cancelled, bookings_created, bookings_completed, payments_created, payments_succeeded, " +
+            "revenue, platform_commission, new_users, new_drivers, new_passengers) VALUES " +
+            "('HOUR', :bucketStart, :ridesCreated, :ridesCompleted, :ridesCancelled, :bookingsCreated, " +
+            ":bookingsCompleted, :paymentsCreated, :paymentsSucceeded, :revenue, :platformCommission, " +
+            ":newUsers, :newDrivers, :newPassengers)";
+
+    private static final String ROLL_UP_DAYS =
+            "INSERT INTO analytics_rollups (granularity, bucket_start, rides_created, rides_completed, " +
+            "rides_cancelled, bookings_created, bookings_completed, payments_created, payments_succeeded, " +
+            "revenue, platform_commission, new_users, new_drivers, new_passengers) " +
+            "SELECT 'DAY', CAST(bucket_start AS DATE), SUM(rides_created), SUM(rides_completed), " +
+            "SUM(rides_cancelled), SUM(bookings_created), SUM(bookings_completed), SUM(payments_created), " +
+            "SUM(payments_succeeded), SUM(revenue), SUM(platform_commission), SUM(new_users), " +
+            "SUM(new_drivers), SUM(new_passengers) " +
+            "FROM analytics_rollups WHERE granularity = 'HOUR' AND bucket_start >= :from AND bucket_start < :to " +
+            "GROUP BY CAST(bucket_start AS DATE)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AnalyticsRollupRepository rollupRepository;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    // Hourly buckets younger than this are rebuilt by the nightly full pass
+    @Value("${analytics.rollup.refresh-days:30}")
+    private int refreshDays;
+
+    // Hour of day (server time) in which the full rebuild runs
+    @Value("${analytics.rollup.rebuild-hour:3}")
+    private int rebuildHour;
+
+    // Rows committed slightly after a run's start are caught by the next run's overlap
+    @Value("${analytics.rollup.overlap-seconds:120}")
+    private long overlapSeconds;
+
+    // How far back a node with no watermark of its own looks, i.e. past the last nightly rebuild
+    @Value("${analytics.rollup.catch-up-hours:26}")
+    private long catchUpHours;
+
+    @Value("${analytics.rollup.chunk-days:7}")
+    private int chunkDays;
+
+    @Value("${analytics.rollup.growth-window-days:30}")
+    private int growthWindowDays;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Start of this node's last successful incremental run
+    private volatile LocalDateTime watermark;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Bring the rollup tables up to date
+     * Runs every five minutes on one node of the cluster; during the rebuild hour
+     * the first run of the night rebuilds the whole refresh window instead
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.interval-ms:300000}", initialDelay = 30000)
+    public void refreshRollups() {
+        jobLeaseService.runWithLease("analytics-rollup", Duration.ofMinutes(30), Duration.ofMinutes(1), () -> {
+            LocalDateTime now = LocalDateTime.now();
+            // Held for most of a day, so only one run per night does the full pass
+            boolean rebuilt = now.getHour() == rebuildHour
+                    && jobLeaseService.runWithLease("analytics-rollup-nightly", Duration.ofHours(2),
+                            Duration.ofHours(20), () -> rebuildWindow(now));
+            if (!rebuilt) {
+                refreshChanged(now);
+            }
+            watermark = now;
+        });
+    }
+
+    /**
+     * Rebuild only the hours (and their days) holding rows written since the last run
+     */
+    private void refreshChanged(LocalDateTime now) {
+        if (rollupRepository.findLatestHour() == null) {
+            rebuildWindow(now);
+            return;
+        }
+
+        LocalDateTime since = (watermark != null ? watermark : now.minusHours(catchUpHours))
+                .minusSeconds(overlapSeconds);
+        TreeSet<LocalDateTime> hours = new TreeSet<>();
+        jdbcTemplate.query(SELECT_CHANGED, new MapSqlParameterSource("since", Timestamp.valueOf(since)), rs -> {
+            Timestamp createdAt = rs.getTimestamp(1);
+            if (createdAt != null) {
+                hours.add(createdAt.toLocalDateTime().truncatedTo(ChronoUnit.HOURS));
+            }
+        });
+
+        // One transaction per changed day, covering just the span of its changed hours
+        while (!hours.isEmpty()) {
+            LocalDateTime first = hours.first();
+            LocalDateTime nextDay = first.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            LocalDateTime last = hours.lower(nextDay);
+            hours.headSet(nextDay).clear();
+            LocalDateTime stop = last.plusHours(1);
+            transactionTemplate.executeWithoutResult(status -> rebuild(first, stop));
+        }
+    }
+
+    /**
+     * Rebuild every bucket in the refresh window, or from the oldest row when the table is empty
+     */
+    private void rebuildWindow(LocalDateTime now) {
+        LocalDateTime from = now.minusDays(refreshDays);
+
+        LocalDateTime latest = rollupRepository.findLatestHour();
+        if (latest == null) {
+            // Empty table: backfill from the oldest row we have
+            Timestamp earliest = jdbcTemplate.queryForObject(SELECT_EARLIEST, new MapSqlParameterSource(), Timestamp.class);
+            if (earliest == null) {
+                return;
+            }
+            from = earliest.toLocalDateTime();
+        } else if (latest.isBefore(from)) {
+            // The job was down for longer than the refresh window
+            from = latest;
+        }
+
+        LocalDateTime end = now.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        LocalDateTime chunkStart = from.truncatedTo(ChronoUnit.DAYS);
+        while (chunkStart.isBefore(end)) {
+            LocalDateTime chunkEnd = chunkStart.plusDays(chunkDays);
+            if (chunkEnd.isAfter(end)) {
+                chunkEnd = end;
+            }
+            LocalDateTime start = chunkStart;
+            LocalDateTime stop = chunkEnd;
+            transactionTemplate.executeWithoutResult(status -> rebuild(start, stop));
+            chunkStart = chunkEnd;
+        }
+    }
+
+    /**
+     * Rebuild the hourly buckets in [from, to) (whole hours) and every day they touch
+     */
+    private void rebuild(LocalDateTime from, LocalDateTime to) {
+        MapSqlParameterSource range = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+
+        Map<LocalDateTime, AnalyticsRollup> hours = new TreeMap<>();
+        Function<LocalDateTime, AnalyticsRollup> bucket = hour -> {
+            AnalyticsRollup rollup = new AnalyticsRollup();
+            rollup.setGranularity(AnalyticsRollup.HOUR);
+            rollup.setBucketStart(hour);
+            return rollup;
+        };
+
+        jdbcTemplate.query(SELECT_RIDES, range, rs -> {
+            AnalyticsRollup r = hours.computeIfAbsent(hourOf(rs), bucket);
+            r.setRidesCreated(rs.getLong("created"));
+            r.setRidesCompleted(rs.getLong("completed"));
+            r.setRidesCancelled(rs.getLong("cancelled"));
+        });
+        jdbcTemplate.query(SELECT_BOOKINGS, range, rs -> {
+            AnalyticsRollup r = hours.computeIfAbsent(hourOf(rs), bucket);
+            r.setBookingsCreated(rs.getLong("created"));
+            r.setBookingsCompleted(rs.getLong("completed"));
+        });
+        jdbcTemplate.query(SELECT_PAYMENTS, range, rs -> {
+            AnalyticsRollup r = hours.computeIfAbsent(hourOf(rs), bucket);
+            r.setPaymentsCreated(rs.getLong("created"));
+            r.setPaymentsSucceeded(rs.getLong("succeeded"));
+            r.setRevenue(rs.getDouble("revenue"));
+            r.setPlatformCommission(rs.getDouble("commission"));
+        });
+        jdbcTemplate.query(SELECT_USERS, range, rs -> {
+            AnalyticsRollup r = hours.computeIfAbsent(hourOf(rs), bucket);
+            r.setNewUsers(rs.getLong("created"));
+            r.setNewDrivers(rs.getLong("drivers"));
+            r.setNewPassengers(rs.getLong("passengers"));
+        });
+
+        jdbcTemplate.update(DELETE_BUCKETS, new MapSqlParameterSource(range.getValues())
+                .addValue("granularity", AnalyticsRollup.HOUR));
+        if (!hours.isEmpty()) {
+            SqlParameterSource[] rows = hours.values().stream()
+                    .map(r -> new MapSqlParameterSource()
+                            .addValue("bucketStart", Timestamp.valueOf(r.getBucketStart()))
+                            .addValue("ridesCreated", r.getRidesCreated())
+                            .addValue("ridesCompleted", r.getRidesCompleted())
+                            .addValue("ridesCancelled", r.getRidesCancelled())
+                            .addValue("bookingsCreated", r.getBookingsCreated())
+                            .addValue("bookingsCompleted", r.getBookingsCompleted())
+                            .addValue("paymentsCreated", r.getPaymentsCreated())
+                            .addValue("paymentsSucceeded", r.getPaymentsSucceeded())
+                            .addValue("revenue", r.getRevenue())
+                            .addValue("platformCommission", r.getPlatformCommission())
+                            .addValue("newUsers", r.getNewUsers())
+                            .addValue("newDrivers", r.getNewDrivers())
+                            .addValue("newPassengers", r.getNewPassengers()))
+                    .toArray(SqlParameterSource[]::new);
+            jdbcTemplate.batchUpdate(INSERT_HOUR, rows);
+        }
+
+        // Re-roll the days touched from all of their hours, the ones just written included
+        LocalDateTime dayFrom = from.truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime dayTo = to.minusNanos(1).truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        MapSqlParameterSource days = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(dayFrom))
+                .addValue("to", Timestamp.valueOf(dayTo));
+        jdbcTemplate.update(DELETE_BUCKETS, new MapSqlParameterSource(days.getValues())
+                .addValue("granularity", AnalyticsRollup.DAY));
+        jdbcTemplate.update(ROLL_UP_DAYS, days);
+    }
+
+    /**
+     * Totals for [start, end), rounded outwards to whole hours
+     */
+    public AnalyticsRollup getTotals(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime from = start.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime to = end.truncatedTo(ChronoUnit.HOURS);
+        if (to.isBefore(end)) {
+            to = to.plusHours(1);
+        }
+
+        AnalyticsRollup totals = new AnalyticsRollup();
+        LocalDateTime firstDay = from.truncatedTo(ChronoUnit.DAYS);
+        if (firstDay.isBefore(from)) {
+            firstDay = firstDay.plusDays(1);
+        }
+        LocalDateTime lastDay = to.truncatedTo(ChronoUnit.DAYS);
+
+        if (firstDay.isBefore(lastDay)) {
+            // Partial days at the edges come from hours, everything in between from days
+            addAll(totals, rollupRepository.findBuckets(AnalyticsRollup.HOUR, from, firstDay));
+            addAll(totals, rollupRepository.findBuckets(AnalyticsRollup.DAY, firstDay, lastDay));
+            addAll(totals, rollupRepository.findBuckets(AnalyticsRollup.HOUR, lastDay, to));
+        } else {
+            addAll(totals, rollupRepository.findBuckets(AnalyticsRollup.HOUR, from, to));
+        }
+        return totals;
+    }
+
+    /**
+     * Percentage change of a metric ("users", "rides" or "revenue") over the
+     * growth window compared with the window before it
+     */
+    public Double calculateGrowthRate(String metric) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowStart = now.minusDays(growthWindowDays);
+
+        double current = metricOf(getTotals(windowStart, now), metric);
+        double previous = metricOf(getTotals(windowStart.minusDays(growthWindowDays), windowStart), metric);
+
+        if (previous == 0) {
+            return current > 0 ? 100.0 : 0.0;
+        }
+        return Math.round((current - previous) * 10000.0 / previous) / 100.0;
+    }
+
+    private double metricOf(AnalyticsRollup totals, String metric) {
+        switch (metric) {
+            case "users":
+                return totals.getNewUsers();
+            case "rides":
+                return totals.getRidesCreated();
+            case "revenue":
+                return totals.getRevenue();
+            default:
+                throw new RuntimeException("Unknown growth metric: " + metric);
+        }
+    }
+
+    private void addAll(AnalyticsRollup totals, List<AnalyticsRollup> buckets) {
+        for (AnalyticsRollup r : buckets) {
+            totals.setRidesCreated(totals.getRidesCreated() + r.getRidesCreated());
+            totals.setRidesCompleted(totals.getRidesCompleted() + r.getRidesCompleted());
+            totals.setRidesCancelled(totals.getRidesCancelled() + r.getRidesCancelled());
+            totals.setBookingsCreated(totals.getBookingsCreated() + r.getBookingsCreated());
+            totals.setBookingsCompleted(totals.getBookingsCompleted() + r.getBookingsCompleted());
+            totals.setPaymentsCreated(totals.getPaymentsCreated() + r.getPaymentsCreated());
+            totals.setPaymentsSucceeded(totals.getPaymentsSucceeded() + r.getPaymentsSucceeded());
+            totals.setRevenue(totals.getRevenue() + r.getRevenue());
+            totals.setPlatformCommission(totals.getPlatformCommission() + r.getPlatformCommission());
+            totals.setNewUsers(totals.getNewUsers() + r.getNewUsers());
+            totals.setNewDrivers(totals.getNewDrivers() + r.getNewDrivers());
+            totals.setNewPassengers(totals.getNewPassengers() + r.getNewPassengers());
+        }
+    }
+
+    private static LocalDateTime hourOf(ResultSet rs) throws SQLException {
+        return LocalDateTime.of(rs.getInt("y"), rs.getInt("mo"), rs.getInt("d"), rs.getInt("h"), 0);
+    }
+}
@@ -8,8 +8,11 @@ import com.rideshare.model.Role;
 import com.rideshare.model.User;
 import com.rideshare.repository.UserRepository;
 import com.rideshare.security.JwtTokenProvider;
+import com.rideshare.security.LoginThrottledException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -34,7 +37,22 @@ public class AuthService {
     @Autowired
     private OTPService otpService;
     
-    public AuthResponse register(RegisterRequest request) {
+    @Autowired
+    private LoginThrottle loginThrottle;
+    
+    @Autowired
+    private DashboardStatsSnapshot dashboardStats;
+    
+    @Autowired
+    private ActivityLogService activityLog;
+    
+    @Autowired
+    private UserDirectoryService userDirectoryService;
+    
+    public AuthResponse register(RegisterRequest request, String clientIp) {
+        // Registration hashes a password too, so it shares the per-IP budget
+        loginThrottle.checkIp(clientIp);
+        
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
@@ -56,10 +74,16 @@ public class AuthService {
         }
         
         User savedUser = userRepository.save(user);
+        dashboardStats.userRegistered(savedUser.getRole());
+        try {
+            userDirectoryService.indexUser(savedUser);
+        } catch (Exception e) {
+            // The account exists either way; the periodic index sweep picks the user up
+            System.err.println("Failed to index user #" + savedUser.getId() + " for search: " + e.getMessage());
+        }
+        activityLog.record("USER_REGISTERED", savedUser, savedUser.getRole().name(), savedUser.getId());
         
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
+        Authentication authentication = authenticate(request.getEmail(), request.getPassword());
         
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String token = tokenProvider.generateToken(authentication);
@@ -68,10 +92,18 @@ public class AuthService {
                                savedUser.getEmail(), savedUser.getRole());
     }
     
-    public AuthResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
+    public AuthResponse login(LoginRequest request, String clientIp) {
+        // Refuse abusive load before the password hash runs
+        loginThrottle.checkLogin(request.getEmail(), clientIp);
+        
+        Authentication authentication;
+        try {
+            authentication = authenticate(request.getEmail(), request.getPassword());
+        } catch (BadCredentialsException e) {
+            loginThrottle.loginFailed(request.getEmail());
+            throw e;
+        }
+        loginThrottle.loginSucceeded(request.getEmail());
         
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String token = tokenProvider.generateToken(authentication);
@@ -83,19 +115,21 @@ public class AuthService {
                                user.getEmail(), user.getRole());
     }
     
-    public AuthResponse completeLogin(CompleteLoginRequest request) {
+    public AuthResponse completeLogin(CompleteLoginRequest request, String clientIp) {
+        loginThrottle.checkLogin(request.getEmail(), clientIp);
+        
         // Verify OTP and consume it (mark as used)
         try {
             otpService.verifyAndConsumeOTP(request.getEmail(), request.getOtp());
         } catch (Exception e) {
+            loginThrottle.loginFailed(request.getEmail());
             throw new RuntimeException("Invalid or expired OTP: " + e.getMessage());
         }
         
         // Authenticate with password
         try {
-            Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-            );
+            Authentication authentication = authenticate(request.getEmail(), request.getPassword());
+            loginThrottle.loginSucceeded(request.getEmail());
             
             SecurityContextHolder.getContext().setAuthentication(authentication);
             String token = tokenProvider.generateToken(authentication);
@@ -105,8 +139,29 @@ public class AuthService {
             
             return new AuthResponse(token, user.getId(), user.getName(), 
                                    user.getEmail(), user.getRole());
+        } catch (LoginThrottledException e) {
+            throw e;
+        } catch (BadCredentialsException e) {
+            loginThrottle.loginFailed(request.getEmail());
+            throw new RuntimeException("Password is incorrect! Please try again!");
         } catch (Exception e) {
             throw new RuntimeException("Password is incorrect! Please try again!");
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Authenticate with the password, surfacing hashing overload as a throttle.
+     * Spring Security wraps encoder failures on the unknown-user path in
+     * InternalAuthenticationServiceException; unwrap it so it still maps to 429.
+     */
+    private Authentication authenticate(String email, String password) {
+        try {
+            return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(email, password));
+        } catch (InternalAuthenticationServiceException e) {
+            if (e.getCause() instanceof LoginThrottledException throttled) {
+                throw throttled;
+            }
+            throw e;
+        }
+    }
+}
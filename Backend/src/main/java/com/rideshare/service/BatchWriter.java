@@ -0,0 +1,221 @@
+package com.rideshare.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue-backed background writer shared by the notification and activity log pipelines.
+ *
+ * Callers queue rows; one worker thread collects them into batches, flushed when a
+ * batch reaches the size limit or its oldest row has waited the maximum latency.
+ * A batch is inserted with retries and backoff, then row by row so one bad row
+ * costs only itself.
+ *
+ * Shutdown queues a stop marker instead of interrupting the worker, so the batch it
+ * is holding is written like any other and whatever was queued behind the marker is
+ * written by stop() itself. Nothing taken off the queue is discarded on the way down.
+ */
+public abstract class BatchWriter<T> {
+
+    // Queued behind the pending rows to tell the worker to finish up
+    private static final Object STOP = new Object();
+
+    private final String name;
+    private final int maxBatchSize;
+    private final long maxLatencyMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final BlockingQueue<Object> queue;
+
+    private Thread worker;
+
+    protected BatchWriter(String name, int capacity, int maxBatchSize, long maxLatencyMs,
+                          int maxAttempts, long retryBackoffMs) {
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatencyMs = maxLatencyMs;
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.retryBackoffMs = retryBackoffMs;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Insert a batch in one round trip.
+     * @return Generated ids in row order, or an empty list when the caller doesn't need them
+     */
+    protected abstract List<Long> insert(List<T> batch);
+
+    /**
+     * Called on the writing thread with the rows that were stored and their ids
+     */
+    protected void written(List<T> stored, List<Long> ids) {
+    }
+
+    /**
+     * Called for a row the database rejected even when written alone
+     */
+    protected void dropped(T row, Exception error) {
+        System.err.println(name + " dropped a row: " + error.getMessage());
+    }
+
+    public void start() {
+        worker = new Thread(this::runLoop, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Let the worker finish its batch, then write everything still queued on the caller's thread
+     */
+    public void stop(long timeoutMillis) {
+        try {
+            if (queue.offer(STOP, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                worker.join(timeoutMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            System.err.println(name + " still busy at shutdown; writing the rest of the queue alongside it");
+        }
+
+        List<Object> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        List<T> batch = new ArrayList<>(maxBatchSize);
+        for (Object item : remaining) {
+            if (item == STOP) {
+                continue;
+            }
+            batch.add(cast(item));
+            if (batch.size() == maxBatchSize) {
+                writeNow(batch);
+                batch = new ArrayList<>(maxBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeNow(batch);
+        }
+    }
+
+    /**
+     * Queue a row for the next batch.
+     * @return false if the queue is full and the row was not accepted
+     */
+    public boolean offer(T row) {
+        return queue.offer(row);
+    }
+
+    public int queueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Write a batch on the caller's thread, with the same retries and fallback as queued rows
+     */
+    public void writeNow(List<T> batch) {
+        List<T> stored = new ArrayList<>(batch.size());
+        List<Long> ids = persist(batch, stored);
+        written(stored, ids);
+    }
+
+    private void runLoop() {
+        boolean stopping = false;
+        while (!stopping) {
+            List<T> batch = new ArrayList<>();
+            try {
+                Object first = queue.take();
+                if (first == STOP) {
+                    return;
+                }
+                batch.add(cast(first));
+
+                // Keep collecting until the batch is full or the oldest row hits the latency cap
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxLatencyMs);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Object next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    if (next == STOP) {
+                        stopping = true;
+                        break;
+                    }
+                    batch.add(cast(next));
+                }
+            } catch (InterruptedException e) {
+                // Not how shutdown is signalled, but still write what was collected
+                Thread.currentThread().interrupt();
+                stopping = true;
+            }
+
+            try {
+                if (!batch.isEmpty()) {
+                    writeNow(batch);
+                }
+            } catch (Exception e) {
+                System.err.println(name + " batch failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write a batch, retrying with backoff, then falling back to one insert per row.
+     * Rows that were stored are added to stored; the returned ids line up with them.
+     */
+    private List<Long> persist(List<T> batch, List<T> stored) {
+        Exception lastError = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                List<Long> ids = insert(batch);
+                stored.addAll(batch);
+                return ids;
+            } catch (Exception e) {
+                lastError = e;
+                System.err.println(name + " batch of " + batch.size() + " failed (attempt " + attempt
+                        + " of " + maxAttempts + "): " + e.getMessage());
+            }
+            if (attempt == maxAttempts || !sleepBeforeRetry(attempt)) {
+                break;
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(batch.size());
+        if (batch.size() == 1) {
+            dropped(batch.get(0), lastError);
+            return ids;
+        }
+        for (T row : batch) {
+            try {
+                List<Long> rowIds = insert(List.of(row));
+                stored.add(row);
+                ids.add(rowIds.isEmpty() ? null : rowIds.get(0));
+            } catch (Exception e) {
+                dropped(row, e);
+            }
+        }
+        return ids;
+    }
+
+    private boolean sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(retryBackoffMs * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            // Go straight to the row-by-row fallback
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T cast(Object item) {
+        return (T) item;
+    }
+}
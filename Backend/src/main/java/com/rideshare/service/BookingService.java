@@ -39,6 +39,18 @@ public class BookingService {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private DemandSupplyAggregator demandSupplyAggregator;
+    
+    @Autowired
+    private UserPresenceTracker presenceTracker;
+    
+    @Autowired
+    private DashboardStatsSnapshot dashboardStats;
+    
+    @Autowired
+    private ActivityLogService activityLog;
+    
     @Transactional
     public BookingResponse createBooking(BookingRequest request) {
         User passenger = userService.getCurrentUser();
@@ -58,15 +70,16 @@ public class BookingService {
             throw new RuntimeException("Driver cannot book their own ride");
         }
         
+        String origin = request.getPickupLocation() != null && !request.getPickupLocation().isEmpty() 
+                ? request.getPickupLocation() : ride.getSource();
+        String destination = request.getDropLocation() != null && !request.getDropLocation().isEmpty() 
+                ? request.getDropLocation() : ride.getDestination();
+        
         // Calculate actual distance using Google Maps API or fallback
         Double actualDistance;
         try {
-            String origin = request.getPickupLocation() != null && !request.getPickupLocation().isEmpty() 
-                    ? request.getPickupLocation() : ride.getSource();
-            String destination = request.getDropLocation() != null && !request.getDropLocation().isEmpty() 
-                    ? request.getDropLocation() : ride.getDestination();
-            
-            actualDistance = distanceCalculationService.calculateDistance(origin, destination);
+            actualDistance = distanceCalculationService.calculateDistance(
+                    origin, destination, GeoApiRateLimiter.Priority.BOOKING);
             System.out.println("Calculated distance: " + actualDistance + " km");
             
         } catch (Exception e) {
@@ -74,11 +87,12 @@ public class BookingService {
             actualDistance = request.getDistanceKm();
         }
         
-        // Calculate fare
+        // Calculate fare, surged for the passenger's pickup zone like search results and estimates
         Double estimatedFare = fareCalculationService.calculateFare(
                 actualDistance, 
                 ride.getPricePerKm(), 
-                request.getSeatsBooked()
+                request.getSeatsBooked(),
+                origin
         );
         
         Booking booking = new Booking();
@@ -95,6 +109,12 @@ public class BookingService {
         rideRepository.save(ride);
         
         Booking savedBooking = bookingRepository.save(booking);
+        demandSupplyAggregator.recordBooking(origin, request.getSeatsBooked());
+        demandSupplyAggregator.recordSeatsWithdrawn(ride.getSource(), request.getSeatsBooked());
+        dashboardStats.bookingCreated();
+        activityLog.record("BOOKING_CREATED", passenger,
+                request.getSeatsBooked() + " seats on " + ride.getSource() + " → " + ride.getDestination(),
+                savedBooking.getId());
         
         // --- PERSISTENT REAL-TIME NOTIFICATION ---
         // Notify the Driver
@@ -110,9 +130,13 @@ public class BookingService {
         }
 
         // Send emails (async in production)
+        // The passenger confirmation is a receipt and always goes out; the driver
+        // is only emailed when not connected to see the in-app notification
         try {
             emailService.sendBookingConfirmationToPassenger(savedBooking);
-            emailService.sendBookingNotificationToDriver(savedBooking);
+            if (presenceTracker.shouldEmail(ride.getDriver().getId())) {
+                emailService.sendBookingNotificationToDriver(savedBooking);
+            }
         } catch (Exception e) {
             System.err.println("Failed to send booking emails: " + e.getMessage());
         }
@@ -121,14 +145,14 @@ public class BookingService {
     }
     
     public List<BookingResponse> getPassengerBookings() {
-        User passenger = userService.getCurrentUser();
-        List<Booking> bookings = bookingRepository.findByPassengerOrderByBookingTimeDesc(passenger);
+        Long passengerId = userService.getCurrentUserId();
+        List<Booking> bookings = bookingRepository.findByPassenger_IdOrderByBookingTimeDesc(passengerId);
         return bookings.stream().map(BookingResponse::fromBooking).collect(Collectors.toList());
     }
     
     public List<BookingResponse> getDriverBookings() {
-        User driver = userService.getCurrentUser();
-        List<Booking> bookings = bookingRepository.findByRideDriverOrderByBookingTimeDesc(driver);
+        Long driverId = userService.getCurrentUserId();
+        List<Booking> bookings = bookingRepository.findByRide_Driver_IdOrderByBookingTimeDesc(driverId);
         return bookings.stream().map(BookingResponse::fromBooking).collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+package com.rideshare.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Live application instances, discovered through heartbeats in cluster_nodes.
+ *
+ * When partitioning is enabled each node owns the ride ids with
+ * id mod nodeCount == its index in the sorted list of live nodes, so scheduled
+ * per-ride work is split across the cluster instead of repeated on every node.
+ * A node missing from the live list (before its first heartbeat, or after its
+ * heartbeat lapsed) has no partition and skips partitioned work, rather than
+ * doubling up on another node's share.
+ */
+@Service
+public class ClusterMembership {
+
+    private static final String TOUCH_NODE =
+            "UPDATE cluster_nodes SET last_heartbeat = :now WHERE node_id = :nodeId";
+
+    private static final String INSERT_NODE =
+            "INSERT INTO cluster_nodes (node_id, last_heartbeat) VALUES (:nodeId, :now)";
+
+    private static final String SELECT_LIVE_NODES =
+            "SELECT node_id FROM cluster_nodes WHERE last_heartbeat > :cutoff ORDER BY node_id";
+
+    private static final String DELETE_NODE = "DELETE FROM cluster_nodes WHERE node_id = :nodeId";
+
+    private static final String DELETE_STALE_NODES = "DELETE FROM cluster_nodes WHERE last_heartbeat < :cutoff";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${cluster.partitioning.enabled:false}")
+    private boolean partitioningEnabled;
+
+    // A node missing heartbeats for this long is considered gone
+    @Value("${cluster.node-timeout-ms:30000}")
+    private long nodeTimeoutMs;
+
+    private final String nodeId;
+
+    // Sorted live node ids from the last heartbeat
+    private volatile List<String> liveNodes = List.of();
+
+    public ClusterMembership(@Value("${cluster.node-id:}") String configuredNodeId) {
+        this.nodeId = configuredNodeId.isBlank()
+                ? UUID.randomUUID().toString()
+                : configuredNodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isPartitioningEnabled() {
+        return partitioningEnabled;
+    }
+
+    public int getNodeCount() {
+        return Math.max(liveNodes.size(), 1);
+    }
+
+    /**
+     * Position of this node among the live nodes, or -1 when it is not among them
+     */
+    public int getNodeIndex() {
+        return liveNodes.indexOf(nodeId);
+    }
+
+    /**
+     * Whether this node currently holds a partition; partitioned jobs skip the run when it doesn't
+     */
+    public boolean hasPartition() {
+        return getNodeIndex() >= 0;
+    }
+
+    /**
+     * Whether per-ride scheduled work for this ride belongs to this node
+     */
+    public boolean ownsRide(Long rideId) {
+        if (!partitioningEnabled) {
+            return true;
+        }
+        List<String> nodes = liveNodes;
+        int index = nodes.indexOf(nodeId);
+        return index >= 0 && Math.floorMod(rideId, nodes.size()) == index;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void register() {
+        heartbeat();
+    }
+
+    /**
+     * Refresh this node's heartbeat and the view of live nodes
+     * Runs every 10 seconds
+     */
+    @Scheduled(fixedRateString = "${cluster.heartbeat-ms:10000}")
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("nodeId", nodeId)
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("cutoff", Timestamp.valueOf(now.minusNanos(nodeTimeoutMs * 1_000_000)));
+
+        try {
+            if (jdbcTemplate.update(TOUCH_NODE, params) == 0) {
+                jdbcTemplate.update(INSERT_NODE, params);
+            }
+            liveNodes = List.copyOf(jdbcTemplate.queryForList(SELECT_LIVE_NODES, params, String.class));
+        } catch (Exception e) {
+            System.err.println("Cluster heartbeat failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drop nodes that stopped without deregistering
+     * Runs daily at 4 AM
+     */
+    @Scheduled(cron = "0 0 4 * * *")
+    public void removeStaleNodes() {
+        jdbcTemplate.update(DELETE_STALE_NODES, new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.valueOf(LocalDateTime.now().minusDays(1))));
+    }
+
+    @PreDestroy
+    public void deregister() {
+        try {
+            jdbcTemplate.update(DELETE_NODE, new MapSqlParameterSource("nodeId", nodeId));
+        } catch (Exception e) {
+            System.err.println("Failed to deregister cluster node: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.rideshare.service;
+
+import com.rideshare.model.User;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.function.Supplier;
+
+/**
+ * The authenticated User entity, resolved at most once per HTTP request
+ * and shared by every service the request passes through.
+ */
+@Component
+@RequestScope
+public class CurrentUserHolder {
+
+    private User user;
+
+    public User get(Supplier<User> loader) {
+        if (user == null) {
+            user = loader.get();
+        }
+        return user;
+    }
+}
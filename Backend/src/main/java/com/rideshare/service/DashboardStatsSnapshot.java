@@ -0,0 +1,332 @@
+package com.rideshare.service;
+
+import com.rideshare.dto.AdminDashboardStats;
+import com.rideshare.model.Role;
+import com.rideshare.repository.BookingRepository;
+import com.rideshare.repository.PaymentRepository;
+import com.rideshare.repository.RideRepository;
+import com.rideshare.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Materialized admin dashboard statistics.
+ *
+ * Counters are loaded from SQL at startup and on a fixed schedule, and kept
+ * current in between by the services that register users, post rides, move
+ * rides and bookings between statuses and settle payments. Reading the
+ * dashboard never touches the database, and changes are pushed to admins on
+ * /topic/admin/dashboard at most once per push interval.
+ *
+ * Updates are applied after the surrounding transaction commits. Each node
+ * only sees its own events between reconciles, which also correct any drift
+ * from writes that race a reconcile.
+ */
+@Service
+public class DashboardStatsSnapshot {
+
+    public static final String TOPIC = "/topic/admin/dashboard";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private AnalyticsRollupService analyticsRollupService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final ConcurrentHashMap<Role, LongAdder> usersByRole = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> ridesByStatus = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> bookingsByStatus = new ConcurrentHashMap<>();
+
+    private final LongAdder totalUsers = new LongAdder();
+    private final LongAdder totalRides = new LongAdder();
+    private final LongAdder totalBookings = new LongAdder();
+    private final LongAdder successfulPayments = new LongAdder();
+
+    private final DoubleAdder totalRevenue = new DoubleAdder();
+    private final DoubleAdder platformCommission = new DoubleAdder();
+    private final DoubleAdder driverEarnings = new DoubleAdder();
+
+    // Today's activity, reset when the date rolls over
+    private final LongAdder usersToday = new LongAdder();
+    private final LongAdder ridesToday = new LongAdder();
+    private final LongAdder bookingsToday = new LongAdder();
+    private final DoubleAdder revenueToday = new DoubleAdder();
+    private volatile LocalDate statsDay = LocalDate.now();
+
+    // Growth rates come from the rollup tables and only change on reconcile
+    private volatile double userGrowthRate;
+    private volatile double rideGrowthRate;
+    private volatile double revenueGrowthRate;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    /**
+     * Current statistics, assembled from the in-memory counters
+     */
+    public AdminDashboardStats getStats() {
+        rollDay();
+
+        AdminDashboardStats stats = new AdminDashboardStats();
+        stats.setTotalUsers(totalUsers.sum());
+        stats.setTotalDrivers(count(usersByRole, Role.DRIVER));
+        stats.setTotalPassengers(count(usersByRole, Role.PASSENGER));
+        stats.setActiveUsersToday(usersToday.sum());
+
+        stats.setTotalRides(totalRides.sum());
+        stats.setActiveRides(count(ridesByStatus, "ACTIVE"));
+        stats.setCompletedRides(count(ridesByStatus, "COMPLETED"));
+        stats.setCancelledRides(count(ridesByStatus, "CANCELLED"));
+
+        stats.setTotalBookings(totalBookings.sum());
+        stats.setConfirmedBookings(count(bookingsByStatus, "CONFIRMED"));
+        stats.setCompletedBookings(count(bookingsByStatus, "COMPLETED"));
+
+        stats.setTotalRevenue(totalRevenue.sum());
+        stats.setPlatformCommission(platformCommission.sum());
+        stats.setDriverEarnings(driverEarnings.sum());
+        stats.setSuccessfulPayments(successfulPayments.sum());
+
+        stats.setRidesToday(ridesToday.sum());
+        stats.setBookingsToday(bookingsToday.sum());
+        stats.setRevenueToday(revenueToday.sum());
+
+        stats.setUserGrowthRate(userGrowthRate);
+        stats.setRideGrowthRate(rideGrowthRate);
+        stats.setRevenueGrowthRate(revenueGrowthRate);
+        return stats;
+    }
+
+    /**
+     * A user has registered
+     */
+    public void userRegistered(Role role) {
+        afterCommit(() -> {
+            totalUsers.increment();
+            adder(usersByRole, role).increment();
+            usersToday.increment();
+        });
+    }
+
+    /**
+     * A driver has posted a new ride
+     */
+    public void ridePosted() {
+        afterCommit(() -> {
+            totalRides.increment();
+            adder(ridesByStatus, "ACTIVE").increment();
+            ridesToday.increment();
+        });
+    }
+
+    /**
+     * Rides have moved from one status to another
+     */
+    public void ridesMoved(String fromStatus, String toStatus, long count) {
+        if (count > 0) {
+            afterCommit(() -> move(ridesByStatus, fromStatus, toStatus, count));
+        }
+    }
+
+    /**
+     * A ride has been deleted together with its bookings
+     */
+    public void rideDeleted(String status) {
+        afterCommit(() -> {
+            totalRides.decrement();
+            adder(ridesByStatus, status).decrement();
+        });
+        // Cascaded bookings and their payments are left to the next reconcile
+    }
+
+    /**
+     * A passenger has booked seats on a ride
+     */
+    public void bookingCreated() {
+        afterCommit(() -> {
+            totalBookings.increment();
+            adder(bookingsByStatus, "CONFIRMED").increment();
+            bookingsToday.increment();
+        });
+    }
+
+    /**
+     * Bookings have moved from one status to another
+     */
+    public void bookingsMoved(String fromStatus, String toStatus, long count) {
+        if (count > 0) {
+            afterCommit(() -> move(bookingsByStatus, fromStatus, toStatus, count));
+        }
+    }
+
+    /**
+     * A payment has been captured
+     */
+    public void paymentSucceeded(double amount, double commission, double earnings) {
+        afterCommit(() -> {
+            successfulPayments.increment();
+            totalRevenue.add(amount);
+            platformCommission.add(commission);
+            driverEarnings.add(earnings);
+            revenueToday.add(amount);
+        });
+    }
+
+    /**
+     * A captured payment has been refunded
+     */
+    public void paymentRefunded(double amount, double commission, double earnings) {
+        afterCommit(() -> {
+            successfulPayments.decrement();
+            totalRevenue.add(-amount);
+            platformCommission.add(-commission);
+            driverEarnings.add(-earnings);
+        });
+        // Today's revenue counts by payment date, so the refund is corrected on reconcile
+    }
+
+    /**
+     * Reload every counter from the database
+     * Runs at startup and every few minutes to correct drift and pick up other nodes' writes
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${admin.dashboard.reconcile-ms:300000}",
+               initialDelayString = "${admin.dashboard.reconcile-ms:300000}")
+    public void reconcile() {
+        try {
+            LocalDate day = LocalDate.now();
+
+            set(totalUsers, userRepository.count());
+            set(adder(usersByRole, Role.DRIVER), userRepository.countByRole(Role.DRIVER));
+            set(adder(usersByRole, Role.PASSENGER), userRepository.countByRole(Role.PASSENGER));
+            set(adder(usersByRole, Role.ADMIN), userRepository.countByRole(Role.ADMIN));
+
+            set(totalRides, rideRepository.count());
+            for (String status : new String[] {"ACTIVE", "COMPLETED", "CANCELLED"}) {
+                set(adder(ridesByStatus, status), rideRepository.countByStatus(status));
+            }
+
+            set(totalBookings, bookingRepository.count());
+            for (String status : new String[] {"CONFIRMED", "COMPLETED", "CANCELLED"}) {
+                set(adder(bookingsByStatus, status), bookingRepository.countByStatus(status));
+            }
+
+            set(totalRevenue, paymentRepository.getTotalRevenue());
+            set(platformCommission, paymentRepository.getTotalPlatformCommission());
+            set(driverEarnings, paymentRepository.getTotalDriverEarnings());
+            set(successfulPayments, paymentRepository.countByStatus("SUCCESS"));
+
+            statsDay = day;
+            set(usersToday, userRepository.countActiveUsersToday());
+            set(ridesToday, rideRepository.countRidesCreatedToday());
+            set(bookingsToday, bookingRepository.countBookingsToday());
+            set(revenueToday, paymentRepository.getRevenueToday());
+
+            userGrowthRate = analyticsRollupService.calculateGrowthRate("users");
+            rideGrowthRate = analyticsRollupService.calculateGrowthRate("rides");
+            revenueGrowthRate = analyticsRollupService.calculateGrowthRate("revenue");
+
+            dirty.set(true);
+        } catch (Exception e) {
+            System.err.println("Dashboard stats reconcile failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Push the snapshot to connected admins if anything changed
+     * Runs every second so bursts of events go out as a single frame
+     */
+    @Scheduled(fixedDelayString = "${admin.dashboard.push-interval-ms:1000}")
+    public void publish() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            messagingTemplate.convertAndSend(TOPIC, getStats());
+        } catch (Exception e) {
+            System.err.println("Failed to push dashboard stats: " + e.getMessage());
+        }
+    }
+
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(update);
+                }
+            });
+        } else {
+            apply(update);
+        }
+    }
+
+    private void apply(Runnable update) {
+        rollDay();
+        update.run();
+        dirty.set(true);
+    }
+
+    private void rollDay() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(statsDay)) {
+            synchronized (this) {
+                if (!today.equals(statsDay)) {
+                    usersToday.reset();
+                    ridesToday.reset();
+                    bookingsToday.reset();
+                    revenueToday.reset();
+                    statsDay = today;
+                    dirty.set(true);
+                }
+            }
+        }
+    }
+
+    private void move(ConcurrentHashMap<String, LongAdder> byStatus, String from, String to, long count) {
+        adder(byStatus, from).add(-count);
+        adder(byStatus, to).add(count);
+    }
+
+    private static <K> LongAdder adder(ConcurrentHashMap<K, LongAdder> map, K key) {
+        return map.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private static <K> long count(ConcurrentHashMap<K, LongAdder> map, K key) {
+        LongAdder adder = map.get(key);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    private static void set(LongAdder adder, Long value) {
+        adder.reset();
+        adder.add(value != null ? value : 0);
+    }
+
+    private static void set(DoubleAdder adder, Double value) {
+        adder.reset();
+        adder.add(value != null ? value : 0.0);
+    }
+}
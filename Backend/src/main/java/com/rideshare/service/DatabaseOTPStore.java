@@ -0,0 +1,117 @@
+package com.rideshare.service;
+
+import com.rideshare.model.OTP;
+import com.rideshare.repository.OTPRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+
+/**
+ * OTP store backed by the otps table, for deployments where the send and
+ * verify requests of one login may reach different instances.
+ *
+ * The email's failed attempts live on its latest row and are copied onto the
+ * row of a resent code while their window is running; expired rows are kept
+ * until then so the count isn't lost with them.
+ */
+@Service
+@ConditionalOnProperty(name = "otp.store", havingValue = "database")
+public class DatabaseOTPStore implements OTPStore {
+
+    @Autowired
+    private OTPRepository otpRepository;
+
+    @Value("${otp.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${otp.attempt-window-minutes:15}")
+    private long attemptWindowMinutes;
+
+    @Override
+    @Transactional
+    public void save(String email, String codeHash, LocalDateTime expiresAt) {
+        OTP previous = otpRepository.findFirstByEmailOrderByIdDesc(email).orElse(null);
+
+        // Invalidate any existing OTPs for this email
+        otpRepository.deleteByEmail(email);
+
+        OTP otp = new OTP();
+        otp.setEmail(email);
+        otp.setOtpCode(codeHash);
+        otp.setVerified(false);
+        otp.setAttempts(0);
+        otp.setExpiresAt(expiresAt);
+        if (previous != null && failures(previous, LocalDateTime.now()) > 0) {
+            // A new code doesn't buy new guesses
+            otp.setAttempts(previous.getAttempts());
+            otp.setAttemptsWindowEndsAt(previous.getAttemptsWindowEndsAt());
+        }
+        otpRepository.save(otp);
+    }
+
+    @Override
+    @Transactional
+    public VerificationResult verify(String email, String codeHash, boolean consume) {
+        OTP otp = otpRepository.findFirstByEmailOrderByIdDesc(email).orElse(null);
+        if (otp == null) {
+            return VerificationResult.INVALID;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (otp.getExpiresAt().isBefore(now)) {
+            return VerificationResult.EXPIRED;
+        }
+
+        int failures = failures(otp, now);
+        if (failures >= maxAttempts) {
+            return VerificationResult.TOO_MANY_ATTEMPTS;
+        }
+
+        if (!MessageDigest.isEqual(otp.getOtpCode().getBytes(StandardCharsets.UTF_8),
+                                   codeHash.getBytes(StandardCharsets.UTF_8))) {
+            if (failures == 0) {
+                otp.setAttemptsWindowEndsAt(now.plusMinutes(attemptWindowMinutes));
+            }
+            otp.setAttempts(failures + 1);
+            otpRepository.save(otp);
+            return otp.getAttempts() >= maxAttempts
+                    ? VerificationResult.TOO_MANY_ATTEMPTS
+                    : VerificationResult.INVALID;
+        }
+
+        if (otp.getVerified()) {
+            return VerificationResult.ALREADY_USED;
+        }
+
+        if (consume) {
+            otp.setVerified(true);
+            otp.setAttempts(0);
+            otp.setAttemptsWindowEndsAt(null);
+            otpRepository.save(otp);
+        }
+        return VerificationResult.VALID;
+    }
+
+    /**
+     * Delete expired OTPs
+     * Runs every 10 minutes
+     */
+    @Scheduled(cron = "${otp.cleanup.cron:0 */10 * * * *}")
+    @Transactional
+    public void cleanupExpiredOTPs() {
+        otpRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    // Failed attempts still counting against the email
+    private static int failures(OTP otp, LocalDateTime now) {
+        LocalDateTime windowEndsAt = otp.getAttemptsWindowEndsAt();
+        return windowEndsAt != null && windowEndsAt.isAfter(now) ? otp.getAttempts() : 0;
+    }
+}
@@ -0,0 +1,221 @@
+package com.rideshare.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Streaming demand/supply counters per pickup zone, used for dynamic pricing.
+ *
+ * Demand is a flow: each zone hashes to a fixed stripe holding a ring buffer of
+ * time buckets for searches and booked seats. Supply is a stock: the seats still
+ * open on upcoming ACTIVE rides departing from the zone, seeded from the database
+ * and adjusted as rides are posted, booked, cancelled and completed. The stock is
+ * periodically re-read so changes made on other nodes (and rides that have since
+ * departed) are picked up. Writers only touch atomics and the surge multiplier is
+ * precomputed so that fare calculation reads it in O(1).
+ *
+ * All paths that price a trip pass the passenger's pickup location, so the surge
+ * shown in search results and estimates is the one charged at booking.
+ */
+@Service
+public class DemandSupplyAggregator {
+
+    // Number of zone stripes (power of two so the hash can be masked)
+    private static final int ZONE_SLOTS = 1024;
+
+    // 30 buckets of 10 seconds = 5 minute sliding window
+    private static final int BUCKETS = 30;
+    private static final long BUCKET_MILLIS = 10_000;
+
+    // A search counts as a fraction of a booked seat when measuring demand
+    private static final double SEARCH_WEIGHT = 0.2;
+
+    @Value("${fare.surge.enabled:true}")
+    private boolean surgeEnabled;
+
+    @Value("${fare.surge.max:2.0}")
+    private double maxSurge;
+
+    @Value("${fare.surge.sensitivity:0.5}")
+    private double sensitivity;
+
+    private static final String SELECT_OPEN_SEATS =
+            "SELECT source, SUM(available_seats) AS seats FROM rides " +
+            "WHERE status = 'ACTIVE' AND departure_date_time > :now AND available_seats > 0 GROUP BY source";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Below this much demand in the window a zone never surges
+    @Value("${fare.surge.min-demand:5}")
+    private double minDemand;
+
+    private final AtomicLongArray searches = new AtomicLongArray(ZONE_SLOTS * BUCKETS);
+    private final AtomicLongArray bookedSeats = new AtomicLongArray(ZONE_SLOTS * BUCKETS);
+    private final AtomicLongArray bucketEpochs = new AtomicLongArray(ZONE_SLOTS * BUCKETS);
+
+    // Seats currently open on upcoming rides, per zone
+    private final AtomicLongArray openSeats = new AtomicLongArray(ZONE_SLOTS);
+
+    // Precomputed multiplier per zone, stored as raw double bits
+    private final AtomicLongArray surgeBits = new AtomicLongArray(ZONE_SLOTS);
+
+    public DemandSupplyAggregator() {
+        long neutral = Double.doubleToRawLongBits(1.0);
+        for (int i = 0; i < ZONE_SLOTS; i++) {
+            surgeBits.set(i, neutral);
+        }
+    }
+
+    /**
+     * Record a ride search originating in the given location
+     */
+    public void recordSearch(String location) {
+        record(searches, location, 1);
+    }
+
+    /**
+     * Record seats booked by a passenger picked up at the given location
+     */
+    public void recordBooking(String location, int seats) {
+        record(bookedSeats, location, seats);
+    }
+
+    /**
+     * Add seats opened by a ride posted (or moved) to depart from the given location
+     */
+    public void recordSeatsOffered(String location, int seats) {
+        if (location != null) {
+            openSeats.addAndGet(slotOf(location), seats);
+        }
+    }
+
+    /**
+     * Take back seats that are no longer open because they were booked, or their ride
+     * was cancelled, completed, deleted or moved
+     */
+    public void recordSeatsWithdrawn(String location, int seats) {
+        if (location != null) {
+            openSeats.addAndGet(slotOf(location), -seats);
+        }
+    }
+
+    /**
+     * Re-read open seats per zone from upcoming ACTIVE rides
+     * Runs at startup and then every few minutes to correct drift
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${fare.surge.supply-resync-ms:300000}", initialDelayString = "${fare.surge.supply-resync-ms:300000}")
+    public void resyncOpenSeats() {
+        long[] seats = new long[ZONE_SLOTS];
+        try {
+            jdbcTemplate.query(SELECT_OPEN_SEATS,
+                    new MapSqlParameterSource("now", Timestamp.valueOf(LocalDateTime.now())),
+                    rs -> {
+                        String source = rs.getString("source");
+                        if (source != null) {
+                            seats[slotOf(source)] += rs.getLong("seats");
+                        }
+                    });
+        } catch (Exception e) {
+            System.err.println("Failed to resync open seats for surge pricing: " + e.getMessage());
+            return;
+        }
+
+        // Adjustments racing with the reload are overwritten; the next resync corrects them
+        for (int slot = 0; slot < ZONE_SLOTS; slot++) {
+            openSeats.set(slot, seats[slot]);
+        }
+    }
+
+    /**
+     * Current surge multiplier for a location (1.0 when there is no surge)
+     */
+    public double getSurgeMultiplier(String location) {
+        if (!surgeEnabled || location == null) {
+            return 1.0;
+        }
+        return Double.longBitsToDouble(surgeBits.get(slotOf(location)));
+    }
+
+    /**
+     * Recompute surge multipliers from the sliding window
+     * Runs every few seconds so pricing reacts quickly without per-booking work
+     */
+    @Scheduled(fixedRateString = "${fare.surge.refresh-ms:5000}")
+    public void refreshSurgeMultipliers() {
+        long currentEpoch = System.currentTimeMillis() / BUCKET_MILLIS;
+
+        for (int slot = 0; slot < ZONE_SLOTS; slot++) {
+            long searchCount = 0;
+            long booked = 0;
+
+            for (int b = 0; b < BUCKETS; b++) {
+                int idx = slot * BUCKETS + b;
+                if (bucketEpochs.get(idx) > currentEpoch - BUCKETS) {
+                    searchCount += searches.get(idx);
+                    booked += bookedSeats.get(idx);
+                }
+            }
+
+            // Withdrawals on rides posted elsewhere can take a zone below zero until the next resync
+            long available = Math.max(openSeats.get(slot), 0);
+            surgeBits.set(slot, Double.doubleToRawLongBits(computeSurge(searchCount, booked, available)));
+        }
+    }
+
+    private double computeSurge(long searchCount, long booked, long available) {
+        double demand = booked + searchCount * SEARCH_WEIGHT;
+        if (demand < minDemand) {
+            return 1.0;
+        }
+
+        double ratio = demand / Math.max(available, 1);
+        if (ratio <= 1.0) {
+            return 1.0;
+        }
+
+        double surge = 1.0 + sensitivity * (ratio - 1.0);
+        return Math.round(Math.min(surge, maxSurge) * 100.0) / 100.0;
+    }
+
+    private void record(AtomicLongArray counters, String location, long amount) {
+        if (location == null) {
+            return;
+        }
+
+        long epoch = System.currentTimeMillis() / BUCKET_MILLIS;
+        int idx = slotOf(location) * BUCKETS + (int) (epoch % BUCKETS);
+
+        // First writer in a new time bucket recycles it. A concurrent increment
+        // racing with the reset may be lost, which is acceptable for pricing signals.
+        long seen = bucketEpochs.get(idx);
+        if (seen != epoch && bucketEpochs.compareAndSet(idx, seen, epoch)) {
+            searches.set(idx, 0);
+            bookedSeats.set(idx, 0);
+        }
+
+        counters.addAndGet(idx, amount);
+    }
+
+    /**
+     * Map a free-text location to its zone stripe.
+     * Zones are the leading place name (e.g. "Bangalore" in "Bangalore, Karnataka").
+     */
+    private int slotOf(String location) {
+        String zone = location.split(",")[0].trim().toLowerCase();
+        int h = zone.hashCode();
+        h ^= (h >>> 16);
+        return h & (ZONE_SLOTS - 1);
+    }
+}
@@ -1,5 +1,6 @@
 package com.rideshare.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -13,6 +14,19 @@ public class DistanceCalculationService {
     @Value("${google.maps.api.key}")
     private String googleMapsApiKey;
     
+    @Autowired
+    private GeoApiRateLimiter rateLimiter;
+    
+    @Autowired
+    private GeoCoordinateCache coordinateCache;
+    
+    // Roads are longer than the straight line between their ends
+    @Value("${geo.fallback.road-factor:1.3}")
+    private double roadFactor;
+    
+    @Value("${geo.fallback.average-speed-kmh:45}")
+    private double averageSpeedKmh;
+    
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     
@@ -25,9 +39,11 @@ public class DistanceCalculationService {
      * Calculate distance between two locations using Google Maps Distance Matrix API
      * @param origin Starting location (e.g., "Bangalore, Karnataka")
      * @param destination Ending location (e.g., "Mysore, Karnataka")
+     * @param priority Rate limiter priority class of the caller
      * @return Distance in kilometers
      */
-    public Double calculateDistance(String origin, String destination) {
+    public Double calculateDistance(String origin, String destination, GeoApiRateLimiter.Priority priority) {
+        acquireQuota(priority);
         try {
             String url = UriComponentsBuilder
                     .fromHttpUrl("https://maps.googleapis.com/maps/api/distancematrix/json")
@@ -86,9 +102,11 @@ public class DistanceCalculationService {
      * Calculate estimated travel time in minutes
      * @param origin Starting location
      * @param destination Ending location
+     * @param priority Rate limiter priority class of the caller
      * @return Travel time in minutes
      */
-    public Integer calculateTravelTime(String origin, String destination) {
+    public Integer calculateTravelTime(String origin, String destination, GeoApiRateLimiter.Priority priority) {
+        acquireQuota(priority);
         try {
             String url = UriComponentsBuilder
                     .fromHttpUrl("https://maps.googleapis.com/maps/api/distancematrix/json")
@@ -121,9 +139,11 @@ public class DistanceCalculationService {
      * Get distance and duration data
      * @param origin Starting location
      * @param destination Ending location
+     * @param priority Rate limiter priority class of the caller
      * @return DistanceData object containing distance in km and duration in minutes
      */
-    public DistanceData getDistanceAndDuration(String origin, String destination) {
+    public DistanceData getDistanceAndDuration(String origin, String destination, GeoApiRateLimiter.Priority priority) {
+        acquireQuota(priority);
         try {
             String url = UriComponentsBuilder
                     .fromHttpUrl("https://maps.googleapis.com/maps/api/distancematrix/json")
@@ -167,16 +187,50 @@ public class DistanceCalculationService {
         }
     }
     
+    /**
+     * Estimate distance and duration locally from the straight line between the
+     * two locations, for when the geo quota sheds a call
+     * @param origin Starting location
+     * @param destination Ending location
+     * @return Approximate DistanceData, or null if either location has no known coordinates
+     */
+    public DistanceData estimateStraightLine(String origin, String destination) {
+        GeoCoordinateCache.Coordinates from = coordinateCache.lookup(origin);
+        GeoCoordinateCache.Coordinates to = coordinateCache.lookup(destination);
+        if (from == null || to == null) {
+            return null;
+        }
+        
+        double distanceKm = GeoCoordinateCache.haversineKm(from, to) * roadFactor;
+        int durationMinutes = (int) Math.round(distanceKm / averageSpeedKmh * 60);
+        return new DistanceData(Math.round(distanceKm * 100.0) / 100.0, durationMinutes, true);
+    }
+    
+    /**
+     * Take a token from the shared geo quota or shed the call
+     */
+    private void acquireQuota(GeoApiRateLimiter.Priority priority) {
+        if (!rateLimiter.tryAcquire(priority)) {
+            throw new GeoApiShedException("Distance service is busy, please try again shortly");
+        }
+    }
+    
     /**
      * Data class to hold distance and duration information
      */
     public static class DistanceData {
         private final Double distanceKm;
         private final Integer durationMinutes;
+        private final boolean approximate;
         
         public DistanceData(Double distanceKm, Integer durationMinutes) {
+            this(distanceKm, durationMinutes, false);
+        }
+        
+        public DistanceData(Double distanceKm, Integer durationMinutes, boolean approximate) {
             this.distanceKm = distanceKm;
             this.durationMinutes = durationMinutes;
+            this.approximate = approximate;
         }
         
         public Double getDistanceKm() {
@@ -186,5 +240,12 @@ public class DistanceCalculationService {
         public Integer getDurationMinutes() {
             return durationMinutes;
         }
+        
+        /**
+         * True when estimated from a straight line rather than the road route
+         */
+        public boolean isApproximate() {
+            return approximate;
+        }
     }
 }
\ No newline at end of file
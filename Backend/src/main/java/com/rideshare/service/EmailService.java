@@ -68,12 +68,20 @@ public class EmailService {
      * NEW: Send ride reminder to driver
      */
     public void sendRideReminderToDriver(Ride ride) {
+        sendRideReminderToDriver(ride, "2 hours");
+    }
+    
+    /**
+     * Send ride reminder to driver
+     * @param startsIn Lead time as shown to the driver, e.g. "1 hour"
+     */
+    public void sendRideReminderToDriver(Ride ride, String startsIn) {
         try {
             SimpleMailMessage message = new SimpleMailMessage();
             message.setFrom(fromEmail);
             message.setTo(ride.getDriver().getEmail());
             message.setSubject("⏰ Ride Reminder - Your Journey Starts Soon!");
-            message.setText(buildDriverReminderEmailBody(ride));
+            message.setText(buildDriverReminderEmailBody(ride, startsIn));
             
             mailSender.send(message);
             System.out.println("Ride reminder email sent to driver: " + ride.getDriver().getEmail());
@@ -86,12 +94,20 @@ public class EmailService {
      * NEW: Send ride reminder to passenger
      */
     public void sendRideReminderToPassenger(Booking booking) {
+        sendRideReminderToPassenger(booking, "2 hours");
+    }
+    
+    /**
+     * Send ride reminder to passenger
+     * @param startsIn Time left before departure as shown to the passenger, e.g. "2 hours"
+     */
+    public void sendRideReminderToPassenger(Booking booking, String startsIn) {
         try {
             SimpleMailMessage message = new SimpleMailMessage();
             message.setFrom(fromEmail);
             message.setTo(booking.getPassenger().getEmail());
             message.setSubject("⏰ Ride Reminder - Get Ready for Your Journey!");
-            message.setText(buildPassengerReminderEmailBody(booking));
+            message.setText(buildPassengerReminderEmailBody(booking, startsIn));
             
             mailSender.send(message);
             System.out.println("Ride reminder email sent to passenger: " + booking.getPassenger().getEmail());
@@ -232,14 +248,14 @@ public class EmailService {
         );
     }
     
-    private String buildDriverReminderEmailBody(Ride ride) {
+    private String buildDriverReminderEmailBody(Ride ride, String startsIn) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM yyyy, hh:mm a");
         String departureTime = ride.getDepartureDateTime().format(formatter);
         
         return String.format(
             "Dear %s,\n\n" +
             "⏰ RIDE REMINDER\n\n" +
-            "Your ride starts in 2 hours!\n\n" +
+            "Your ride starts in %s!\n\n" +
             "RIDE DETAILS:\n" +
             "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
             "Route: %s → %s\n" +
@@ -254,6 +270,7 @@ public class EmailService {
             "Best regards,\n" +
             "Smart Ride Sharing Team",
             ride.getDriver().getName(),
+            startsIn,
             ride.getSource(),
             ride.getDestination(),
             departureTime,
@@ -262,14 +279,14 @@ public class EmailService {
         );
     }
     
-    private String buildPassengerReminderEmailBody(Booking booking) {
+    private String buildPassengerReminderEmailBody(Booking booking, String startsIn) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM yyyy, hh:mm a");
         String departureTime = booking.getRide().getDepartureDateTime().format(formatter);
         
         return String.format(
             "Dear %s,\n\n" +
             "⏰ RIDE REMINDER\n\n" +
-            "Your ride starts in 2 hours! Please be ready.\n\n" +
+            "Your ride starts in %s! Please be ready.\n\n" +
             "RIDE DETAILS:\n" +
             "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
             "Route: %s → %s\n" +
@@ -288,6 +305,7 @@ public class EmailService {
             "Best regards,\n" +
             "Smart Ride Sharing Team",
             booking.getPassenger().getName(),
+            startsIn,
             booking.getRide().getSource(),
             booking.getRide().getDestination(),
             departureTime,
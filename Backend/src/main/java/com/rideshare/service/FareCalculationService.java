@@ -1,6 +1,7 @@
 package com.rideshare.service;
 
 import com.rideshare.model.Ride;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -8,33 +9,59 @@ import org.springframework.stereotype.Service;
 public class FareCalculationService {
     
     @Value("${fare.base.amount:50}")
-    private Double baseFare;
+    private double baseFare;
     
     @Value("${fare.minimum.amount:30}")
-    private Double minimumFare;
+    private double minimumFare;
     
     @Value("${fare.booking.fee:10}")
-    private Double bookingFee;
+    private double bookingFee;
+    
+    @Autowired
+    private DemandSupplyAggregator demandSupplyAggregator;
     
     /**
-     * Calculate total fare for a booking
+     * Calculate total fare for a booking, applying the live surge multiplier of the pickup zone
      * @param distanceKm Distance in kilometers
      * @param pricePerKm Rate per kilometer set by driver
      * @param seatsBooked Number of seats booked
+     * @param zone Pickup location used to look up demand/supply surge
      * @return Total fare amount
      */
-    public Double calculateFare(Double distanceKm, Double pricePerKm, Integer seatsBooked) {
-        // Calculate distance-based fare
-        Double distanceFare = distanceKm * pricePerKm;
-        
-        // Add base fare
-        Double totalFare = baseFare + distanceFare;
+    public Double calculateFare(Double distanceKm, Double pricePerKm, Integer seatsBooked, String zone) {
+        return computeFare(distanceKm, pricePerKm, seatsBooked, demandSupplyAggregator.getSurgeMultiplier(zone));
+    }
+    
+    /**
+     * Calculate fares for many candidate rides in one pass over primitive arrays
+     * @param distancesKm Distance in kilometers for each candidate
+     * @param pricesPerKm Rate per kilometer for each candidate
+     * @param seatsBooked Number of seats booked (same for all candidates)
+     * @param zone Pickup location used to look up demand/supply surge
+     * @return Total fare for each candidate, index-aligned with the inputs
+     */
+    public double[] calculateFares(double[] distancesKm, double[] pricesPerKm, int seatsBooked, String zone) {
+        if (distancesKm.length != pricesPerKm.length) {
+            throw new IllegalArgumentException("Distance and price arrays must have the same length");
+        }
         
-        // Multiply by number of seats
-        totalFare = totalFare * seatsBooked;
+        double surge = demandSupplyAggregator.getSurgeMultiplier(zone);
+        double[] fares = new double[distancesKm.length];
+        for (int i = 0; i < fares.length; i++) {
+            fares[i] = computeFare(distancesKm[i], pricesPerKm[i], seatsBooked, surge);
+        }
+        return fares;
+    }
+    
+    /**
+     * Core fare formula shared by single and bulk calculation, free of boxing
+     */
+    private double computeFare(double distanceKm, double pricePerKm, int seatsBooked, double surge) {
+        // Distance-based fare plus base fare, multiplied by seats and surge
+        double totalFare = (baseFare + distanceKm * pricePerKm) * seatsBooked * surge;
         
         // Add booking fee
-        totalFare = totalFare + bookingFee;
+        totalFare += bookingFee;
         
         // Ensure minimum fare
         if (totalFare < minimumFare) {
@@ -50,12 +77,14 @@ public class FareCalculationService {
      * @param distanceKm Distance in kilometers
      * @param pricePerKm Rate per kilometer
      * @param seatsBooked Number of seats
+     * @param zone Pickup location used to look up demand/supply surge
      * @return FareBreakdown object
      */
-    public FareBreakdown calculateFareBreakdown(Double distanceKm, Double pricePerKm, Integer seatsBooked) {
+    public FareBreakdown calculateFareBreakdown(Double distanceKm, Double pricePerKm, Integer seatsBooked, String zone) {
+        double surgeMultiplier = demandSupplyAggregator.getSurgeMultiplier(zone);
         Double distanceFare = distanceKm * pricePerKm;
         Double subtotal = baseFare + distanceFare;
-        Double seatMultiplier = subtotal * seatsBooked;
+        Double seatMultiplier = subtotal * seatsBooked * surgeMultiplier;
         Double total = seatMultiplier + bookingFee;
         
         // Apply minimum fare if necessary
@@ -70,6 +99,7 @@ public class FareCalculationService {
             distanceFare,
             bookingFee,
             seatsBooked,
+            surgeMultiplier,
             Math.round(total * 100.0) / 100.0,
             minimumFareApplied
         );
@@ -110,15 +140,18 @@ public class FareCalculationService {
         private final Double distanceFare;
         private final Double bookingFee;
         private final Integer seatsBooked;
+        private final Double surgeMultiplier;
         private final Double totalFare;
         private final boolean minimumFareApplied;
         
         public FareBreakdown(Double baseFare, Double distanceFare, Double bookingFee, 
-                           Integer seatsBooked, Double totalFare, boolean minimumFareApplied) {
+                           Integer seatsBooked, Double surgeMultiplier, Double totalFare,
+                           boolean minimumFareApplied) {
             this.baseFare = baseFare;
             this.distanceFare = distanceFare;
             this.bookingFee = bookingFee;
             this.seatsBooked = seatsBooked;
+            this.surgeMultiplier = surgeMultiplier;
             this.totalFare = totalFare;
             this.minimumFareApplied = minimumFareApplied;
         }
@@ -128,6 +161,7 @@ public class FareCalculationService {
         public Double getDistanceFare() { return distanceFare; }
         public Double getBookingFee() { return bookingFee; }
         public Integer getSeatsBooked() { return seatsBooked; }
+        public Double getSurgeMultiplier() { return surgeMultiplier; }
         public Double getTotalFare() { return totalFare; }
         public boolean isMinimumFareApplied() { return minimumFareApplied; }
     }
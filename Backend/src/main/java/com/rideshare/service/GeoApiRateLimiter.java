@@ -0,0 +1,131 @@
+package com.rideshare.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide token bucket guarding outbound Google Maps calls.
+ *
+ * The bucket is tracked as a single "theoretical arrival time" (GCRA), so refill and
+ * spend happen in one CAS without locks. Lower priority classes may only draw the
+ * bucket down to their reserve, leaving the remaining tokens for booking traffic.
+ */
+@Service
+public class GeoApiRateLimiter {
+
+    @Value("${geo.ratelimit.capacity:50}")
+    private int capacity;
+
+    @Value("${geo.ratelimit.refill-per-second:10}")
+    private double refillPerSecond;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Nanoseconds at which the bucket would be completely full again
+    private final AtomicLong theoreticalArrivalTime = new AtomicLong(0);
+
+    private long nanosPerToken;
+    private long burstNanos;
+
+    private final Map<Priority, Counter> consumedCounters = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> shedCounters = new EnumMap<>(Priority.class);
+
+    @PostConstruct
+    public void init() {
+        nanosPerToken = (long) (1_000_000_000L / refillPerSecond);
+        burstNanos = nanosPerToken * capacity;
+        theoreticalArrivalTime.set(System.nanoTime());
+
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase();
+            consumedCounters.put(priority, Counter.builder("geo.api.tokens.consumed")
+                    .description("Google Maps API tokens consumed")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+            shedCounters.put(priority, Counter.builder("geo.api.requests.shed")
+                    .description("Google Maps API requests shed by the rate limiter")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+        }
+
+        Gauge.builder("geo.api.tokens.available", this, GeoApiRateLimiter::getAvailableTokens)
+                .description("Tokens currently left in the Google Maps API bucket")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Try to take a single token for an outbound geo call
+     * @param priority Priority class of the caller
+     * @return true if the call may proceed, false if it should be shed
+     */
+    public boolean tryAcquire(Priority priority) {
+        return tryAcquire(priority, 1);
+    }
+
+    /**
+     * Try to take several tokens at once for a unit of work that needs multiple calls
+     * @param priority Priority class of the caller
+     * @param permits Number of tokens required
+     * @return true if the call may proceed, false if it should be shed
+     */
+    public boolean tryAcquire(Priority priority, int permits) {
+        long cost = nanosPerToken * permits;
+        long reserveNanos = (long) (burstNanos * priority.getReservedFraction());
+
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrivalTime.get();
+            long next = Math.max(current, now) + cost;
+
+            // Bucket would drop below the share reserved for higher priorities
+            if (next - now > burstNanos - reserveNanos) {
+                shedCounters.get(priority).increment();
+                return false;
+            }
+
+            if (theoreticalArrivalTime.compareAndSet(current, next)) {
+                consumedCounters.get(priority).increment(permits);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Tokens currently available in the bucket
+     */
+    public double getAvailableTokens() {
+        long now = System.nanoTime();
+        long debt = Math.max(theoreticalArrivalTime.get(), now) - now;
+        return (double) (burstNanos - debt) / nanosPerToken;
+    }
+
+    /**
+     * Priority classes for outbound geo calls, highest first.
+     * The reserved fraction is the share of the bucket a class may not consume.
+     */
+    public enum Priority {
+        BOOKING(0.0),            // Booking-critical distance lookups
+        FARE_ESTIMATE(0.2),      // Client-side fare and distance estimates
+        SEARCH_ENRICHMENT(0.5);  // Route matching during ride search
+
+        private final double reservedFraction;
+
+        Priority(double reservedFraction) {
+            this.reservedFraction = reservedFraction;
+        }
+
+        public double getReservedFraction() {
+            return reservedFraction;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.rideshare.service;
+
+/**
+ * A Google Maps call refused by the shared rate limiter before it was made.
+ * Callers that can live with an approximate answer catch it and estimate locally.
+ */
+public class GeoApiShedException extends RuntimeException {
+
+    public GeoApiShedException(String message) {
+        super(message);
+    }
+}
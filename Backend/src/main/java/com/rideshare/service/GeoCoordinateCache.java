@@ -0,0 +1,67 @@
+package com.rideshare.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coordinates of addresses already resolved by Google Maps on this node.
+ *
+ * Filled as a side effect of route and geocode lookups, and read when the geo
+ * quota sheds a call so a straight-line distance can stand in for the road one.
+ */
+@Service
+public class GeoCoordinateCache {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    @Value("${geo.coordinate-cache.max-entries:50000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<String, Coordinates> coordinates = new ConcurrentHashMap<>();
+
+    public void record(String address, double lat, double lng) {
+        if (address == null || address.isBlank()) {
+            return;
+        }
+        if (coordinates.size() >= maxEntries) {
+            // Crude bound on memory: start over rather than track recency
+            coordinates.clear();
+        }
+        coordinates.put(key(address), new Coordinates(lat, lng));
+    }
+
+    /**
+     * Known coordinates of an address, or null if it hasn't been resolved yet
+     */
+    public Coordinates lookup(String address) {
+        return address == null ? null : coordinates.get(key(address));
+    }
+
+    /**
+     * Great-circle distance between two points in kilometers
+     */
+    public static double haversineKm(Coordinates from, Coordinates to) {
+        double dLat = Math.toRadians(to.lat - from.lat);
+        double dLng = Math.toRadians(to.lng - from.lng);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(from.lat)) * Math.cos(Math.toRadians(to.lat))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static String key(String address) {
+        return address.trim().toLowerCase();
+    }
+
+    public static class Coordinates {
+        final double lat;
+        final double lng;
+
+        public Coordinates(double lat, double lng) {
+            this.lat = lat;
+            this.lng = lng;
+        }
+    }
+}
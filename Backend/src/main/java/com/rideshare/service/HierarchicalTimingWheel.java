@@ -0,0 +1,156 @@
+package com.rideshare.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel for scheduling many deadlines cheaply.
+ *
+ * Level 0 has wheelSize slots of tickMillis each; every higher level has slots
+ * wheelSize times wider. Entries are placed on the lowest level whose span covers
+ * their deadline and cascade down as the clock reaches their slot, so adding,
+ * replacing and expiring are all O(1) amortised regardless of how many are pending.
+ *
+ * Entries are keyed; adding a key again replaces the earlier deadline.
+ * Not tied to wall-clock time: the owner drives it by calling advance(now).
+ */
+public class HierarchicalTimingWheel<K, V> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    private final List<List<Entry<K, V>>> slots;
+
+    // Deadlines beyond the top level, re-examined whenever the top level turns
+    private List<Entry<K, V>> overflow = new ArrayList<>();
+
+    private final Map<K, Entry<K, V>> entriesByKey = new HashMap<>();
+
+    private long currentTime;
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelTicks = new long[levels];
+        this.slots = new ArrayList<>(levels * wheelSize);
+
+        long tick = tickMillis;
+        for (int level = 0; level < levels; level++) {
+            levelTicks[level] = tick;
+            tick *= wheelSize;
+        }
+        for (int i = 0; i < levels * wheelSize; i++) {
+            slots.add(new ArrayList<>());
+        }
+
+        this.currentTime = startMillis - (startMillis % tickMillis);
+    }
+
+    /**
+     * Schedule (or reschedule) a key. Returns true if the deadline is already due,
+     * in which case the value is not stored and the caller should handle it now.
+     */
+    public synchronized boolean schedule(K key, long deadlineMillis, V value) {
+        cancel(key);
+
+        Entry<K, V> entry = new Entry<>(key, deadlineMillis, value);
+        if (deadlineMillis < currentTime + tickMillis) {
+            return true;
+        }
+        entriesByKey.put(key, entry);
+        place(entry, null);
+        return false;
+    }
+
+    /**
+     * Remove a pending key. Cancelled entries are dropped lazily when their slot turns.
+     */
+    public synchronized void cancel(K key) {
+        Entry<K, V> previous = entriesByKey.remove(key);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+    }
+
+    public synchronized int size() {
+        return entriesByKey.size();
+    }
+
+    /**
+     * Move the clock forward to nowMillis and return every value that became due
+     */
+    public synchronized List<V> advance(long nowMillis) {
+        List<V> due = new ArrayList<>();
+
+        while (currentTime + tickMillis <= nowMillis) {
+            currentTime += tickMillis;
+
+            // Cascade from the top so entries landing in the current level-0 slot expire this tick
+            for (int level = levelTicks.length - 1; level >= 0; level--) {
+                long levelTick = levelTicks[level];
+                if (currentTime % levelTick != 0) {
+                    continue;
+                }
+
+                if (level == levelTicks.length - 1 && !overflow.isEmpty()) {
+                    List<Entry<K, V>> pending = overflow;
+                    overflow = new ArrayList<>();
+                    pending.forEach(entry -> place(entry, due));
+                }
+
+                int index = slotIndex(level, currentTime / levelTick);
+                List<Entry<K, V>> bucket = slots.get(index);
+                if (!bucket.isEmpty()) {
+                    slots.set(index, new ArrayList<>());
+                    bucket.forEach(entry -> place(entry, due));
+                }
+            }
+        }
+
+        return due;
+    }
+
+    private void place(Entry<K, V> entry, List<V> due) {
+        if (entry.cancelled) {
+            return;
+        }
+
+        if (entry.deadline < currentTime + tickMillis) {
+            entriesByKey.remove(entry.key);
+            if (due != null) {
+                due.add(entry.value);
+            }
+            return;
+        }
+
+        for (int level = 0; level < levelTicks.length; level++) {
+            long levelTick = levelTicks[level];
+            long levelStart = currentTime - (currentTime % levelTick);
+            if (entry.deadline < levelStart + levelTick * wheelSize) {
+                slots.get(slotIndex(level, entry.deadline / levelTick)).add(entry);
+                return;
+            }
+        }
+
+        overflow.add(entry);
+    }
+
+    private int slotIndex(int level, long virtualTick) {
+        return level * wheelSize + (int) (virtualTick % wheelSize);
+    }
+
+    private static class Entry<K, V> {
+        final K key;
+        final long deadline;
+        final V value;
+        boolean cancelled;
+
+        Entry(K key, long deadline, V value) {
+            this.key = key;
+            this.deadline = deadline;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.rideshare.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OTP store held in process memory (the default).
+ *
+ * Codes live in a concurrent map keyed by email and are evicted by a timing
+ * wheel when they expire, so sending and verifying codes touches no database.
+ * Failed attempts are kept per email in a second map, outside the codes, so
+ * that replacing a code leaves them in place until their window ends.
+ * Codes don't survive a restart and aren't shared between instances; use the
+ * database store (otp.store=database) when logins can hit different nodes.
+ */
+@Service
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOTPStore implements OTPStore {
+
+    @Value("${otp.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${otp.attempt-window-minutes:15}")
+    private long attemptWindowMinutes;
+
+    private final ConcurrentHashMap<String, StoredCode> codes = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, AttemptWindow> attempts = new ConcurrentHashMap<>();
+
+    // 1s ticks, 64 slots x 3 levels covers about three days of expiry
+    private final HierarchicalTimingWheel<String, StoredCode> expiryWheel =
+            new HierarchicalTimingWheel<>(1000, 64, 3, System.currentTimeMillis());
+
+    @Override
+    public void save(String email, String codeHash, LocalDateTime expiresAt) {
+        StoredCode code = new StoredCode(email, codeHash, expiresAt);
+        codes.put(email, code);
+
+        long expiresAtMillis = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (expiryWheel.schedule(email, expiresAtMillis, code)) {
+            codes.remove(email, code);
+        }
+    }
+
+    @Override
+    public VerificationResult verify(String email, String codeHash, boolean consume) {
+        StoredCode code = codes.get(email);
+        if (code == null) {
+            return VerificationResult.INVALID;
+        }
+
+        if (code.expiresAt.isBefore(LocalDateTime.now())) {
+            codes.remove(email, code);
+            return VerificationResult.EXPIRED;
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (code) {
+            if (failures(email, now) >= maxAttempts) {
+                return VerificationResult.TOO_MANY_ATTEMPTS;
+            }
+
+            if (!MessageDigest.isEqual(code.codeHash.getBytes(StandardCharsets.UTF_8),
+                                       codeHash.getBytes(StandardCharsets.UTF_8))) {
+                return recordFailure(email, now) >= maxAttempts
+                        ? VerificationResult.TOO_MANY_ATTEMPTS
+                        : VerificationResult.INVALID;
+            }
+
+            if (code.used) {
+                return VerificationResult.ALREADY_USED;
+            }
+
+            if (consume) {
+                code.used = true;
+                attempts.remove(email);
+            }
+            return VerificationResult.VALID;
+        }
+    }
+
+    /**
+     * Evict expired codes
+     * Runs every second
+     */
+    @Scheduled(fixedRate = 1000)
+    public void evictExpired() {
+        for (StoredCode code : expiryWheel.advance(System.currentTimeMillis())) {
+            codes.remove(code.email, code);
+        }
+    }
+
+    /**
+     * Forget attempt windows that have run out
+     * Runs every minute
+     */
+    @Scheduled(fixedRate = 60000)
+    public void evictAttemptWindows() {
+        long now = System.currentTimeMillis();
+        attempts.values().removeIf(window -> window.endsAt <= now);
+    }
+
+    private int failures(String email, long now) {
+        AttemptWindow window = attempts.get(email);
+        return window == null || window.endsAt <= now ? 0 : window.failures;
+    }
+
+    // Count a failure for the email, opening a new window if there is none running
+    private int recordFailure(String email, long now) {
+        return attempts.compute(email, (key, window) -> window == null || window.endsAt <= now
+                ? new AttemptWindow(now + TimeUnit.MINUTES.toMillis(attemptWindowMinutes), 1)
+                : new AttemptWindow(window.endsAt, window.failures + 1)).failures;
+    }
+
+    private static class AttemptWindow {
+        final long endsAt;
+        final int failures;
+
+        AttemptWindow(long endsAt, int failures) {
+            this.endsAt = endsAt;
+            this.failures = failures;
+        }
+    }
+
+    private static class StoredCode {
+        final String email;
+        final String codeHash;
+        final LocalDateTime expiresAt;
+        boolean used;
+
+        StoredCode(String email, String codeHash, LocalDateTime expiresAt) {
+            this.email = email;
+            this.codeHash = codeHash;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.rideshare.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Database-backed leases for scheduled jobs (the ShedLock approach).
+ *
+ * Every instance still fires its @Scheduled methods, but only the one that wins
+ * the lease row does the work. A lease is held for at most lockAtMostFor, so a
+ * crashed holder never blocks the job for long, and at least lockAtLeastFor, so
+ * nodes with slightly different clocks don't run the same tick back to back.
+ */
+@Service
+public class JobLeaseService {
+
+    private static final String TAKE_EXPIRED_LEASE =
+            "UPDATE job_leases SET locked_by = :nodeId, locked_at = :now, locked_until = :until " +
+            "WHERE name = :name AND locked_until <= :now";
+
+    private static final String INSERT_LEASE =
+            "INSERT INTO job_leases (name, locked_by, locked_at, locked_until) " +
+            "VALUES (:name, :nodeId, :now, :until)";
+
+    private static final String RELEASE_LEASE =
+            "UPDATE job_leases SET locked_until = :until WHERE name = :name AND locked_by = :nodeId";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterMembership clusterMembership;
+
+    /**
+     * Run the task only if this node can take the named lease
+     * @return true if the task ran here
+     */
+    public boolean runWithLease(String name, Duration lockAtMostFor, Duration lockAtLeastFor, Runnable task) {
+        LocalDateTime lockedAt = LocalDateTime.now();
+        if (!tryAcquire(name, lockedAt, lockAtMostFor)) {
+            return false;
+        }
+
+        try {
+            task.run();
+            return true;
+        } finally {
+            release(name, lockedAt, lockAtLeastFor);
+        }
+    }
+
+    private boolean tryAcquire(String name, LocalDateTime now, Duration lockAtMostFor) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("name", name)
+                .addValue("nodeId", clusterMembership.getNodeId())
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("until", Timestamp.valueOf(now.plus(lockAtMostFor)));
+
+        if (jdbcTemplate.update(TAKE_EXPIRED_LEASE, params) == 1) {
+            return true;
+        }
+
+        // First run of this job anywhere: the row doesn't exist yet
+        try {
+            return jdbcTemplate.update(INSERT_LEASE, params) == 1;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void release(String name, LocalDateTime lockedAt, Duration lockAtLeastFor) {
+        LocalDateTime until = lockedAt.plus(lockAtLeastFor);
+        LocalDateTime now = LocalDateTime.now();
+
+        try {
+            jdbcTemplate.update(RELEASE_LEASE, new MapSqlParameterSource()
+                    .addValue("name", name)
+                    .addValue("nodeId", clusterMembership.getNodeId())
+                    .addValue("until", Timestamp.valueOf(until.isAfter(now) ? until : now)));
+        } catch (Exception e) {
+            // The lease still expires on its own at lockAtMostFor
+            System.err.println("Failed to release job lease " + name + ": " + e.getMessage());
+        }
+    }
+}
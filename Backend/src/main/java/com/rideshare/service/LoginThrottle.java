@@ -0,0 +1,199 @@
+package com.rideshare.service;
+
+import com.rideshare.security.LoginThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sliding-window throttles on login attempts per email and per client IP.
+ *
+ * Checked before any password is hashed, so credential stuffing against one
+ * account or from one address is refused for the price of a few atomic
+ * increments. Each key holds a small ring of time buckets updated lock-free.
+ * The per-IP count covers every attempt; the per-email count covers failed
+ * attempts only and is cleared by a successful login, so a user who signs in
+ * normally is never locked out of their own account.
+ *
+ * Both maps are capped. When a map is full of active keys, new keys go
+ * untracked until idle ones are evicted, rather than letting a flood of
+ * distinct keys grow the heap.
+ */
+@Service
+public class LoginThrottle {
+
+    // 10 buckets per window gives a reasonably smooth sliding count
+    private static final int BUCKETS = 10;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${login.throttle.window-seconds:300}")
+    private long windowSeconds;
+
+    @Value("${login.throttle.max-per-email:10}")
+    private int maxPerEmail;
+
+    @Value("${login.throttle.max-per-ip:50}")
+    private int maxPerIp;
+
+    @Value("${login.throttle.max-tracked-keys:100000}")
+    private int maxTrackedKeys;
+
+    private final ConcurrentHashMap<String, SlidingWindowCounter> emailCounters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, SlidingWindowCounter> ipCounters = new ConcurrentHashMap<>();
+
+    private long bucketMillis;
+    // Counts fall as the oldest bucket slides out of the window
+    private long retryAfterSeconds;
+    private Counter throttledByEmail;
+    private Counter throttledByIp;
+    private Counter untracked;
+
+    @PostConstruct
+    public void init() {
+        bucketMillis = windowSeconds * 1000 / BUCKETS;
+        retryAfterSeconds = Math.max(1, (bucketMillis + 999) / 1000);
+        throttledByEmail = Counter.builder("login.throttled")
+                .tag("scope", "email")
+                .description("Login attempts refused by the per-email throttle")
+                .register(meterRegistry);
+        throttledByIp = Counter.builder("login.throttled")
+                .tag("scope", "ip")
+                .description("Login attempts refused by the per-IP throttle")
+                .register(meterRegistry);
+        untracked = Counter.builder("login.throttle.untracked")
+                .description("Attempts not counted because the throttle maps were full")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("login.throttle.tracked", Tags.of("scope", "email"), emailCounters);
+        meterRegistry.gaugeMapSize("login.throttle.tracked", Tags.of("scope", "ip"), ipCounters);
+    }
+
+    /**
+     * Count a login attempt against the IP, and refuse it if the IP or the email's recent failures are over the limit
+     */
+    public void checkLogin(String email, String clientIp) {
+        checkIp(clientIp);
+        if (email != null) {
+            SlidingWindowCounter failures = emailCounters.get(email.toLowerCase(Locale.ROOT));
+            if (failures != null && failures.count(bucketMillis) >= maxPerEmail) {
+                throttledByEmail.increment();
+                throw new LoginThrottledException("Too many login attempts for this account. Please try again later.",
+                        retryAfterSeconds);
+            }
+        }
+    }
+
+    /**
+     * Record a failed password or OTP check for this email
+     */
+    public void loginFailed(String email) {
+        if (email == null) {
+            return;
+        }
+        SlidingWindowCounter failures = counterFor(emailCounters, email.toLowerCase(Locale.ROOT));
+        if (failures != null) {
+            failures.incrementAndCount(bucketMillis);
+        }
+    }
+
+    /**
+     * Clear the email's failure count after a successful login
+     */
+    public void loginSucceeded(String email) {
+        if (email != null) {
+            emailCounters.remove(email.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Count an attempt from a client IP (registration, login) and refuse it over the limit
+     */
+    public void checkIp(String clientIp) {
+        if (clientIp == null) {
+            return;
+        }
+        SlidingWindowCounter counter = counterFor(ipCounters, clientIp);
+        if (counter != null && counter.incrementAndCount(bucketMillis) > maxPerIp) {
+            throttledByIp.increment();
+            throw new LoginThrottledException("Too many requests from this address. Please try again later.",
+                    retryAfterSeconds);
+        }
+    }
+
+    // Existing counter for the key, a new one if there is room, or null when the map is full
+    private SlidingWindowCounter counterFor(ConcurrentHashMap<String, SlidingWindowCounter> counters, String key) {
+        SlidingWindowCounter counter = counters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        if (counters.size() >= maxTrackedKeys) {
+            long currentEpoch = System.currentTimeMillis() / bucketMillis;
+            counters.values().removeIf(c -> c.isIdle(currentEpoch));
+            if (counters.size() >= maxTrackedKeys) {
+                untracked.increment();
+                return null;
+            }
+        }
+        return counters.computeIfAbsent(key, k -> new SlidingWindowCounter());
+    }
+
+    /**
+     * Drop counters with no activity in the current window
+     * Runs every minute
+     */
+    @Scheduled(fixedRate = 60_000)
+    public void evictIdleCounters() {
+        long currentEpoch = System.currentTimeMillis() / bucketMillis;
+        emailCounters.values().removeIf(counter -> counter.isIdle(currentEpoch));
+        ipCounters.values().removeIf(counter -> counter.isIdle(currentEpoch));
+    }
+
+    private static class SlidingWindowCounter {
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLongArray epochs = new AtomicLongArray(BUCKETS);
+
+        long incrementAndCount(long bucketMillis) {
+            long epoch = System.currentTimeMillis() / bucketMillis;
+            int idx = (int) (epoch % BUCKETS);
+
+            // First writer in a new time bucket recycles it; a racing increment may be lost,
+            // which only makes the throttle marginally more lenient
+            long seen = epochs.get(idx);
+            if (seen != epoch && epochs.compareAndSet(idx, seen, epoch)) {
+                counts.set(idx, 0);
+            }
+            counts.incrementAndGet(idx);
+            return count(bucketMillis);
+        }
+
+        long count(long bucketMillis) {
+            long epoch = System.currentTimeMillis() / bucketMillis;
+            long total = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                if (epochs.get(b) > epoch - BUCKETS) {
+                    total += counts.get(b);
+                }
+            }
+            return total;
+        }
+
+        boolean isIdle(long currentEpoch) {
+            for (int b = 0; b < BUCKETS; b++) {
+                if (epochs.get(b) > currentEpoch - BUCKETS) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
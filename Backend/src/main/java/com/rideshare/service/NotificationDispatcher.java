@@ -0,0 +1,225 @@
+package com.rideshare.service;
+
+import com.rideshare.dto.NotificationResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers notifications for a few milliseconds, writes them as one JDBC batch
+ * and pushes all pending messages for a user in a single STOMP frame.
+ *
+ * A batch is flushed when it reaches the size limit or when its oldest event
+ * has waited for the configured maximum latency, whichever comes first.
+ *
+ * Delivery is at-most-once: queued notifications live only in memory until
+ * their batch is written, so a crash loses whatever was buffered in the last
+ * latency window plus any batch still being retried. A graceful shutdown writes
+ * everything first. Queueing, retries and the row-by-row fallback live in
+ * BatchWriter, shared with the activity log.
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, type, message, related_id, is_read, created_at) " +
+            "VALUES (?, ?, ?, ?, false, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private UnreadNotificationCounter unreadCounter;
+
+    @Autowired
+    private UserPresenceTracker presenceTracker;
+
+    @Value("${notification.batch.max-size:100}")
+    private int maxBatchSize;
+
+    @Value("${notification.batch.max-latency-ms:25}")
+    private long maxLatencyMs;
+
+    @Value("${notification.batch.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${notification.batch.retry-backoff-ms:100}")
+    private long retryBackoffMs;
+
+    private TransactionTemplate transactionTemplate;
+    private BatchWriter<PendingNotification> writer;
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // Batches handed over by bulk jobs may arrive inside the job's read-only transaction
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        writer = new BatchWriter<>("notification-dispatcher", Integer.MAX_VALUE, maxBatchSize, maxLatencyMs,
+                maxAttempts, retryBackoffMs) {
+            @Override
+            protected List<Long> insert(List<PendingNotification> batch) {
+                return insertBatch(batch);
+            }
+
+            @Override
+            protected void written(List<PendingNotification> stored, List<Long> ids) {
+                push(stored, ids);
+            }
+
+            @Override
+            protected void dropped(PendingNotification pending, Exception error) {
+                System.err.println("Dropping notification for user #" + pending.recipientId + ": " + error.getMessage());
+            }
+        };
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Finishes the batch in flight and flushes anything still buffered before shutdown
+        writer.stop(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Queue a notification for the next batch
+     */
+    public void enqueue(Long recipientId, String type, String message, Long relatedId) {
+        writer.offer(new PendingNotification(recipientId, type, message, relatedId, LocalDateTime.now()));
+    }
+
+    /**
+     * Write and push a batch on the caller's thread.
+     * Used by bulk jobs, which already have their notifications grouped and
+     * get natural back-pressure from waiting on the insert.
+     */
+    public void dispatchNow(List<PendingNotification> batch) {
+        if (!batch.isEmpty()) {
+            writer.writeNow(batch);
+        }
+    }
+
+    /**
+     * Push stored notifications, one frame per recipient; rows that could not be stored are not pushed
+     */
+    private void push(List<PendingNotification> persisted, List<Long> ids) {
+        // Coalesce per recipient, preserving arrival order
+        Map<Long, List<NotificationResponse>> byRecipient = new LinkedHashMap<>();
+        for (int i = 0; i < persisted.size(); i++) {
+            PendingNotification pending = persisted.get(i);
+
+            NotificationResponse response = new NotificationResponse();
+            response.setId(i < ids.size() ? ids.get(i) : null);
+            response.setType(pending.type);
+            response.setMessage(pending.message);
+            response.setRelatedId(pending.relatedId);
+            response.setRead(false);
+            response.setCreatedAt(pending.createdAt);
+
+            byRecipient.computeIfAbsent(pending.recipientId, k -> new ArrayList<>()).add(response);
+        }
+
+        for (Map.Entry<Long, List<NotificationResponse>> entry : byRecipient.entrySet()) {
+            String destination = "/topic/user/" + entry.getKey();
+            List<NotificationResponse> messages = entry.getValue();
+            unreadCounter.added(entry.getKey(), messages.size());
+
+            // Offline users pick the rows up from the unread list when they next load the app
+            if (!presenceTracker.shouldPush(entry.getKey())) {
+                continue;
+            }
+            try {
+                // A single message keeps the original frame shape; several go out as one array
+                if (messages.size() == 1) {
+                    messagingTemplate.convertAndSend(destination, messages.get(0));
+                } else {
+                    messagingTemplate.convertAndSend(destination, messages);
+                }
+            } catch (Exception e) {
+                System.err.println("Failed to push notifications to user #" + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private List<Long> insertBatch(List<PendingNotification> batch) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingNotification pending = batch.get(i);
+                        ps.setLong(1, pending.recipientId);
+                        ps.setString(2, pending.type);
+                        ps.setString(3, pending.message);
+                        if (pending.relatedId != null) {
+                            ps.setLong(4, pending.relatedId);
+                        } else {
+                            ps.setNull(4, Types.BIGINT);
+                        }
+                        ps.setTimestamp(5, Timestamp.valueOf(pending.createdAt));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                },
+                keyHolder));
+
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    public static class PendingNotification {
+        final Long recipientId;
+        final String type;
+        final String message;
+        final Long relatedId;
+        final LocalDateTime createdAt;
+
+        public PendingNotification(Long recipientId, String type, String message, Long relatedId) {
+            this(recipientId, type, message, relatedId, LocalDateTime.now());
+        }
+
+        PendingNotification(Long recipientId, String type, String message,
+                            Long relatedId, LocalDateTime createdAt) {
+            this.recipientId = recipientId;
+            this.type = type;
+            this.message = message;
+            this.relatedId = relatedId;
+            this.createdAt = createdAt;
+        }
+    }
+}
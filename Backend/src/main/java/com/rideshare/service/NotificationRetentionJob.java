@@ -0,0 +1,267 @@
+package com.rideshare.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * Retention policy for the notifications and ride_events tables.
+ *
+ * Each notification and ride event type has a TTL; expired rows are copied to the
+ * matching archive table and deleted in small chunks, each chunk in its own short
+ * transaction, so the job never holds long locks on the live tables. Ride events
+ * take their ride_event_reads markers with them.
+ */
+@Service
+public class NotificationRetentionJob {
+
+    private static final String SELECT_EXPIRED_OF_TYPE =
+            "SELECT id, user_id, is_read FROM notifications " +
+            "WHERE type = :type AND created_at < :cutoff ORDER BY created_at LIMIT :limit";
+
+    private static final String SELECT_EXPIRED_DEFAULT =
+            "SELECT id, user_id, is_read FROM notifications " +
+            "WHERE type NOT IN (:types) AND created_at < :cutoff ORDER BY created_at LIMIT :limit";
+
+    private static final String SELECT_EXPIRED_ANY =
+            "SELECT id, user_id, is_read FROM notifications " +
+            "WHERE created_at < :cutoff ORDER BY created_at LIMIT :limit";
+
+    private static final String ARCHIVE_CHUNK =
+            "INSERT INTO notifications_archive " +
+            "(id, user_id, type, message, related_id, is_read, created_at, archived_at) " +
+            "SELECT id, user_id, type, message, related_id, is_read, created_at, :archivedAt " +
+            "FROM notifications WHERE id IN (:ids)";
+
+    private static final String DELETE_CHUNK = "DELETE FROM notifications WHERE id IN (:ids)";
+
+    private static final String SELECT_EXPIRED_EVENTS_OF_TYPE =
+            "SELECT id FROM ride_events WHERE type = :type AND created_at < :cutoff ORDER BY id LIMIT :limit";
+
+    private static final String SELECT_EXPIRED_EVENTS_DEFAULT =
+            "SELECT id FROM ride_events WHERE type NOT IN (:types) AND created_at < :cutoff ORDER BY id LIMIT :limit";
+
+    private static final String SELECT_EXPIRED_EVENTS_ANY =
+            "SELECT id FROM ride_events WHERE created_at < :cutoff ORDER BY id LIMIT :limit";
+
+    private static final String ARCHIVE_EVENT_READS_CHUNK =
+            "INSERT INTO ride_event_reads_archive (id, ride_event_id, user_id, read_at, archived_at) " +
+            "SELECT id, ride_event_id, user_id, read_at, :archivedAt " +
+            "FROM ride_event_reads WHERE ride_event_id IN (:ids)";
+
+    private static final String DELETE_EVENT_READS_CHUNK = "DELETE FROM ride_event_reads WHERE ride_event_id IN (:ids)";
+
+    private static final String ARCHIVE_EVENTS_CHUNK =
+            "INSERT INTO ride_events_archive (id, ride_id, type, message, created_at, archived_at) " +
+            "SELECT id, ride_id, type, message, created_at, :archivedAt " +
+            "FROM ride_events WHERE id IN (:ids)";
+
+    private static final String DELETE_EVENTS_CHUNK = "DELETE FROM ride_events WHERE id IN (:ids)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UnreadNotificationCounter unreadCounter;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    // Format: TYPE:days,TYPE:days
+    @Value("${notification.retention.ttl-days:RIDE_REMINDER:14,REVIEW_REMINDER:30}")
+    private String typeTtlConfig;
+
+    @Value("${notification.retention.default-ttl-days:90}")
+    private int defaultTtlDays;
+
+    // Same format, for ride-wide events in ride_events
+    @Value("${notification.retention.ride-event-ttl-days:RIDE_REMINDER:14,RIDE_COMPLETED:60}")
+    private String rideEventTtlConfig;
+
+    @Value("${notification.retention.ride-event-default-ttl-days:90}")
+    private int rideEventDefaultTtlDays;
+
+    @Value("${notification.retention.archive:true}")
+    private boolean archiveEnabled;
+
+    @Value("${notification.retention.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${notification.retention.chunk-pause-ms:50}")
+    private long chunkPauseMs;
+
+    private final Map<String, Integer> ttlDaysByType = new HashMap<>();
+    private final Map<String, Integer> rideEventTtlDaysByType = new HashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        parseTtls(typeTtlConfig, ttlDaysByType);
+        parseTtls(rideEventTtlConfig, rideEventTtlDaysByType);
+    }
+
+    /**
+     * Purge expired notifications and ride events
+     * Runs daily at 3:30 AM
+     */
+    @Scheduled(cron = "${notification.retention.cron:0 30 3 * * *}")
+    public void purgeExpiredNotifications() {
+        // One node purges for the whole cluster
+        jobLeaseService.runWithLease("notification-retention", Duration.ofHours(2), Duration.ofMinutes(5),
+                this::purge);
+    }
+
+    private void purge() {
+        LocalDateTime now = LocalDateTime.now();
+
+        long purged = purgeByType(now, ttlDaysByType, defaultTtlDays,
+                SELECT_EXPIRED_OF_TYPE, SELECT_EXPIRED_DEFAULT, SELECT_EXPIRED_ANY,
+                this::purgeChunk);
+        if (purged > 0) {
+            System.out.println("Notification retention purged " + purged + " rows at " + now);
+        }
+
+        long purgedEvents = purgeByType(now, rideEventTtlDaysByType, rideEventDefaultTtlDays,
+                SELECT_EXPIRED_EVENTS_OF_TYPE, SELECT_EXPIRED_EVENTS_DEFAULT, SELECT_EXPIRED_EVENTS_ANY,
+                this::purgeRideEventChunk);
+        if (purgedEvents > 0) {
+            System.out.println("Notification retention purged " + purgedEvents + " ride events at " + now);
+        }
+    }
+
+    private long purgeByType(LocalDateTime now, Map<String, Integer> ttls, int defaultDays,
+                             String ofTypeSql, String defaultSql, String anySql,
+                             BiFunction<String, MapSqlParameterSource, Integer> chunkPurger) {
+        long purged = 0;
+
+        for (Map.Entry<String, Integer> entry : ttls.entrySet()) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("type", entry.getKey())
+                    .addValue("cutoff", Timestamp.valueOf(now.minusDays(entry.getValue())));
+            purged += purgeInChunks(ofTypeSql, params, chunkPurger);
+        }
+
+        // Everything else falls back to the default TTL
+        MapSqlParameterSource defaults = new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.valueOf(now.minusDays(defaultDays)));
+        if (ttls.isEmpty()) {
+            purged += purgeInChunks(anySql, defaults, chunkPurger);
+        } else {
+            defaults.addValue("types", new ArrayList<>(ttls.keySet()));
+            purged += purgeInChunks(defaultSql, defaults, chunkPurger);
+        }
+        return purged;
+    }
+
+    private long purgeInChunks(String selectSql, MapSqlParameterSource params,
+                               BiFunction<String, MapSqlParameterSource, Integer> chunkPurger) {
+        params.addValue("limit", chunkSize);
+        long total = 0;
+
+        while (true) {
+            Integer processed = transactionTemplate.execute(status -> chunkPurger.apply(selectSql, params));
+            if (processed == null || processed == 0) {
+                return total;
+            }
+            total += processed;
+
+            if (processed < chunkSize) {
+                return total;
+            }
+
+            // Give foreground traffic room between chunks
+            try {
+                Thread.sleep(chunkPauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return total;
+            }
+        }
+    }
+
+    private int purgeChunk(String selectSql, MapSqlParameterSource params) {
+        List<Long> ids = new ArrayList<>();
+        Set<Long> usersWithUnread = new HashSet<>();
+
+        jdbcTemplate.query(selectSql, params, rs -> {
+            ids.add(rs.getLong("id"));
+            if (!rs.getBoolean("is_read")) {
+                usersWithUnread.add(rs.getLong("user_id"));
+            }
+        });
+
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource chunk = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+
+        if (archiveEnabled) {
+            jdbcTemplate.update(ARCHIVE_CHUNK, chunk);
+        }
+        jdbcTemplate.update(DELETE_CHUNK, chunk);
+
+        // Unread rows were removed, so cached badge counts for those users are stale
+        usersWithUnread.forEach(unreadCounter::invalidate);
+
+        return ids.size();
+    }
+
+    private int purgeRideEventChunk(String selectSql, MapSqlParameterSource params) {
+        List<Long> ids = jdbcTemplate.queryForList(selectSql, params, Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource chunk = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+
+        // Read markers go first so no live marker is left pointing at a deleted event
+        if (archiveEnabled) {
+            jdbcTemplate.update(ARCHIVE_EVENT_READS_CHUNK, chunk);
+        }
+        jdbcTemplate.update(DELETE_EVENT_READS_CHUNK, chunk);
+
+        if (archiveEnabled) {
+            jdbcTemplate.update(ARCHIVE_EVENTS_CHUNK, chunk);
+        }
+        jdbcTemplate.update(DELETE_EVENTS_CHUNK, chunk);
+
+        return ids.size();
+    }
+
+    private static void parseTtls(String config, Map<String, Integer> into) {
+        for (String entry : config.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length == 2) {
+                into.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+            }
+        }
+    }
+}
@@ -1,15 +1,35 @@
 package com.rideshare.service;
 
 import com.rideshare.dto.NotificationResponse;
+import com.rideshare.dto.RideEventResponse;
 import com.rideshare.model.Notification;
+import com.rideshare.model.Ride;
+import com.rideshare.model.RideEvent;
+import com.rideshare.model.RideEventRead;
 import com.rideshare.model.User;
 import com.rideshare.repository.NotificationRepository;
+import com.rideshare.repository.RideEventReadRepository;
+import com.rideshare.repository.RideEventRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,64 +38,228 @@ public class NotificationService {
     @Autowired
     private NotificationRepository notificationRepository;
     
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+    
+    @Autowired
+    private UnreadNotificationCounter unreadCounter;
+    
+    @Autowired
+    private RideEventRepository rideEventRepository;
+    
+    @Autowired
+    private RideEventReadRepository rideEventReadRepository;
+    
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
     
     @Autowired
-    private UserService userService;
+    private JdbcTemplate jdbcTemplate;
     
-    @Transactional
+    // Unread list is capped; the badge uses the counter for the full total
+    private static final int MAX_UNREAD_FETCH = 50;
+    
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    
+    private static final String INSERT_RIDE_EVENT_SQL =
+            "INSERT INTO ride_events (ride_id, type, message, created_at) VALUES (?, ?, ?, ?)";
+    
+    /**
+     * Queue a notification for batched persistence and WebSocket delivery.
+     * Inside a transaction it is only queued once that transaction commits.
+     */
     public void sendNotification(User recipient, String type, String message, Long relatedId) {
-        // 1. Save to Database
-        Notification notification = new Notification();
-        notification.setRecipient(recipient);
-        notification.setType(type);
-        notification.setMessage(message);
-        notification.setRelatedId(relatedId);
-        notification.setRead(false);
+        Long recipientId = recipient.getId();
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notificationDispatcher.enqueue(recipientId, type, message, relatedId);
+                }
+            });
+        } else {
+            notificationDispatcher.enqueue(recipientId, type, message, relatedId);
+        }
+    }
+    
+    /**
+     * Insert and push a group of notifications as one batch, on the caller's thread.
+     * For bulk jobs working over already-committed data.
+     */
+    public void sendNotificationBatch(List<NotificationDispatcher.PendingNotification> batch) {
+        notificationDispatcher.dispatchNow(batch);
+    }
+    
+    /**
+     * Publish a ride-wide update to every passenger booked on the ride.
+     * Stores one ride event and does one broker publish on /topic/ride/{rideId},
+     * instead of one notification row and frame per passenger.
+     */
+    @Transactional
+    public void broadcastToRide(Ride ride, String type, String message) {
+        RideEvent event = new RideEvent();
+        event.setRideId(ride.getId());
+        event.setType(type);
+        event.setMessage(message);
+        
+        RideEvent savedEvent = rideEventRepository.save(event);
+        RideEventResponse response = RideEventResponse.fromEntity(savedEvent);
+        String destination = "/topic/ride/" + ride.getId();
+        
+        // Publish only once the event is committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                messagingTemplate.convertAndSend(destination, response);
+            }
+        });
+    }
+    
+    /**
+     * Publish the same ride-wide update to many rides at once (used by bulk jobs).
+     * Events are inserted as one JDBC batch and published once the caller's transaction commits.
+     */
+    @Transactional
+    public void broadcastToRides(List<Long> rideIds, String type, String message) {
+        if (rideIds.isEmpty()) {
+            return;
+        }
+        
+        LocalDateTime createdAt = LocalDateTime.now();
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_RIDE_EVENT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, rideIds.get(i));
+                        ps.setString(2, type);
+                        ps.setString(3, message);
+                        ps.setTimestamp(4, Timestamp.valueOf(createdAt));
+                    }
+                    
+                    @Override
+                    public int getBatchSize() {
+                        return rideIds.size();
+                    }
+                },
+                keyHolder);
         
-        Notification savedNotification = notificationRepository.save(notification);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<RideEventResponse> responses = new ArrayList<>(rideIds.size());
+        for (int i = 0; i < rideIds.size(); i++) {
+            RideEvent event = new RideEvent();
+            event.setId(i < keys.size() ? ((Number) keys.get(i).values().iterator().next()).longValue() : null);
+            event.setRideId(rideIds.get(i));
+            event.setType(type);
+            event.setMessage(message);
+            event.setCreatedAt(createdAt);
+            responses.add(RideEventResponse.fromEntity(event));
+        }
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (RideEventResponse response : responses) {
+                    messagingTemplate.convertAndSend("/topic/ride/" + response.getRideId(), response);
+                }
+            }
+        });
+    }
+    
+    public List<RideEventResponse> getUnreadRideEvents() {
+        Long userId = userService.getCurrentUserId();
+        return rideEventRepository.findUnreadForPassenger(userId, PageRequest.of(0, MAX_UNREAD_FETCH))
+                .stream()
+                .map(RideEventResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+    
+    @Transactional
+    public void markRideEventAsRead(Long rideEventId) {
+        RideEvent event = rideEventRepository.findById(rideEventId)
+                .orElseThrow(() -> new RuntimeException("Notification not found"));
         
-        // 2. Push to WebSocket
-        // Convert to DTO to avoid infinite recursion issues with User entity
-        NotificationResponse response = NotificationResponse.fromEntity(savedNotification);
+        // Security check: only passengers the event was published to can read it
+        Long currentUserId = userService.getCurrentUserId();
+        if (!rideEventRepository.isVisibleToPassenger(event.getId(), currentUserId)) {
+            throw new RuntimeException("Unauthorized");
+        }
         
-        String destination = "/topic/user/" + recipient.getId();
-        messagingTemplate.convertAndSend(destination, response);
+        if (!rideEventReadRepository.existsByRideEventIdAndUserId(rideEventId, currentUserId)) {
+            RideEventRead read = new RideEventRead();
+            read.setRideEventId(rideEventId);
+            read.setUserId(currentUserId);
+            rideEventReadRepository.save(read);
+        }
     }
     
     public List<NotificationResponse> getUserUnreadNotifications() {
-        User user = userService.getCurrentUser();
-        List<Notification> notifications = notificationRepository.findByRecipientAndIsReadFalseOrderByCreatedAtDesc(user);
+        Long userId = userService.getCurrentUserId();
+        List<Notification> notifications = notificationRepository.findByRecipient_IdAndIsReadFalseOrderByIdDesc(
+                userId, PageRequest.of(0, MAX_UNREAD_FETCH));
         
         return notifications.stream()
                 .map(NotificationResponse::fromEntity)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Unread badge count, served from the in-memory counter
+     */
+    public long getUnreadCount() {
+        return unreadCounter.getUnreadCount(userService.getCurrentUserId());
+    }
+    
+    /**
+     * Notification history, newest first, using the id of the last item seen as the cursor
+     * @param beforeId Cursor from the previous page, or null for the first page
+     * @param size Page size
+     */
+    public Map<String, Object> getNotificationHistory(Long beforeId, int size) {
+        Long userId = userService.getCurrentUserId();
+        int pageSize = Math.min(Math.max(size, 1), MAX_HISTORY_PAGE_SIZE);
+        PageRequest limit = PageRequest.of(0, pageSize);
+        
+        List<Notification> page = beforeId == null
+                ? notificationRepository.findByRecipient_IdOrderByIdDesc(userId, limit)
+                : notificationRepository.findByRecipient_IdAndIdLessThanOrderByIdDesc(userId, beforeId, limit);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("items", page.stream()
+                .map(NotificationResponse::fromEntity)
+                .collect(Collectors.toList()));
+        result.put("nextCursor", page.size() == pageSize ? page.get(page.size() - 1).getId() : null);
+        return result;
+    }
+    
     @Transactional
     public void markAsRead(Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
         
         // Security check
-        User currentUser = userService.getCurrentUser();
-        if (!notification.getRecipient().getId().equals(currentUser.getId())) {
+        Long currentUserId = userService.getCurrentUserId();
+        if (!notification.getRecipient().getId().equals(currentUserId)) {
             throw new RuntimeException("Unauthorized");
         }
         
-        notification.setRead(true);
-        notificationRepository.save(notification);
+        if (!notification.isRead()) {
+            notification.setRead(true);
+            notificationRepository.save(notification);
+            unreadCounter.read(currentUserId);
+        }
     }
     
     @Transactional
     public void markAllAsRead() {
-        User user = userService.getCurrentUser();
-        List<Notification> unread = notificationRepository.findByRecipientAndIsReadFalseOrderByCreatedAtDesc(user);
-        
-        for (Notification n : unread) {
-            n.setRead(true);
-        }
-        notificationRepository.saveAll(unread);
+        Long userId = userService.getCurrentUserId();
+        notificationRepository.markAllAsReadForUser(userId);
+        rideEventReadRepository.markAllReadForPassenger(userId);
+        unreadCounter.allRead(userId);
     }
-}
\ No newline at end of file
+}
@@ -1,23 +1,26 @@
 package com.rideshare.service;
 
-import com.rideshare.model.OTP;
 import com.rideshare.model.User;
-import com.rideshare.repository.OTPRepository;
 import com.rideshare.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Random;
+import java.util.HexFormat;
 
 @Service
 public class OTPService {
     
+    private static final String HASH_ALGORITHM = "HmacSHA256";
+    
     @Autowired
-    private OTPRepository otpRepository;
+    private OTPStore otpStore;
     
     @Autowired
     private UserRepository userRepository;
@@ -28,71 +31,66 @@ public class OTPService {
     @Value("${otp.expiration}")
     private Long otpExpiration;
     
-    @Transactional
+    // Keyed hash so stored codes can't be brute-forced offline; shared by all nodes
+    @Value("${otp.hash-secret:${jwt.secret}}")
+    private String hashSecret;
+    
+    private final SecureRandom random = new SecureRandom();
+    
     public void generateAndSendOTP(String email) {
         // Check if user exists
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with this email"));
         
-        // Invalidate any existing OTPs for this email
-        List<OTP> existingOTPs = otpRepository.findByEmailAndVerifiedFalse(email);
-        otpRepository.deleteAll(existingOTPs);
-        
         // Generate 6-digit OTP
         String otpCode = generateOTPCode();
         
-        // Save OTP to database
-        OTP otp = new OTP();
-        otp.setEmail(email);
-        otp.setOtpCode(otpCode);
-        otp.setVerified(false);
-        otp.setExpiresAt(LocalDateTime.now().plusSeconds(otpExpiration / 1000));
-        otpRepository.save(otp);
+        // Replaces any existing OTP for this email
+        otpStore.save(email, hash(email, otpCode), LocalDateTime.now().plusSeconds(otpExpiration / 1000));
         
         // Send OTP via email
         emailService.sendOTPEmail(email, otpCode, user.getName());
     }
     
     public boolean verifyOTP(String email, String otpCode) {
-        OTP otp = otpRepository.findByEmailAndOtpCode(email, otpCode)
-                .orElseThrow(() -> new RuntimeException("Invalid OTP"));
-        
-        if (otp.getExpiresAt().isBefore(LocalDateTime.now())) {
-            throw new RuntimeException("OTP has expired. Please request a new one.");
-        }
-        
         // Don't mark as verified yet - just validate it exists and is not expired
+        checkResult(otpStore.verify(email, hash(email, otpCode), false));
         return true;
     }
     
-    @Transactional
     public boolean verifyAndConsumeOTP(String email, String otpCode) {
-        OTP otp = otpRepository.findByEmailAndOtpCode(email, otpCode)
-                .orElseThrow(() -> new RuntimeException("Invalid OTP"));
-        
-        if (otp.getExpiresAt().isBefore(LocalDateTime.now())) {
-            throw new RuntimeException("OTP has expired. Please request a new one.");
-        }
-        
-        if (otp.getVerified()) {
-            throw new RuntimeException("OTP has already been used");
-        }
-        
         // Mark as verified and used
-        otp.setVerified(true);
-        otpRepository.save(otp);
-        
+        checkResult(otpStore.verify(email, hash(email, otpCode), true));
         return true;
     }
     
+    private void checkResult(OTPStore.VerificationResult result) {
+        switch (result) {
+            case VALID:
+                return;
+            case EXPIRED:
+                throw new RuntimeException("OTP has expired. Please request a new one.");
+            case ALREADY_USED:
+                throw new RuntimeException("OTP has already been used");
+            case TOO_MANY_ATTEMPTS:
+                throw new RuntimeException("Too many incorrect attempts. Please try again later.");
+            default:
+                throw new RuntimeException("Invalid OTP");
+        }
+    }
+    
     private String generateOTPCode() {
-        Random random = new Random();
         int otp = 100000 + random.nextInt(900000);
         return String.valueOf(otp);
     }
     
-    @Transactional
-    public void cleanupExpiredOTPs() {
-        otpRepository.deleteByExpiresAtBefore(LocalDateTime.now());
+    private String hash(String email, String otpCode) {
+        try {
+            Mac mac = Mac.getInstance(HASH_ALGORITHM);
+            mac.init(new SecretKeySpec(hashSecret.getBytes(StandardCharsets.UTF_8), HASH_ALGORITHM));
+            return HexFormat.of().formatHex(mac.doFinal((email + ":" + otpCode).getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("OTP hashing unavailable", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.rideshare.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Storage for one-time login codes.
+ *
+ * Codes are handed over already hashed; a store never sees the plain code.
+ * Each email has at most one active code. Wrong guesses count against the
+ * email rather than the code, so requesting a new code doesn't reset them;
+ * the count clears when its window (otp.attempt-window-minutes) runs out or
+ * a code is consumed.
+ */
+public interface OTPStore {
+
+    enum VerificationResult {
+        VALID,
+        INVALID,
+        EXPIRED,
+        ALREADY_USED,
+        TOO_MANY_ATTEMPTS
+    }
+
+    /**
+     * Store a new code for the email, replacing any previous one; the email's attempt count carries over
+     */
+    void save(String email, String codeHash, LocalDateTime expiresAt);
+
+    /**
+     * Check a code for the email, counting a failed attempt when it doesn't match.
+     * With consume set, a valid code is marked as used and the email's attempt count cleared.
+     */
+    VerificationResult verify(String email, String codeHash, boolean consume);
+}
@@ -30,6 +30,12 @@ public class PaymentService {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private DashboardStatsSnapshot dashboardStats;
+    
+    @Autowired
+    private ActivityLogService activityLog;
+    
     @Value("${razorpay.key.id}")
     private String razorpayKeyId;
     
@@ -110,7 +116,10 @@ public class PaymentService {
         payment.setStatus("SUCCESS");
         payment.setCompletedAt(LocalDateTime.now());
         
-        return paymentRepository.save(payment);
+        Payment saved = paymentRepository.save(payment);
+        dashboardStats.paymentSucceeded(saved.getAmount(), saved.getPlatformCommission(), saved.getDriverEarnings());
+        activityLog.record("PAYMENT_SUCCESS", saved.getPassenger(), "₹" + saved.getAmount(), saved.getId());
+        return saved;
     }
     
     @Transactional
@@ -130,21 +139,21 @@ public class PaymentService {
     }
     
     public List<Payment> getPassengerPayments() {
-        User passenger = userService.getCurrentUser();
+        Long passengerId = userService.getCurrentUserId();
         // Updated to use _Id method
-        return paymentRepository.findByPassenger_IdOrderByCreatedAtDesc(passenger.getId());
+        return paymentRepository.findByPassenger_IdOrderByCreatedAtDesc(passengerId);
     }
     
     public List<Payment> getDriverEarnings() {
-        User driver = userService.getCurrentUser();
+        Long driverId = userService.getCurrentUserId();
         // Updated to use _Id method
-        return paymentRepository.findByDriver_IdAndStatusOrderByCreatedAtDesc(driver.getId(), "SUCCESS");
+        return paymentRepository.findByDriver_IdAndStatusOrderByCreatedAtDesc(driverId, "SUCCESS");
     }
     
     public List<Payment> getAllDriverPayments() {
-        User driver = userService.getCurrentUser();
+        Long driverId = userService.getCurrentUserId();
         // Updated to use _Id method
-        return paymentRepository.findByDriver_IdOrderByCreatedAtDesc(driver.getId());
+        return paymentRepository.findByDriver_IdOrderByCreatedAtDesc(driverId);
     }
     
     @Transactional
@@ -166,7 +175,10 @@ public class PaymentService {
         payment.setStatus("REFUNDED");
         payment.setRefundedAt(LocalDateTime.now());
         
-        return paymentRepository.save(payment);
+        Payment saved = paymentRepository.save(payment);
+        dashboardStats.paymentRefunded(saved.getAmount(), saved.getPlatformCommission(), saved.getDriverEarnings());
+        activityLog.record("PAYMENT_REFUNDED", saved.getPassenger(), "₹" + saved.getAmount(), saved.getId());
+        return saved;
     }
     
     public Double getTotalEarnings(User driver) {
@@ -0,0 +1,283 @@
+package com.rideshare.service;
+
+import com.rideshare.dto.ReportJobStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous report generation.
+ *
+ * A submitted report becomes a job whose sections run in parallel on a bounded
+ * pool; progress is kept for polling and pushed on /topic/admin/reports/{jobId},
+ * which only ADMIN sessions may subscribe to (StompAuthInterceptor).
+ * Finished reports are cached by (type, range) for a TTL, and a submit that
+ * matches a cached report or a job still in flight is answered by that instead
+ * of generating the same report again.
+ */
+@Service
+public class ReportJobService {
+
+    public static final String TOPIC_PREFIX = "/topic/admin/reports/";
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${report.jobs.pool-size:4}")
+    private int poolSize;
+
+    @Value("${report.jobs.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${report.jobs.cache-ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    // Finished jobs stay pollable for this long
+    @Value("${report.jobs.retention-minutes:30}")
+    private long retentionMinutes;
+
+    private final ConcurrentHashMap<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    // (type, range) -> job currently generating it or that last completed it
+    private final ConcurrentHashMap<String, ReportJob> jobsByKey = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        meterRegistry.gauge("report.jobs.queue.size", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("report.jobs.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start generating a report, or return the cached/in-flight job for the same report.
+     * Throws RejectedExecutionException when the pool is saturated.
+     */
+    public ReportJobStatus submit(String reportType, LocalDateTime startDate, LocalDateTime endDate) {
+        String type = reportType.toUpperCase();
+        List<String> sections = adminService.getReportSections(type);
+        String key = type + "|" + startDate + "|" + endDate;
+
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), type, startDate, endDate, sections.size());
+        ReportJob existing = jobsByKey.compute(key, (k, current) ->
+                current != null && !current.isFailed() && !current.isExpired() ? current : job);
+        if (existing != job) {
+            return existing.toStatus(existing.isDone());
+        }
+        jobs.put(job.id, job);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            for (String section : sections) {
+                CompletableFuture<Void> done = new CompletableFuture<>();
+                futures.add(done);
+                tasks.add(executor.submit(() -> {
+                    try {
+                        job.start();
+                        Map<String, Object> data = adminService.generateReportSection(section, startDate, endDate);
+                        job.sectionDone(section, data);
+                        publish(job);
+                        done.complete(null);
+                    } catch (Throwable t) {
+                        done.completeExceptionally(t);
+                    }
+                }));
+            }
+        } catch (RejectedExecutionException e) {
+            // Stop the sections already queued or running; the job is discarded
+            tasks.forEach(task -> task.cancel(true));
+            executor.purge();
+            jobsByKey.remove(key, job);
+            jobs.remove(job.id);
+            throw e;
+        }
+
+        CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new)).whenComplete((ignored, error) -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                job.fail(cause.getMessage());
+                jobsByKey.remove(key, job);
+            } else {
+                job.complete(adminService.assembleReport(type, startDate, endDate, job.sections),
+                        LocalDateTime.now().plusSeconds(cacheTtlSeconds));
+            }
+            publish(job);
+        });
+
+        return job.toStatus(false);
+    }
+
+    /**
+     * Current state of a job
+     */
+    public ReportJobStatus getStatus(String jobId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Report job not found");
+        }
+        return job.toStatus(false);
+    }
+
+    /**
+     * Synchronous report that still reuses a cached result for the same (type, range)
+     */
+    public Map<String, Object> generateNow(String reportType, LocalDateTime startDate, LocalDateTime endDate) {
+        String type = reportType.toUpperCase();
+        String key = type + "|" + startDate + "|" + endDate;
+        ReportJob cached = jobsByKey.get(key);
+        if (cached != null && cached.isDone() && !cached.isFailed() && !cached.isExpired()) {
+            return cached.result;
+        }
+
+        Map<String, Object> report = adminService.generateReport(reportType, startDate, endDate);
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), type, startDate, endDate, 0);
+        job.complete(report, LocalDateTime.now().plusSeconds(cacheTtlSeconds));
+        // Pollable like any other job, since a later submit for the same report returns its id
+        jobs.put(job.id, job);
+        // Never displace a job that is still generating the same report
+        ReportJob stored = jobsByKey.compute(key, (k, current) -> current != null && !current.isDone() ? current : job);
+        if (stored != job) {
+            jobs.remove(job.id);
+        }
+        return report;
+    }
+
+    /**
+     * Drop expired cache entries and finished jobs past their retention
+     * Runs every minute
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobsByKey.values().removeIf(job -> job.isDone() && job.isExpired());
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+    }
+
+    private void publish(ReportJob job) {
+        try {
+            // The result is only filled in on the final frame
+            messagingTemplate.convertAndSend(TOPIC_PREFIX + job.id, job.toStatus(false));
+        } catch (Exception e) {
+            System.err.println("Failed to push report job progress: " + e.getMessage());
+        }
+    }
+
+    private static class ReportJob {
+        final String id;
+        final String reportType;
+        final LocalDateTime startDate;
+        final LocalDateTime endDate;
+        final int totalSections;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+
+        final Map<String, Map<String, Object>> sections = new ConcurrentHashMap<>();
+        volatile String status = "QUEUED";
+        volatile Map<String, Object> result;
+        volatile String error;
+        volatile LocalDateTime completedAt;
+        volatile LocalDateTime expiresAt;
+
+        ReportJob(String id, String reportType, LocalDateTime startDate,
+                  LocalDateTime endDate, int totalSections) {
+            this.id = id;
+            this.reportType = reportType;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.totalSections = totalSections;
+        }
+
+        void start() {
+            if ("QUEUED".equals(status)) {
+                status = "RUNNING";
+            }
+        }
+
+        void sectionDone(String section, Map<String, Object> data) {
+            sections.put(section, data);
+        }
+
+        void complete(Map<String, Object> report, LocalDateTime expiresAt) {
+            this.result = report;
+            this.expiresAt = expiresAt;
+            this.completedAt = LocalDateTime.now();
+            this.status = "COMPLETED";
+        }
+
+        void fail(String message) {
+            this.error = message;
+            this.completedAt = LocalDateTime.now();
+            this.status = "FAILED";
+        }
+
+        boolean isDone() {
+            return "COMPLETED".equals(status) || "FAILED".equals(status);
+        }
+
+        boolean isFailed() {
+            return "FAILED".equals(status);
+        }
+
+        boolean isExpired() {
+            return expiresAt != null && expiresAt.isBefore(LocalDateTime.now());
+        }
+
+        ReportJobStatus toStatus(boolean cached) {
+            ReportJobStatus view = new ReportJobStatus();
+            view.setJobId(id);
+            view.setReportType(reportType);
+            view.setStartDate(startDate);
+            view.setEndDate(endDate);
+            view.setStatus(status);
+            view.setCompletedSections(sections.size());
+            view.setTotalSections(totalSections);
+            view.setProgress(totalSections == 0 ? 100 : sections.size() * 100 / totalSections);
+            view.setCached(cached);
+            view.setSubmittedAt(submittedAt);
+            view.setCompletedAt(completedAt);
+            view.setResult(result);
+            view.setError(error);
+            return view;
+        }
+    }
+}
@@ -28,6 +28,9 @@ public class ReviewService {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private UserDirectoryService userDirectoryService;
+    
     /**
      * Submit a review for a completed booking
      */
@@ -80,6 +83,7 @@ public class ReviewService {
         review.setReviewType(reviewType);
         
         Review savedReview = reviewRepository.save(review);
+        userDirectoryService.reviewAdded(reviewee.getId(), request.getRating());
         
         // Send notification to reviewee
         try {
@@ -150,7 +154,7 @@ public class ReviewService {
      * Check if user can review a booking
      */
     public boolean canReviewBooking(Long bookingId) {
-        User currentUser = userService.getCurrentUser();
+        Long currentUserId = userService.getCurrentUserId();
         
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
@@ -161,28 +165,28 @@ public class ReviewService {
         }
         
         // Check if user is part of the booking
-        boolean isPassenger = currentUser.getId().equals(booking.getPassenger().getId());
-        boolean isDriver = currentUser.getId().equals(booking.getRide().getDriver().getId());
+        boolean isPassenger = currentUserId.equals(booking.getPassenger().getId());
+        boolean isDriver = currentUserId.equals(booking.getRide().getDriver().getId());
         
         if (!isPassenger && !isDriver) {
             return false;
         }
         
         // Check if user already reviewed
-        return !reviewRepository.existsByBookingIdAndReviewerId(bookingId, currentUser.getId());
+        return !reviewRepository.existsByBookingIdAndReviewerId(bookingId, currentUserId);
     }
     
     /**
      * Get pending reviews for current user (bookings they can review)
      */
     public List<Booking> getPendingReviews() {
-        User currentUser = userService.getCurrentUser();
+        Long currentUserId = userService.getCurrentUserId();
         List<Booking> bookings;
         
-        if (currentUser.getRole() == Role.DRIVER) {
-            bookings = bookingRepository.findByRideDriverOrderByBookingTimeDesc(currentUser);
+        if (userService.getCurrentUserRole() == Role.DRIVER) {
+            bookings = bookingRepository.findByRide_Driver_IdOrderByBookingTimeDesc(currentUserId);
         } else {
-            bookings = bookingRepository.findByPassengerOrderByBookingTimeDesc(currentUser);
+            bookings = bookingRepository.findByPassenger_IdOrderByBookingTimeDesc(currentUserId);
         }
         
         // Filter: only completed bookings that haven't been reviewed yet
@@ -190,7 +194,7 @@ public class ReviewService {
                 .filter(b -> "COMPLETED".equals(b.getStatus()))
                 .filter(b -> "COMPLETED".equals(b.getRide().getStatus()))
                 .filter(b -> !reviewRepository.existsByBookingIdAndReviewerId(
-                        b.getId(), currentUser.getId()))
+                        b.getId(), currentUserId))
                 .toList();
     }
 }
\ No newline at end of file
@@ -3,20 +3,26 @@ package com.rideshare.service;
 import com.rideshare.model.Booking;
 import com.rideshare.model.Ride;
 import com.rideshare.repository.BookingRepository;
-import com.rideshare.repository.RideRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class RideReminderScheduler {
     
-    @Autowired
-    private RideRepository rideRepository;
-    
     @Autowired
     private BookingRepository bookingRepository;
     
@@ -26,50 +32,68 @@ public class RideReminderScheduler {
     @Autowired
     private EmailService emailService;
     
+    @Autowired
+    private UserPresenceTracker presenceTracker;
+    
+    @Autowired
+    private JobLeaseService jobLeaseService;
+    
+    @Autowired
+    private ClusterMembership clusterMembership;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Bookings per notification batch in the review reminder job
+    @Value("${reminder.review.chunk-size:250}")
+    private int reviewChunkSize;
+    
+    private TransactionTemplate readOnlyTransaction;
+    
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+    
     /**
-     * Send ride reminders 2 hours before departure
-     * Runs every 15 minutes
+     * Send the 2-hour departure reminders for a ride
+     * Called by RideReminderService when the reminder falls due
+     * @param startsIn Time left before departure as shown to users, e.g. "2 hours"
      */
-    @Scheduled(cron = "0 */15 * * * *")
-    public void sendRideReminders() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime twoHoursLater = now.plusHours(2);
-        LocalDateTime twoHours15MinLater = now.plusHours(2).plusMinutes(15);
-        
-        // Find rides departing in the next 2 hours (within 15-minute window)
-        List<Ride> upcomingRides = rideRepository.findByStatusAndDepartureDateTimeBetween(
-                "ACTIVE", twoHoursLater, twoHours15MinLater);
-        
-        for (Ride ride : upcomingRides) {
-            try {
-                // Send reminder to driver
-                sendDriverReminder(ride);
-                
-                // Send reminders to all passengers
-                List<Booking> bookings = bookingRepository.findByRide(ride);
-                for (Booking booking : bookings) {
-                    if ("CONFIRMED".equals(booking.getStatus())) {
-                        sendPassengerReminder(booking);
-                    }
-                }
-                
-                System.out.println("Sent reminders for ride #" + ride.getId() + 
-                                 " from " + ride.getSource() + " to " + ride.getDestination());
-            } catch (Exception e) {
-                System.err.println("Failed to send reminders for ride #" + ride.getId() + 
-                                 ": " + e.getMessage());
+    public void sendRideReminders(Ride ride, String startsIn) {
+        try {
+            // Send reminder to driver
+            sendDriverReminder(ride, startsIn);
+            
+            // Send reminders to all passengers
+            List<Booking> bookings = bookingRepository.findByRide(ride).stream()
+                    .filter(b -> "CONFIRMED".equals(b.getStatus()))
+                    .toList();
+            if (!bookings.isEmpty()) {
+                sendPassengerReminder(ride, bookings, startsIn);
             }
+            
+            System.out.println("Sent reminders for ride #" + ride.getId() + 
+                             " from " + ride.getSource() + " to " + ride.getDestination());
+        } catch (Exception e) {
+            System.err.println("Failed to send reminders for ride #" + ride.getId() + 
+                             ": " + e.getMessage());
         }
     }
     
-    private void sendDriverReminder(Ride ride) {
+    private void sendDriverReminder(Ride ride, String startsIn) {
         try {
             // In-app notification
             String message = String.format(
-                "⏰ Reminder: Your ride from %s to %s starts in 2 hours! " +
+                "⏰ Reminder: Your ride from %s to %s starts in %s! " +
                 "Make sure your vehicle is ready and arrive on time.",
                 ride.getSource(),
-                ride.getDestination()
+                ride.getDestination(),
+                startsIn
             );
             
             notificationService.sendNotification(
@@ -79,38 +103,43 @@ public class RideReminderScheduler {
                 ride.getId()
             );
             
-            // Email notification
-            emailService.sendRideReminderToDriver(ride);
+            // Email notification, only when the driver isn't connected
+            if (presenceTracker.shouldEmail(ride.getDriver().getId())) {
+                emailService.sendRideReminderToDriver(ride, startsIn);
+            }
             
         } catch (Exception e) {
             System.err.println("Failed to send driver reminder: " + e.getMessage());
         }
     }
     
-    private void sendPassengerReminder(Booking booking) {
+    private void sendPassengerReminder(Ride ride, List<Booking> bookings, String startsIn) {
         try {
-            // In-app notification
+            // In-app notification, published once on the ride topic
             String message = String.format(
-                "⏰ Your ride from %s to %s starts in 2 hours! " +
-                "Be ready at your pickup location: %s",
-                booking.getRide().getSource(),
-                booking.getRide().getDestination(),
-                booking.getPickupLocation()
-            );
-            
-            notificationService.sendNotification(
-                booking.getPassenger(),
-                "RIDE_REMINDER",
-                message,
-                booking.getId()
+                "⏰ Your ride from %s to %s starts in %s! " +
+                "Be ready at your pickup location.",
+                ride.getSource(),
+                ride.getDestination(),
+                startsIn
             );
             
-            // Email notification
-            emailService.sendRideReminderToPassenger(booking);
-            
+            notificationService.broadcastToRide(ride, "RIDE_REMINDER", message);
         } catch (Exception e) {
             System.err.println("Failed to send passenger reminder: " + e.getMessage());
         }
+        
+        // Email notification carries each passenger's own pickup details
+        for (Booking booking : bookings) {
+            if (!presenceTracker.shouldEmail(booking.getPassenger().getId())) {
+                continue;
+            }
+            try {
+                emailService.sendRideReminderToPassenger(booking, startsIn);
+            } catch (Exception e) {
+                System.err.println("Failed to send passenger reminder email: " + e.getMessage());
+            }
+        }
     }
     
     /**
@@ -119,67 +148,87 @@ public class RideReminderScheduler {
      */
     @Scheduled(cron = "0 0 9 * * *")
     public void sendReviewReminders() {
+        if (clusterMembership.isPartitioningEnabled()) {
+            if (!clusterMembership.hasPartition()) {
+                System.out.println("Skipping review reminders: node is not in the live cluster view");
+                return;
+            }
+            // Every node reminds for its own share of rides
+            sendReviewRemindersForOwnedRides();
+        } else {
+            jobLeaseService.runWithLease("review-reminders", Duration.ofHours(1), Duration.ofMinutes(5),
+                    this::sendReviewRemindersForOwnedRides);
+        }
+    }
+    
+    private void sendReviewRemindersForOwnedRides() {
         LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
         LocalDateTime twoDaysAgo = LocalDateTime.now().minusDays(2);
         
-        // Find rides completed in the last 24 hours
-        List<Ride> completedRides = rideRepository.findByStatusAndDepartureDateTimeBetween(
-                "COMPLETED", twoDaysAgo, yesterday);
+        // With partitioning, only this node's share of ride ids
+        long nodeCount = clusterMembership.isPartitioningEnabled() ? clusterMembership.getNodeCount() : 1;
+        long nodeIndex = clusterMembership.isPartitioningEnabled() ? clusterMembership.getNodeIndex() : 0;
+        if (nodeIndex < 0) {
+            // Dropped out of the live view since the run started
+            return;
+        }
         
-        for (Ride ride : completedRides) {
-            try {
-                List<Booking> bookings = bookingRepository.findByRide(ride);
-                
-                for (Booking booking : bookings) {
-                    if ("COMPLETED".equals(booking.getStatus())) {
-                        // Send review reminder to passenger
-                        sendReviewReminderToPassenger(booking);
-                        
-                        // Send review reminder to driver
-                        sendReviewReminderToDriver(booking);
+        // Rides completed in the last 24 hours, streamed booking by booking so memory
+        // stays at one chunk however many rides there were
+        Integer sent = readOnlyTransaction.execute(status -> {
+            int count = 0;
+            List<NotificationDispatcher.PendingNotification> chunk = new ArrayList<>(reviewChunkSize * 2);
+            
+            try (Stream<Booking> bookings = bookingRepository.streamCompletedForReviewReminder(
+                    twoDaysAgo, yesterday, nodeCount, nodeIndex)) {
+                Iterator<Booking> iterator = bookings.iterator();
+                while (iterator.hasNext()) {
+                    Booking booking = iterator.next();
+                    // Send review reminder to passenger and driver
+                    chunk.add(reviewReminderToPassenger(booking));
+                    chunk.add(reviewReminderToDriver(booking));
+                    count++;
+                    
+                    if (count % reviewChunkSize == 0) {
+                        flushReviewReminders(chunk);
                     }
                 }
-                
-            } catch (Exception e) {
-                System.err.println("Failed to send review reminders for ride #" + 
-                                 ride.getId() + ": " + e.getMessage());
             }
+            flushReviewReminders(chunk);
+            return count;
+        });
+        
+        if (sent != null && sent > 0) {
+            System.out.println("Sent review reminders for " + sent + " completed bookings");
         }
     }
     
-    private void sendReviewReminderToPassenger(Booking booking) {
+    private void flushReviewReminders(List<NotificationDispatcher.PendingNotification> chunk) {
         try {
-            String message = String.format(
-                "How was your ride with %s? Share your experience and help other passengers!",
-                booking.getRide().getDriver().getName()
-            );
-            
-            notificationService.sendNotification(
-                booking.getPassenger(),
-                "REVIEW_REMINDER",
-                message,
-                booking.getId()
-            );
+            notificationService.sendNotificationBatch(chunk);
         } catch (Exception e) {
-            System.err.println("Failed to send passenger review reminder: " + e.getMessage());
+            System.err.println("Failed to send review reminder batch: " + e.getMessage());
         }
+        chunk.clear();
+        // Streamed entities are done with; keep the persistence context from growing
+        entityManager.clear();
     }
     
-    private void sendReviewReminderToDriver(Booking booking) {
-        try {
-            String message = String.format(
-                "Please rate your passenger %s for the completed ride.",
-                booking.getPassenger().getName()
-            );
-            
-            notificationService.sendNotification(
-                booking.getRide().getDriver(),
-                "REVIEW_REMINDER",
-                message,
-                booking.getId()
-            );
-        } catch (Exception e) {
-            System.err.println("Failed to send driver review reminder: " + e.getMessage());
-        }
+    private NotificationDispatcher.PendingNotification reviewReminderToPassenger(Booking booking) {
+        String message = String.format(
+            "How was your ride with %s? Share your experience and help other passengers!",
+            booking.getRide().getDriver().getName()
+        );
+        return new NotificationDispatcher.PendingNotification(
+            booking.getPassenger().getId(), "REVIEW_REMINDER", message, booking.getId());
+    }
+    
+    private NotificationDispatcher.PendingNotification reviewReminderToDriver(Booking booking) {
+        String message = String.format(
+            "Please rate your passenger %s for the completed ride.",
+            booking.getPassenger().getName()
+        );
+        return new NotificationDispatcher.PendingNotification(
+            booking.getRide().getDriver().getId(), "REVIEW_REMINDER", message, booking.getId());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,294 @@
+package com.rideshare.service;
+
+import com.rideshare.model.Ride;
+import com.rideshare.model.RideReminder;
+import com.rideshare.repository.RideReminderRepository;
+import com.rideshare.repository.RideRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event-driven ride reminders.
+ *
+ * Every active ride gets one persisted reminder row per reminder type, and each
+ * pending row sits in an in-memory timing wheel keyed by its id. The wheel fires
+ * the reminder at its due time instead of a poller scanning departure windows.
+ * A reminder is claimed in the database before it is sent and only marked
+ * delivered once the send succeeded. A failed send releases the claim, and a
+ * claim left by a node that died mid-send goes stale, so the next sync picks the
+ * reminder up again: reminders are not lost, at the cost of a rare duplicate.
+ * A reminder found late (after downtime) is still sent, worded from the time
+ * actually left, and only dropped once the ride has departed.
+ *
+ * The wheel is driven by its own thread so reminders go out on time however
+ * long the shared scheduled jobs run.
+ *
+ * In a cluster every node periodically pulls reminders due soon, and the claim
+ * makes sure only one sends. With partitioning enabled the node owning the ride
+ * goes first and the others only step in after a failover delay.
+ */
+@Service
+public class RideReminderService {
+
+    public static final String DEPARTURE_2H = "DEPARTURE_2H";
+    public static final String DRIVER_1H = "DRIVER_1H";
+
+    // How long before departure each reminder fires
+    private static final Map<String, Duration> LEAD_TIMES = new LinkedHashMap<>();
+
+    static {
+        LEAD_TIMES.put(DEPARTURE_2H, Duration.ofHours(2));
+        LEAD_TIMES.put(DRIVER_1H, Duration.ofHours(1));
+    }
+
+    // 64 slots per level, 4 levels of 1s ticks cover about 194 days before overflow
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+
+    @Autowired
+    private RideReminderRepository reminderRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private RideReminderScheduler rideReminderScheduler;
+
+    @Autowired
+    private RideStatusScheduler rideStatusScheduler;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClusterMembership clusterMembership;
+
+    @Value("${reminder.wheel.tick-ms:1000}")
+    private long tickMillis;
+
+    // How long non-owning nodes wait before delivering a reminder the owner hasn't sent
+    @Value("${reminder.failover-delay-ms:60000}")
+    private long failoverDelayMs;
+
+    @Value("${reminder.sync-ms:300000}")
+    private long syncIntervalMs;
+
+    // A claim older than this belongs to a node that died mid-send; keep it below the sync interval
+    @Value("${reminder.claim-timeout-ms:120000}")
+    private long claimTimeoutMs;
+
+    private HierarchicalTimingWheel<Long, Long> wheel;
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        wheel = new HierarchicalTimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Rebuild the wheel from the database on startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        // Upcoming rides posted before reminder rows existed get theirs now
+        for (Ride ride : rideRepository.findActiveRidesWithoutReminders(LocalDateTime.now())) {
+            transactionTemplate.executeWithoutResult(status -> scheduleReminders(ride));
+        }
+
+        List<RideReminder> pending = reminderRepository.findPendingForActiveRides();
+        pending.forEach(this::enqueue);
+        System.out.println("Reminder wheel rebuilt with " + pending.size() + " pending reminders");
+    }
+
+    /**
+     * Create or move the reminders of a ride after it is posted or updated.
+     * Rows are written in the caller's transaction and enqueued once it commits.
+     */
+    @Transactional
+    public void scheduleReminders(Ride ride) {
+        Map<String, RideReminder> existing = new LinkedHashMap<>();
+        for (RideReminder reminder : reminderRepository.findByRideId(ride.getId())) {
+            existing.put(reminder.getReminderType(), reminder);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<RideReminder> toEnqueue = new ArrayList<>();
+
+        for (Map.Entry<String, Duration> entry : LEAD_TIMES.entrySet()) {
+            LocalDateTime dueAt = ride.getDepartureDateTime().minus(entry.getValue());
+            RideReminder reminder = existing.get(entry.getKey());
+
+            if (reminder == null) {
+                reminder = new RideReminder();
+                reminder.setRideId(ride.getId());
+                reminder.setReminderType(entry.getKey());
+            } else if (dueAt.equals(reminder.getDueAt())) {
+                if (reminder.getDeliveredAt() == null) {
+                    toEnqueue.add(reminder);
+                }
+                continue;
+            } else if (dueAt.isAfter(now)) {
+                // Departure moved: remind again for the new time
+                reminder.setDeliveredAt(null);
+                reminder.setClaimedAt(null);
+            }
+
+            reminder.setDueAt(dueAt);
+            RideReminder saved = reminderRepository.save(reminder);
+            if (saved.getDeliveredAt() == null) {
+                toEnqueue.add(saved);
+            }
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                toEnqueue.forEach(RideReminderService.this::enqueue);
+            }
+        });
+    }
+
+    /**
+     * Pull reminders due within the next two sync intervals, including those
+     * created on other nodes. Rescheduling a key already in the wheel just replaces it.
+     * Runs every 5 minutes
+     */
+    @Scheduled(fixedRateString = "${reminder.sync-ms:300000}", initialDelayString = "${reminder.sync-ms:300000}")
+    public void syncUpcoming() {
+        LocalDateTime horizon = LocalDateTime.now().plusNanos(syncIntervalMs * 2 * 1_000_000);
+        reminderRepository.findByDeliveredAtIsNullAndDueAtBefore(horizon).forEach(this::enqueue);
+    }
+
+    /**
+     * Advance the wheel and deliver whatever fell due
+     * Runs every tick on the reminder-wheel thread
+     */
+    void tick() {
+        for (Long reminderId : wheel.advance(System.currentTimeMillis())) {
+            try {
+                deliver(reminderId);
+            } catch (Exception e) {
+                System.err.println("Failed to deliver reminder #" + reminderId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void enqueue(RideReminder reminder) {
+        long dueMillis = toEpochMillis(reminder.getDueAt());
+        if (!clusterMembership.ownsRide(reminder.getRideId())) {
+            dueMillis += failoverDelayMs;
+        }
+        // Overdue reminders fire on the next tick rather than on the caller's thread
+        wheel.schedule(reminder.getId(), Math.max(dueMillis, System.currentTimeMillis() + tickMillis),
+                reminder.getId());
+    }
+
+    private void deliver(Long reminderId) {
+        RideReminder reminder = reminderRepository.findById(reminderId).orElse(null);
+        if (reminder == null || reminder.getDeliveredAt() != null) {
+            return;
+        }
+
+        // Claim first so only one node sends; the claim expires if this node dies before finishing
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> reminderRepository.claim(
+                reminderId, now, now.minusNanos(claimTimeoutMs * 1_000_000)));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+
+        Ride ride = rideRepository.findById(reminder.getRideId()).orElse(null);
+        if (ride == null || !"ACTIVE".equals(ride.getStatus())) {
+            markDelivered(reminderId);
+            return;
+        }
+
+        // A late reminder is still worth sending until the ride leaves
+        Duration remaining = Duration.between(now, ride.getDepartureDateTime());
+        if (remaining.isNegative() || remaining.isZero()) {
+            System.out.println("Skipped " + reminder.getReminderType() + " reminder for departed ride #" + ride.getId());
+            markDelivered(reminderId);
+            return;
+        }
+
+        String startsIn = describeTimeLeft(remaining);
+        try {
+            if (DEPARTURE_2H.equals(reminder.getReminderType())) {
+                rideReminderScheduler.sendRideReminders(ride, startsIn);
+            } else if (DRIVER_1H.equals(reminder.getReminderType())) {
+                rideStatusScheduler.sendUpcomingRideReminder(ride, startsIn);
+            }
+        } catch (RuntimeException e) {
+            transactionTemplate.execute(status -> reminderRepository.releaseClaim(reminderId));
+            throw e;
+        }
+        markDelivered(reminderId);
+    }
+
+    private void markDelivered(Long reminderId) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.execute(status -> reminderRepository.markDelivered(reminderId, now));
+    }
+
+    /**
+     * Time left before departure as shown in reminders, e.g. "2 hours" or "1 hour 15 minutes".
+     * Rounded to the nearest minute so a reminder fired a few seconds late still reads "2 hours".
+     */
+    static String describeTimeLeft(Duration remaining) {
+        long minutes = Math.max(1, Math.round(remaining.getSeconds() / 60.0));
+        long hours = minutes / 60;
+        minutes %= 60;
+
+        StringBuilder text = new StringBuilder();
+        if (hours > 0) {
+            text.append(hours).append(hours == 1 ? " hour" : " hours");
+        }
+        if (minutes > 0) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(minutes).append(minutes == 1 ? " minute" : " minutes");
+        }
+        return text.toString();
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -40,6 +40,24 @@ public class RideService {
     @Autowired
     private ReviewRepository reviewRepository;
 
+    @Autowired
+    private DistanceCalculationService distanceCalculationService;
+
+    @Autowired
+    private FareCalculationService fareCalculationService;
+
+    @Autowired
+    private DemandSupplyAggregator demandSupplyAggregator;
+
+    @Autowired
+    private RideReminderService rideReminderService;
+    
+    @Autowired
+    private DashboardStatsSnapshot dashboardStats;
+    
+    @Autowired
+    private ActivityLogService activityLog;
+
     // Helper method to populate driver rating
     private void populateDriverRating(RideResponse response) {
         if (response.getDriver() != null) {
@@ -66,18 +84,26 @@ public class RideService {
         ride.setStatus("ACTIVE");
         
         Ride savedRide = rideRepository.save(ride);
+        demandSupplyAggregator.recordSeatsOffered(savedRide.getSource(), savedRide.getAvailableSeats());
+        rideReminderService.scheduleReminders(savedRide);
+        dashboardStats.ridePosted();
+        activityLog.record("RIDE_CREATED", driver,
+                savedRide.getSource() + " → " + savedRide.getDestination(), savedRide.getId());
         return RideResponse.fromRide(savedRide);
     }
     
     public RideResponse updateRide(Long id, RideRequest request) {
-        User currentUser = userService.getCurrentUser();
+        Long currentUserId = userService.getCurrentUserId();
         Ride ride = rideRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Ride not found"));
 
-        if (!ride.getDriver().getId().equals(currentUser.getId())) {
+        if (!ride.getDriver().getId().equals(currentUserId)) {
             throw new RuntimeException("You are not authorized to edit this ride");
         }
 
+        String previousSource = ride.getSource();
+        int previousSeats = ride.getAvailableSeats();
+
         ride.setSource(request.getSource());
         ride.setDestination(request.getDestination());
         ride.setDepartureDateTime(request.getDepartureDateTime());
@@ -86,28 +112,39 @@ public class RideService {
         ride.setPricePerKm(request.getPricePerKm());
         
         Ride updatedRide = rideRepository.save(ride);
+        if ("ACTIVE".equals(updatedRide.getStatus())) {
+            demandSupplyAggregator.recordSeatsWithdrawn(previousSource, previousSeats);
+            demandSupplyAggregator.recordSeatsOffered(updatedRide.getSource(), updatedRide.getAvailableSeats());
+        }
+        rideReminderService.scheduleReminders(updatedRide);
         return RideResponse.fromRide(updatedRide);
     }
 
     public void deleteRide(Long id) {
-        User currentUser = userService.getCurrentUser();
+        Long currentUserId = userService.getCurrentUserId();
         Ride ride = rideRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Ride not found"));
 
-        if (!ride.getDriver().getId().equals(currentUser.getId())) {
+        if (!ride.getDriver().getId().equals(currentUserId)) {
             throw new RuntimeException("You are not authorized to delete this ride");
         }
 
         rideRepository.delete(ride);
+        dashboardStats.rideDeleted(ride.getStatus());
+        if ("ACTIVE".equals(ride.getStatus())) {
+            demandSupplyAggregator.recordSeatsWithdrawn(ride.getSource(), ride.getAvailableSeats());
+        }
+        activityLog.record("RIDE_DELETED", ride.getDriver(),
+                ride.getSource() + " → " + ride.getDestination(), ride.getId());
     }
     
     @Transactional
     public RideResponse completeRide(Long id) {
-        User currentUser = userService.getCurrentUser();
+        Long currentUserId = userService.getCurrentUserId();
         Ride ride = rideRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Ride not found"));
 
-        if (!ride.getDriver().getId().equals(currentUser.getId())) {
+        if (!ride.getDriver().getId().equals(currentUserId)) {
             throw new RuntimeException("You are not authorized to complete this ride");
         }
         
@@ -117,23 +154,32 @@ public class RideService {
 
         ride.setStatus("COMPLETED");
         Ride completedRide = rideRepository.save(ride);
+        dashboardStats.ridesMoved("ACTIVE", "COMPLETED", 1);
+        demandSupplyAggregator.recordSeatsWithdrawn(ride.getSource(), ride.getAvailableSeats());
+        activityLog.record("RIDE_COMPLETED", ride.getDriver(),
+                ride.getSource() + " → " + ride.getDestination(), ride.getId());
         
         List<Booking> bookings = bookingRepository.findByRide(ride);
+        int completed = 0;
         for (Booking booking : bookings) {
             if ("CONFIRMED".equals(booking.getStatus())) {
                 booking.setStatus("COMPLETED");
                 bookingRepository.save(booking);
-                
-                try {
-                    notificationService.sendNotification(
-                        booking.getPassenger(),
-                        "RIDE_COMPLETED",
-                        "Your ride has arrived! Please rate your experience.",
-                        ride.getId()
-                    );
-                } catch (Exception e) {
-                    System.err.println("Failed to notify passenger: " + e.getMessage());
-                }
+                completed++;
+            }
+        }
+        dashboardStats.bookingsMoved("CONFIRMED", "COMPLETED", completed);
+        
+        // One ride-wide event instead of a notification per passenger
+        if (completed > 0) {
+            try {
+                notificationService.broadcastToRide(
+                    ride,
+                    "RIDE_COMPLETED",
+                    "Your ride has arrived! Please rate your experience."
+                );
+            } catch (Exception e) {
+                System.err.println("Failed to notify passengers: " + e.getMessage());
             }
         }
         
@@ -141,11 +187,11 @@ public class RideService {
     }
     
     public RideResponse cancelRide(Long id) {
-        User currentUser = userService.getCurrentUser();
+        Long currentUserId = userService.getCurrentUserId();
         Ride ride = rideRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Ride not found"));
 
-        if (!ride.getDriver().getId().equals(currentUser.getId())) {
+        if (!ride.getDriver().getId().equals(currentUserId)) {
             throw new RuntimeException("You are not authorized to cancel this ride");
         }
         
@@ -155,24 +201,34 @@ public class RideService {
 
         ride.setStatus("CANCELLED");
         Ride cancelledRide = rideRepository.save(ride);
+        dashboardStats.ridesMoved("ACTIVE", "CANCELLED", 1);
+        demandSupplyAggregator.recordSeatsWithdrawn(ride.getSource(), ride.getAvailableSeats());
+        activityLog.record("RIDE_CANCELLED", ride.getDriver(),
+                ride.getSource() + " → " + ride.getDestination(), ride.getId());
         
         List<Booking> bookings = bookingRepository.findByRide(ride);
         
-        for (Booking booking : bookings) {
+        if (!bookings.isEmpty()) {
             try {
-                notificationService.sendNotification(
-                    booking.getPassenger(),
+                notificationService.broadcastToRide(
+                    ride,
                     "RIDE_CANCELLED",
-                    "Alert: Your ride from " + ride.getSource() + " to " + ride.getDestination() + " has been cancelled by the driver.",
-                    ride.getId()
+                    "Alert: Your ride from " + ride.getSource() + " to " + ride.getDestination() + " has been cancelled by the driver."
                 );
             } catch (Exception e) {
-                System.err.println("Failed to notify passenger: " + e.getMessage());
+                System.err.println("Failed to notify passengers: " + e.getMessage());
+            }
+        }
+        
+        int cancelled = 0;
+        for (Booking booking : bookings) {
+            if ("CONFIRMED".equals(booking.getStatus())) {
+                cancelled++;
             }
-            
             booking.setStatus("CANCELLED");
             bookingRepository.save(booking);
         }
+        dashboardStats.bookingsMoved("CONFIRMED", "CANCELLED", cancelled);
         
         return RideResponse.fromRide(cancelledRide);
     }
@@ -189,6 +245,8 @@ public class RideService {
             endDateTime = startDateTime.plusYears(100); 
         }
         
+        demandSupplyAggregator.recordSearch(source);
+        
         List<Ride> allRides = rideRepository.searchRides(source, destination, startDateTime, endDateTime);
         
         List<RouteMatchingService.RideMatch> matches = 
@@ -212,12 +270,50 @@ public class RideService {
             responses.add(response);
         }
         
+        populateFareEstimates(matches, responses, source, destination);
+        
         return responses;
     }
     
+    /**
+     * Attach a one-seat fare estimate to every search result in a single bulk pass.
+     * The passenger's trip distance is the same for every candidate, so it is looked up once.
+     */
+    private void populateFareEstimates(List<RouteMatchingService.RideMatch> matches,
+                                       List<RideResponse> responses,
+                                       String source, String destination) {
+        if (matches.isEmpty()) {
+            return;
+        }
+        
+        double tripDistanceKm;
+        try {
+            tripDistanceKm = distanceCalculationService.calculateDistance(
+                    source, destination, GeoApiRateLimiter.Priority.SEARCH_ENRICHMENT);
+        } catch (Exception e) {
+            System.err.println("Skipping fare estimates for search: " + e.getMessage());
+            return;
+        }
+        
+        int count = matches.size();
+        double[] distancesKm = new double[count];
+        double[] pricesPerKm = new double[count];
+        for (int i = 0; i < count; i++) {
+            distancesKm[i] = tripDistanceKm;
+            Double pricePerKm = matches.get(i).getRide().getPricePerKm();
+            pricesPerKm[i] = pricePerKm != null ? pricePerKm : 0.0;
+        }
+        
+        double[] fares = fareCalculationService.calculateFares(distancesKm, pricesPerKm, 1, source);
+        for (int i = 0; i < count; i++) {
+            responses.get(i).setEstimatedDistanceKm(tripDistanceKm);
+            responses.get(i).setEstimatedFare(fares[i]);
+        }
+    }
+    
     public List<RideResponse> getDriverRides() {
-        User driver = userService.getCurrentUser();
-        List<Ride> rides = rideRepository.findByDriverOrderByDepartureDateTimeDesc(driver);
+        Long driverId = userService.getCurrentUserId();
+        List<Ride> rides = rideRepository.findByDriver_IdOrderByDepartureDateTimeDesc(driverId);
         // Note: We don't necessarily need to populate the driver's own rating for their own dashboard view of rides,
         // but if needed, we can add it here.
         return rides.stream().map(RideResponse::fromRide).collect(Collectors.toList());
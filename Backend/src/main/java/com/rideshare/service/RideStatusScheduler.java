@@ -1,65 +1,221 @@
 package com.rideshare.service;
 
 import com.rideshare.model.Ride;
-import com.rideshare.repository.RideRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class RideStatusScheduler {
     
+    private static final String SELECT_EXPIRED_CHUNK =
+            "SELECT id FROM rides WHERE status = 'ACTIVE' AND departure_date_time < :cutoff " +
+            "ORDER BY id LIMIT :limit";
+    
+    // Same, restricted to the ride ids this node owns
+    private static final String SELECT_EXPIRED_PARTITION_CHUNK =
+            "SELECT id FROM rides WHERE status = 'ACTIVE' AND departure_date_time < :cutoff " +
+            "AND MOD(id, :nodeCount) = :nodeIndex ORDER BY id LIMIT :limit";
+    
+    private static final String COMPLETE_RIDES =
+            "UPDATE rides SET status = 'COMPLETED', updated_at = :now WHERE id IN (:ids) AND status = 'ACTIVE'";
+    
+    private static final String SELECT_RIDES_WITH_PASSENGERS =
+            "SELECT DISTINCT ride_id FROM bookings WHERE ride_id IN (:ids) AND status = 'CONFIRMED'";
+    
+    private static final String COMPLETE_BOOKINGS =
+            "UPDATE bookings SET status = 'COMPLETED', updated_at = :now WHERE ride_id IN (:ids) AND status = 'CONFIRMED'";
+    
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private JobLeaseService jobLeaseService;
+    
+    @Autowired
+    private ClusterMembership clusterMembership;
+    
+    @Autowired
+    private DashboardStatsSnapshot dashboardStats;
+    
+    @Autowired
+    private ActivityLogService activityLog;
+    
     @Autowired
-    private RideRepository rideRepository;
+    private EmailService emailService;
+    
+    @Autowired
+    private UserPresenceTracker presenceTracker;
+    
+    @Value("${ride.auto-complete.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${ride.auto-complete.chunk-pause-ms:50}")
+    private long chunkPauseMs;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    private Counter ridesCompleted;
+    private Counter bookingsCompleted;
+    private Counter chunksProcessed;
+    
+    // Rides completed so far by the run in progress (0 when idle)
+    private final AtomicLong currentRunProgress = new AtomicLong();
+    
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        
+        ridesCompleted = Counter.builder("rides.autocomplete.rides")
+                .description("Rides auto-completed after their departure window")
+                .register(meterRegistry);
+        bookingsCompleted = Counter.builder("rides.autocomplete.bookings")
+                .description("Confirmed bookings completed along with their ride")
+                .register(meterRegistry);
+        chunksProcessed = Counter.builder("rides.autocomplete.chunks")
+                .description("Auto-completion chunks committed")
+                .register(meterRegistry);
+        meterRegistry.gauge("rides.autocomplete.run.progress", currentRunProgress);
+    }
     
     /**
      * Automatically mark rides as COMPLETED if departure time has passed
      * Runs every hour at the 5-minute mark (e.g., 1:05, 2:05, 3:05...)
+     *
+     * Works in fixed-size chunks, each a short transaction of set-based updates,
+     * so a backlog after downtime never locks every expired ride at once.
      */
     @Scheduled(cron = "0 5 * * * *")  // Every hour at 5 minutes past
-    @Transactional
     public void autoCompleteExpiredRides() {
+        if (clusterMembership.isPartitioningEnabled()) {
+            if (!clusterMembership.hasPartition()) {
+                System.out.println("Skipping ride auto-complete: node is not in the live cluster view");
+                return;
+            }
+            // Every node completes its own share of ride ids
+            completeExpiredRides(SELECT_EXPIRED_PARTITION_CHUNK);
+        } else {
+            // A single node does all of it
+            jobLeaseService.runWithLease("ride-auto-complete", Duration.ofMinutes(30), Duration.ofMinutes(1),
+                    () -> completeExpiredRides(SELECT_EXPIRED_CHUNK));
+        }
+    }
+    
+    private void completeExpiredRides(String selectChunkSql) {
         LocalDateTime now = LocalDateTime.now();
         
         // Find all ACTIVE rides where departure time + 12 hours has passed
         // This gives drivers 12 hours after scheduled departure to manually complete
         LocalDateTime cutoffTime = now.minusHours(12);
         
-        List<Ride> expiredRides = rideRepository.findByStatusAndDepartureDateTimeBefore("ACTIVE", cutoffTime);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.valueOf(cutoffTime))
+                .addValue("limit", chunkSize)
+                .addValue("nodeCount", clusterMembership.getNodeCount())
+                .addValue("nodeIndex", clusterMembership.getNodeIndex());
         
-        for (Ride ride : expiredRides) {
-            ride.setStatus("COMPLETED");
-            rideRepository.save(ride);
-            System.out.println("Auto-completed ride #" + ride.getId() + 
-                             " from " + ride.getSource() + " to " + ride.getDestination());
+        currentRunProgress.set(0);
+        try {
+            while (true) {
+                Integer completed = transactionTemplate.execute(status -> completeChunk(selectChunkSql, params));
+                if (completed == null || completed == 0) {
+                    break;
+                }
+                currentRunProgress.addAndGet(completed);
+                
+                if (completed < chunkSize) {
+                    break;
+                }
+                
+                // Give foreground traffic room between chunks
+                try {
+                    Thread.sleep(chunkPauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            
+            if (currentRunProgress.get() > 0) {
+                System.out.println("Auto-completed " + currentRunProgress.get() + " expired rides at " + now);
+            }
+        } finally {
+            currentRunProgress.set(0);
+        }
+    }
+    
+    private int completeChunk(String selectChunkSql, MapSqlParameterSource params) {
+        List<Long> rideIds = jdbcTemplate.queryForList(selectChunkSql, params, Long.class);
+        if (rideIds.isEmpty()) {
+            return 0;
         }
         
-        if (!expiredRides.isEmpty()) {
-            System.out.println("Auto-completed " + expiredRides.size() + " expired rides at " + now);
+        MapSqlParameterSource chunk = new MapSqlParameterSource("ids", rideIds)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        int rides = jdbcTemplate.update(COMPLETE_RIDES, chunk);
+        List<Long> ridesWithPassengers = jdbcTemplate.queryForList(SELECT_RIDES_WITH_PASSENGERS, chunk, Long.class);
+        int bookings = jdbcTemplate.update(COMPLETE_BOOKINGS, chunk);
+        
+        // One batched insert of ride-wide events, published after this chunk commits
+        notificationService.broadcastToRides(
+            ridesWithPassengers,
+            "RIDE_COMPLETED",
+            "Your ride has arrived! Please rate your experience."
+        );
+        
+        dashboardStats.ridesMoved("ACTIVE", "COMPLETED", rides);
+        dashboardStats.bookingsMoved("CONFIRMED", "COMPLETED", bookings);
+        if (rides > 0) {
+            activityLog.record("RIDES_AUTO_COMPLETED", null, null, rides + " rides past departure", null);
         }
+        
+        ridesCompleted.increment(rides);
+        bookingsCompleted.increment(bookings);
+        chunksProcessed.increment();
+        return rideIds.size();
     }
     
     /**
-     * Send reminder to drivers about rides happening soon
-     * Runs every 30 minutes
+     * Send reminder to the driver about a ride happening within the hour
+     * Called by RideReminderService when the reminder falls due; failures propagate
+     * so the reminder is released and retried
+     * @param startsIn Time left before departure as shown to the driver, e.g. "1 hour"
      */
-    @Scheduled(cron = "0 */30 * * * *")  // Every 30 minutes
-    public void sendUpcomingRideReminders() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime oneHourLater = now.plusHours(1);
-        
-        // Find rides departing in the next hour that are still ACTIVE
-        List<Ride> upcomingRides = rideRepository.findByStatusAndDepartureDateTimeBetween(
-                "ACTIVE", now, oneHourLater);
+    public void sendUpcomingRideReminder(Ride ride, String startsIn) {
+        String message = String.format(
+            "⏰ Your ride from %s to %s departs in %s. Time to head to the pickup point!",
+            ride.getSource(),
+            ride.getDestination(),
+            startsIn
+        );
+        notificationService.sendNotification(ride.getDriver(), "RIDE_REMINDER", message, ride.getId());
         
-        for (Ride ride : upcomingRides) {
-            System.out.println("Reminder: Ride #" + ride.getId() + 
-                             " departing soon at " + ride.getDepartureDateTime());
-            // TODO: Send email/SMS notification to driver
+        // Email notification, only when the driver isn't connected
+        if (presenceTracker.shouldEmail(ride.getDriver().getId())) {
+            emailService.sendRideReminderToDriver(ride, startsIn);
         }
     }
-}
\ No newline at end of file
+}
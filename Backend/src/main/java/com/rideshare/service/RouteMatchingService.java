@@ -3,6 +3,7 @@ package com.rideshare.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rideshare.model.Ride;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -17,6 +18,12 @@ public class RouteMatchingService {
     @Value("${google.maps.api.key}")
     private String googleMapsApiKey;
     
+    @Autowired
+    private GeoApiRateLimiter rateLimiter;
+    
+    @Autowired
+    private GeoCoordinateCache coordinateCache;
+    
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     
@@ -26,6 +33,10 @@ public class RouteMatchingService {
     // Maximum distance from main route to consider (in km)
     private static final double MAX_DEVIATION_KM = 15.0;
     
+    // Google Maps calls made by one non-exact match analysis
+    // (2 route lookups, 2 geocodes, 1 route with waypoints)
+    private static final int GEO_CALLS_PER_MATCH = 5;
+    
     public RouteMatchingService() {
         this.restTemplate = new RestTemplate();
         this.objectMapper = new ObjectMapper();
@@ -90,6 +101,11 @@ public class RouteMatchingService {
                 );
             }
             
+            // Search enrichment is lowest priority: shed it when the quota runs short
+            if (!rateLimiter.tryAcquire(GeoApiRateLimiter.Priority.SEARCH_ENRICHMENT, GEO_CALLS_PER_MATCH)) {
+                return null;
+            }
+            
             // Get route details for advanced matching
             RouteDetails rideRoute = getRouteDetails(rideSource, rideDestination);
             RouteDetails passengerRoute = getRouteDetails(passengerSource, passengerDestination);
@@ -337,6 +353,10 @@ public class RouteMatchingService {
                 
                 JsonNode startLocation = leg.path("start_location");
                 JsonNode endLocation = leg.path("end_location");
+                coordinateCache.record(origin,
+                        startLocation.path("lat").asDouble(), startLocation.path("lng").asDouble());
+                coordinateCache.record(destination,
+                        endLocation.path("lat").asDouble(), endLocation.path("lng").asDouble());
                 
                 return new RouteDetails(
                     origin,
@@ -375,6 +395,8 @@ public class RouteMatchingService {
             if ("OK".equals(root.path("status").asText())) {
                 JsonNode location = root.path("results").get(0)
                         .path("geometry").path("location");
+                coordinateCache.record(address,
+                        location.path("lat").asDouble(), location.path("lng").asDouble());
                 
                 return new Coordinates(
                     location.path("lat").asDouble(),
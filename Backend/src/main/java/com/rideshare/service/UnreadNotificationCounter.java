@@ -0,0 +1,108 @@
+package com.rideshare.service;
+
+import com.rideshare.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user unread notification counts kept in memory.
+ *
+ * A count is loaded from the database when it is asked for and then maintained
+ * on insert and read, so most badge requests need no query. Each node only sees
+ * the inserts it flushed itself, so a cached count is reloaded once it is older
+ * than a short TTL; that bounds how far nodes can drift apart behind the relay.
+ * Reads are applied after their transaction commits.
+ */
+@Service
+public class UnreadNotificationCounter {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Value("${notification.unread-cache.max-users:100000}")
+    private int maxCachedUsers;
+
+    @Value("${notification.unread-cache.ttl-ms:5000}")
+    private long ttlMs;
+
+    private final ConcurrentHashMap<Long, CachedCount> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Unread count for a user, served from memory until the cached value expires
+     */
+    public long getUnreadCount(Long userId) {
+        if (counts.size() >= maxCachedUsers && !counts.containsKey(userId)) {
+            // Crude bound on memory: start over rather than track recency
+            counts.clear();
+        }
+        long now = System.currentTimeMillis();
+        return counts.compute(userId, (id, cached) -> cached != null && cached.expiresAt > now
+                ? cached
+                : new CachedCount(notificationRepository.countUnreadForUser(id), now + ttlMs)).value.get();
+    }
+
+    /**
+     * Account for newly inserted notifications
+     */
+    public void added(Long userId, int count) {
+        CachedCount cached = counts.get(userId);
+        if (cached != null) {
+            cached.value.addAndGet(count);
+        }
+    }
+
+    /**
+     * Account for a single notification marked as read, once the current transaction commits
+     */
+    public void read(Long userId) {
+        afterCommit(() -> {
+            CachedCount cached = counts.get(userId);
+            if (cached != null) {
+                cached.value.updateAndGet(current -> Math.max(0, current - 1));
+            }
+        });
+    }
+
+    /**
+     * Drop a cached count so it is reloaded from the database on next use
+     */
+    public void invalidate(Long userId) {
+        counts.remove(userId);
+    }
+
+    /**
+     * Account for all of a user's notifications being marked as read, once the current transaction commits
+     */
+    public void allRead(Long userId) {
+        afterCommit(() -> counts.put(userId, new CachedCount(0, System.currentTimeMillis() + ttlMs)));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class CachedCount {
+        final AtomicLong value;
+        final long expiresAt;
+
+        CachedCount(long value, long expiresAt) {
+            this.value = new AtomicLong(value);
+            this.expiresAt = expiresAt;
+        }
+    }
+}
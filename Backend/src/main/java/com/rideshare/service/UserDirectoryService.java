@@ -0,0 +1,382 @@
+package com.rideshare.service;
+
+import com.rideshare.dto.UserDirectoryPage;
+import com.rideshare.dto.UserManagementDTO;
+import com.rideshare.model.Role;
+import com.rideshare.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Paginated admin user directory.
+ *
+ * Pages are keyset cursors over user id (newest first) and rows are projected
+ * straight into UserManagementDTO, joined with the precomputed rating aggregate
+ * in user_rating_stats. Search matches word prefixes through the user_search_terms
+ * index rather than scanning name and email with '%keyword%'.
+ *
+ * Users are indexed when they register. A startup backfill covers users from before
+ * the index existed and records its progress in job_checkpoints, so it resumes where
+ * it stopped. A periodic sweep indexes any user still missing terms, such as one whose
+ * registration-time indexing failed.
+ */
+@Service
+public class UserDirectoryService {
+
+    private static final String SELECT_COLUMNS =
+            "SELECT u.id, u.name, u.email, u.phone, u.role, u.blocked, u.verified, u.created_at, " +
+            "u.car_model, u.license_plate, u.vehicle_capacity, s.average_rating ";
+
+    private static final String INSERT_TERM =
+            "INSERT IGNORE INTO user_search_terms (term, user_id) VALUES (:term, :userId)";
+
+    // One chunk of users in id order, flagged with whether they already have terms
+    private static final String SELECT_USERS_AFTER =
+            "SELECT u.id, u.name, u.email, CASE WHEN EXISTS " +
+            "(SELECT 1 FROM user_search_terms t WHERE t.user_id = u.id) THEN 1 ELSE 0 END AS indexed " +
+            "FROM users u WHERE u.id > :after ORDER BY u.id LIMIT :limit";
+
+    private static final String SELECT_CHECKPOINT = "SELECT last_id FROM job_checkpoints WHERE name = :name";
+
+    private static final String UPDATE_CHECKPOINT =
+            "UPDATE job_checkpoints SET last_id = :lastId, updated_at = :now WHERE name = :name";
+
+    private static final String INSERT_CHECKPOINT =
+            "INSERT INTO job_checkpoints (name, last_id, updated_at) VALUES (:name, :lastId, :now)";
+
+    private static final String BACKFILL_CHECKPOINT = "user-search-index";
+    private static final String SWEEP_CHECKPOINT = "user-search-index-sweep";
+
+    private static final String ADD_RATING =
+            "INSERT INTO user_rating_stats (user_id, review_count, rating_sum, average_rating) " +
+            "VALUES (:userId, 1, :rating, :rating) " +
+            "ON DUPLICATE KEY UPDATE review_count = review_count + 1, " +
+            "rating_sum = rating_sum + VALUES(rating_sum), average_rating = rating_sum / review_count";
+
+    private static final String RECONCILE_RATINGS =
+            "INSERT INTO user_rating_stats (user_id, review_count, rating_sum, average_rating) " +
+            "SELECT reviewee_id, COUNT(*), SUM(rating), AVG(rating) FROM reviews GROUP BY reviewee_id " +
+            "ON DUPLICATE KEY UPDATE review_count = VALUES(review_count), " +
+            "rating_sum = VALUES(rating_sum), average_rating = VALUES(average_rating)";
+
+    // Longest indexed term, matching the column length
+    private static final int MAX_TERM_LENGTH = 64;
+
+    // Further words in a query only narrow the match; a few are plenty
+    private static final int MAX_QUERY_WORDS = 3;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobLeaseService jobLeaseService;
+
+    @Value("${admin.users.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${admin.users.index.chunk-size:1000}")
+    private int indexChunkSize;
+
+    // The sweep always rechecks this many of the newest users...
+    @Value("${admin.users.index.sweep.recent-users:1000}")
+    private int sweepRecentUsers;
+
+    // ...then moves on through the rest of the table this many chunks per run, wrapping around
+    @Value("${admin.users.index.sweep.chunks-per-run:5}")
+    private int sweepChunksPerRun;
+
+    /**
+     * One page of users, newest first, after the given cursor (null for the first page).
+     * Status is ACTIVE, BLOCKED, VERIFIED or UNVERIFIED; search matches word prefixes of name and email.
+     */
+    public UserDirectoryPage getPage(String role, String status, String search, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS);
+        List<String> words = queryWords(search);
+
+        if (words.isEmpty()) {
+            sql.append("FROM users u ");
+        } else {
+            // Drive the query from the term index: only users matching the first word are visited
+            sql.append("FROM (SELECT DISTINCT t.user_id FROM user_search_terms t WHERE t.term LIKE :term0) m ")
+               .append("JOIN users u ON u.id = m.user_id ");
+            params.addValue("term0", likePrefix(words.get(0)));
+        }
+        sql.append("LEFT JOIN user_rating_stats s ON s.user_id = u.id WHERE 1 = 1 ");
+
+        for (int i = 1; i < words.size(); i++) {
+            sql.append("AND EXISTS (SELECT 1 FROM user_search_terms t").append(i)
+               .append(" WHERE t").append(i).append(".user_id = u.id AND t").append(i)
+               .append(".term LIKE :term").append(i).append(") ");
+            params.addValue("term" + i, likePrefix(words.get(i)));
+        }
+
+        if (role != null && !role.isEmpty()) {
+            sql.append("AND u.role = :role ");
+            params.addValue("role", Role.valueOf(role.toUpperCase()).name());
+        }
+
+        if (status != null && !status.isEmpty()) {
+            switch (status.toUpperCase()) {
+                case "ACTIVE":
+                    sql.append("AND u.blocked = false ");
+                    break;
+                case "BLOCKED":
+                    sql.append("AND u.blocked = true ");
+                    break;
+                case "VERIFIED":
+                    sql.append("AND u.verified = true ");
+                    break;
+                case "UNVERIFIED":
+                    sql.append("AND u.verified = false ");
+                    break;
+                default:
+                    throw new RuntimeException("Invalid status filter");
+            }
+        }
+
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                params.addValue("cursor", Long.parseLong(cursor));
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            sql.append("AND u.id < :cursor ");
+        }
+
+        sql.append("ORDER BY u.id DESC LIMIT :limit");
+
+        List<UserManagementDTO> items = jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> {
+            UserManagementDTO dto = new UserManagementDTO();
+            dto.setId(rs.getLong("id"));
+            dto.setName(rs.getString("name"));
+            dto.setEmail(rs.getString("email"));
+            dto.setPhone(rs.getString("phone"));
+            dto.setRole(Role.valueOf(rs.getString("role")));
+            dto.setBlocked(rs.getBoolean("blocked"));
+            dto.setVerified(rs.getBoolean("verified"));
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            dto.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+
+            if (dto.getRole() == Role.DRIVER) {
+                dto.setCarModel(rs.getString("car_model"));
+                dto.setLicensePlate(rs.getString("license_plate"));
+                int capacity = rs.getInt("vehicle_capacity");
+                dto.setVehicleCapacity(rs.wasNull() ? null : capacity);
+            }
+
+            dto.setAverageRating(rs.getDouble("average_rating"));
+            return dto;
+        });
+
+        String nextCursor = items.size() == limit ? String.valueOf(items.get(items.size() - 1).getId()) : null;
+        return new UserDirectoryPage(items, nextCursor);
+    }
+
+    /**
+     * Add a user's name and email to the search index
+     */
+    public void indexUser(User user) {
+        insertTerms(user.getId(), user.getName(), user.getEmail());
+    }
+
+    /**
+     * Fold a new review into the reviewee's rating aggregate (same transaction as the review)
+     */
+    public void reviewAdded(Long revieweeId, int rating) {
+        jdbcTemplate.update(ADD_RATING, new MapSqlParameterSource()
+                .addValue("userId", revieweeId)
+                .addValue("rating", rating));
+    }
+
+    /**
+     * Build the search index for users registered before it existed
+     * Runs at startup on one node, resuming from the last checkpointed user id
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        jobLeaseService.runWithLease("user-search-index", Duration.ofHours(1), Duration.ZERO, () -> {
+            long after = readCheckpoint(BACKFILL_CHECKPOINT);
+            long indexed = 0;
+            while (true) {
+                List<Object[]> users = usersAfter(after);
+                if (users.isEmpty()) {
+                    break;
+                }
+                indexed += indexMissing(users);
+                after = (Long) users.get(users.size() - 1)[0];
+                saveCheckpoint(BACKFILL_CHECKPOINT, after);
+                if (users.size() < indexChunkSize) {
+                    break;
+                }
+            }
+            if (indexed > 0) {
+                System.out.println("User search index built for " + indexed + " users");
+            }
+        });
+        reconcileRatings();
+    }
+
+    /**
+     * Index users that have no search terms
+     * Runs every 10 minutes on one node: the newest users first, then the next
+     * few chunks of a rolling pass over the whole table
+     */
+    @Scheduled(fixedDelayString = "${admin.users.index.sweep-ms:600000}", initialDelay = 600000)
+    public void indexMissingUsers() {
+        jobLeaseService.runWithLease("user-search-index-sweep", Duration.ofMinutes(30), Duration.ofMinutes(1), () -> {
+            long indexed = 0;
+
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM users", new MapSqlParameterSource(), Long.class);
+            if (maxId == null) {
+                return;
+            }
+            long after = Math.max(maxId - sweepRecentUsers, 0);
+            while (after < maxId) {
+                List<Object[]> users = usersAfter(after);
+                if (users.isEmpty()) {
+                    break;
+                }
+                indexed += indexMissing(users);
+                after = (Long) users.get(users.size() - 1)[0];
+            }
+
+            after = readCheckpoint(SWEEP_CHECKPOINT);
+            for (int chunk = 0; chunk < sweepChunksPerRun; chunk++) {
+                List<Object[]> users = usersAfter(after);
+                indexed += indexMissing(users);
+                if (users.size() < indexChunkSize) {
+                    // End of the table: start over next time
+                    after = 0;
+                    break;
+                }
+                after = (Long) users.get(users.size() - 1)[0];
+            }
+            saveCheckpoint(SWEEP_CHECKPOINT, after);
+
+            if (indexed > 0) {
+                System.out.println("Indexed " + indexed + " users that were missing from the search index");
+            }
+        });
+    }
+
+    /**
+     * Recompute every rating aggregate from the reviews table
+     * Runs daily at 4:15 AM, and at startup, to correct any drift
+     */
+    @Scheduled(cron = "${admin.users.rating-reconcile.cron:0 15 4 * * *}")
+    public void reconcileRatings() {
+        jobLeaseService.runWithLease("user-rating-reconcile", Duration.ofMinutes(30), Duration.ofMinutes(1),
+                () -> jdbcTemplate.update(RECONCILE_RATINGS, new MapSqlParameterSource()));
+    }
+
+    private List<Object[]> usersAfter(long after) {
+        return jdbcTemplate.query(SELECT_USERS_AFTER,
+                new MapSqlParameterSource().addValue("after", after).addValue("limit", indexChunkSize),
+                (rs, rowNum) -> new Object[] {
+                        rs.getLong("id"), rs.getString("name"), rs.getString("email"), rs.getInt("indexed") == 1});
+    }
+
+    private int indexMissing(List<Object[]> users) {
+        int indexed = 0;
+        for (Object[] user : users) {
+            if (!(Boolean) user[3]) {
+                insertTerms((Long) user[0], (String) user[1], (String) user[2]);
+                indexed++;
+            }
+        }
+        return indexed;
+    }
+
+    private long readCheckpoint(String name) {
+        List<Long> lastId = jdbcTemplate.queryForList(SELECT_CHECKPOINT, new MapSqlParameterSource("name", name), Long.class);
+        return lastId.isEmpty() ? 0 : lastId.get(0);
+    }
+
+    private void saveCheckpoint(String name, long lastId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("name", name)
+                .addValue("lastId", lastId)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        if (jdbcTemplate.update(UPDATE_CHECKPOINT, params) == 0) {
+            jdbcTemplate.update(INSERT_CHECKPOINT, params);
+        }
+    }
+
+    private void insertTerms(Long userId, String name, String email) {
+        Set<String> terms = termsFor(name, email);
+        SqlParameterSource[] rows = terms.stream()
+                .map(term -> new MapSqlParameterSource().addValue("term", term).addValue("userId", userId))
+                .toArray(SqlParameterSource[]::new);
+        if (rows.length > 0) {
+            jdbcTemplate.batchUpdate(INSERT_TERM, rows);
+        }
+    }
+
+    private static Set<String> termsFor(String name, String email) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (name != null) {
+            addWords(terms, name.toLowerCase(Locale.ROOT));
+        }
+        if (email != null) {
+            String lower = email.toLowerCase(Locale.ROOT);
+            addTerm(terms, lower);
+            int at = lower.indexOf('@');
+            if (at > 0) {
+                addTerm(terms, lower.substring(0, at));
+                addTerm(terms, lower.substring(at + 1));
+            }
+            addWords(terms, lower.substring(0, Math.max(at, 0)));
+        }
+        return terms;
+    }
+
+    private static void addWords(Set<String> terms, String text) {
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            addTerm(terms, word);
+        }
+    }
+
+    private static void addTerm(Set<String> terms, String term) {
+        if (!term.isEmpty()) {
+            terms.add(term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term);
+        }
+    }
+
+    private static List<String> queryWords(String search) {
+        List<String> words = new ArrayList<>();
+        if (search == null) {
+            return words;
+        }
+        String lower = search.trim().toLowerCase(Locale.ROOT);
+        // Whole emails are indexed as-is, so keep them intact
+        String[] parts = lower.contains("@") ? new String[] {lower} : lower.split("[^\\p{L}\\p{N}]+");
+        for (String part : parts) {
+            if (!part.isEmpty() && words.size() < MAX_QUERY_WORDS) {
+                words.add(part.length() > MAX_TERM_LENGTH ? part.substring(0, MAX_TERM_LENGTH) : part);
+            }
+        }
+        return words;
+    }
+
+    private static String likePrefix(String word) {
+        return word.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -0,0 +1,133 @@
+package com.rideshare.service;
+
+import com.rideshare.security.UserPrincipal;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks which users currently hold a live STOMP session.
+ *
+ * A session becomes bound to its authenticated user when it subscribes to that
+ * user's /topic/user/{userId} and is released on disconnect. The STOMP principal
+ * decides the user, never the destination alone; StompAuthInterceptor already
+ * rejects subscriptions to another user's topic. A user can have several sessions (tabs, devices),
+ * so presence is a session count per user id.
+ *
+ * With the broker relay enabled each node only sees its own sessions, so
+ * presence routing is switched off by default in that mode.
+ */
+@Service
+public class UserPresenceTracker {
+
+    private static final String USER_TOPIC_PREFIX = "/topic/user/";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.presence.routing.enabled:#{!${messaging.broker.relay.enabled:false}}}")
+    private boolean routingEnabled;
+
+    // Session id -> user id (0 until the session subscribes to its user topic)
+    private final ConcurrentHashMap<String, Long> userBySession = new ConcurrentHashMap<>();
+
+    // User id -> number of live sessions
+    private final ConcurrentHashMap<Long, AtomicInteger> sessionsByUser = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("presence.users.online", sessionsByUser, ConcurrentHashMap::size)
+                .description("Users with at least one live WebSocket session")
+                .register(meterRegistry);
+        Gauge.builder("presence.sessions.bound", userBySession,
+                        sessions -> sessions.values().stream().filter(id -> id != 0L).count())
+                .description("WebSocket sessions bound to a user")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the user has at least one live WebSocket session on this node
+     */
+    public boolean isOnline(Long userId) {
+        return userId != null && sessionsByUser.containsKey(userId);
+    }
+
+    /**
+     * Whether a WebSocket push to the user can reach anyone
+     */
+    public boolean shouldPush(Long userId) {
+        return !routingEnabled || isOnline(userId);
+    }
+
+    /**
+     * Whether the user should also be reached by email, i.e. is not connected
+     */
+    public boolean shouldEmail(Long userId) {
+        return !routingEnabled || !isOnline(userId);
+    }
+
+    @EventListener
+    public void onConnect(SessionConnectEvent event) {
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (sessionId != null) {
+            userBySession.putIfAbsent(sessionId, 0L);
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        String sessionId = accessor.getSessionId();
+        if (sessionId == null || destination == null || !destination.startsWith(USER_TOPIC_PREFIX)) {
+            return;
+        }
+
+        if (!(event.getUser() instanceof Authentication authentication)
+                || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            return;
+        }
+        Long userId = principal.getId();
+        if (!destination.equals(USER_TOPIC_PREFIX + userId)) {
+            return;
+        }
+
+        // Bind only once per session, so repeated subscriptions don't inflate the count
+        Long previous = userBySession.put(sessionId, userId);
+        if (previous != null && previous.equals(userId)) {
+            return;
+        }
+        if (previous != null && previous != 0L) {
+            release(previous);
+        }
+        sessionsByUser.compute(userId, (id, count) -> {
+            AtomicInteger sessions = count != null ? count : new AtomicInteger();
+            sessions.incrementAndGet();
+            return sessions;
+        });
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Long userId = userBySession.remove(event.getSessionId());
+        if (userId != null && userId != 0L) {
+            release(userId);
+        }
+    }
+
+    private void release(Long userId) {
+        sessionsByUser.computeIfPresent(userId, (id, count) -> count.decrementAndGet() <= 0 ? null : count);
+    }
+}
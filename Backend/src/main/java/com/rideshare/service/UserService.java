@@ -1,12 +1,15 @@
 package com.rideshare.service;
 
 import com.rideshare.dto.UserResponse;
+import com.rideshare.model.Role;
 import com.rideshare.model.User;
 import com.rideshare.repository.ReviewRepository;
 import com.rideshare.repository.UserRepository;
+import com.rideshare.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Service
 public class UserService {
@@ -17,12 +20,46 @@ public class UserService {
     @Autowired
     private ReviewRepository reviewRepository;
     
+    @Autowired
+    private CurrentUserHolder currentUserHolder;
+    
+    /**
+     * The authenticated user, loaded once per request and shared by all callers
+     */
     public User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
+        if (RequestContextHolder.getRequestAttributes() == null) {
+            return loadCurrentUser();
+        }
+        return currentUserHolder.get(this::loadCurrentUser);
+    }
+    
+    private User loadCurrentUser() {
+        return userRepository.findById(getCurrentUserId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
     
+    /**
+     * Id of the authenticated user, read from the token without a lookup
+     */
+    public Long getCurrentUserId() {
+        return getCurrentPrincipal().getId();
+    }
+    
+    /**
+     * Role of the authenticated user, read from the token without a lookup
+     */
+    public Role getCurrentUserRole() {
+        return getCurrentPrincipal().getRole();
+    }
+    
+    private UserPrincipal getCurrentPrincipal() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof UserPrincipal userPrincipal) {
+            return userPrincipal;
+        }
+        throw new RuntimeException("User not found");
+    }
+    
     public UserResponse getCurrentUserProfile() {
         User user = getCurrentUser();
         UserResponse response = UserResponse.fromUser(user);
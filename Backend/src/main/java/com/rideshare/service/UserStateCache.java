@@ -0,0 +1,91 @@
+package com.rideshare.service;
+
+import com.rideshare.model.User;
+import com.rideshare.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Blocked/verified flags per user, checked on every authenticated request.
+ *
+ * Entries are loaded on first use and dropped when an admin changes them on
+ * this node. A short TTL bounds how long other nodes keep a stale flag.
+ */
+@Service
+public class UserStateCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${user.state-cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Value("${user.state-cache.max-users:100000}")
+    private int maxCachedUsers;
+
+    private final ConcurrentHashMap<Long, UserState> states = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the user is blocked (unknown users count as blocked)
+     */
+    public boolean isBlocked(Long userId) {
+        return get(userId).blocked;
+    }
+
+    public boolean isVerified(Long userId) {
+        return get(userId).verified;
+    }
+
+    /**
+     * Forget a user's flags, again after the surrounding transaction commits
+     * so a concurrent reload can't cache the old values
+     */
+    public void invalidate(Long userId) {
+        states.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    states.remove(userId);
+                }
+            });
+        }
+    }
+
+    private UserState get(Long userId) {
+        long now = System.currentTimeMillis();
+        UserState state = states.get(userId);
+        if (state != null && state.loadedAt + ttlMillis > now) {
+            return state;
+        }
+
+        if (states.size() >= maxCachedUsers) {
+            // Crude bound on memory: start over rather than track recency
+            states.clear();
+        }
+
+        User user = userRepository.findById(userId).orElse(null);
+        UserState loaded = user == null
+                ? new UserState(true, false, now)
+                : new UserState(user.isBlocked(), user.isVerified(), now);
+        states.put(userId, loaded);
+        return loaded;
+    }
+
+    private static class UserState {
+        final boolean blocked;
+        final boolean verified;
+        final long loadedAt;
+
+        UserState(boolean blocked, boolean verified, long loadedAt) {
+            this.blocked = blocked;
+            this.verified = verified;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
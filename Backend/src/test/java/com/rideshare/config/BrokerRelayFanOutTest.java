@@ -0,0 +1,244 @@
+package com.rideshare.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.rideshare.security.StompAuthInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fan-out load test for the relay mode: two application nodes share one
+ * embedded Artemis broker, each with its own client sessions subscribed to
+ * the same ride topic. Both nodes publish at once and every message must reach
+ * every session on both nodes. Throughput (deliveries per second) is printed
+ * and checked against a conservative floor.
+ */
+class BrokerRelayFanOutTest {
+
+    private static final int BROKER_PORT = 61672;
+    private static final String TOPIC = "/topic/ride/7";
+
+    private static final int SESSIONS_PER_NODE = 10;
+    private static final int MESSAGES_PER_NODE = 500;
+
+    // Far below what even a single-core CI runner reaches; only catches fan-out collapsing
+    // (e.g. a reconnect per message or a stalled relay session)
+    private static final double MIN_DELIVERIES_PER_SECOND = 500;
+
+    private static AnnotationConfigApplicationContext broker;
+    private static final List<Node> nodes = new ArrayList<>();
+
+    @Configuration
+    static class NodeConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    /**
+     * One application instance, with client sessions attached to its relay
+     */
+    static class Node {
+        final String name;
+        final AnnotationConfigWebApplicationContext context;
+        final MessageChannel clientInbound;
+        final SimpMessagingTemplate messagingTemplate;
+        final AtomicLong delivered = new AtomicLong();
+        final Map<String, CountDownLatch> pendingFrames = new ConcurrentHashMap<>();
+        final Set<String> sessions = ConcurrentHashMap.newKeySet();
+
+        Node(String name) {
+            this.name = name;
+            context = new AnnotationConfigWebApplicationContext();
+            context.setServletContext(new MockServletContext());
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("fan-out", Map.of(
+                    "messaging.broker.relay.enabled", "true",
+                    "messaging.broker.relay.host", "localhost",
+                    "messaging.broker.relay.port", String.valueOf(BROKER_PORT))));
+            context.register(WebSocketConfig.class, WebSocketMetrics.class, NodeConfig.class);
+
+            // Client frames here are synthetic; let them through unauthenticated. Registered as a
+            // ready-made singleton so the container doesn't try to inject the mock's fields.
+            StompAuthInterceptor passThrough = mock(StompAuthInterceptor.class);
+            when(passThrough.preSend(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+            context.addBeanFactoryPostProcessor(
+                    beanFactory -> beanFactory.registerSingleton("stompAuthInterceptor", passThrough));
+
+            context.refresh();
+
+            clientInbound = context.getBean("clientInboundChannel", MessageChannel.class);
+            messagingTemplate = context.getBean(SimpMessagingTemplate.class);
+            context.getBean("clientOutboundChannel", SubscribableChannel.class).subscribe(this::toClient);
+        }
+
+        AbstractBrokerMessageHandler relay() {
+            return context.getBean("stompBrokerRelayMessageHandler", AbstractBrokerMessageHandler.class);
+        }
+
+        /**
+         * Frames the relay sends towards clients; stands in for the WebSocket sessions
+         */
+        private void toClient(Message<?> message) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+            if (accessor.getCommand() == StompCommand.MESSAGE) {
+                delivered.incrementAndGet();
+            } else if (accessor.getCommand() == StompCommand.CONNECTED) {
+                release("connected-" + accessor.getSessionId());
+            } else if (accessor.getCommand() == StompCommand.RECEIPT) {
+                release(accessor.getReceiptId());
+            }
+        }
+
+        private void release(String key) {
+            CountDownLatch latch = pendingFrames.get(key);
+            if (latch != null) {
+                latch.countDown();
+            }
+        }
+
+        /**
+         * Connect a client session through this node's relay and subscribe it to the topic
+         */
+        void connectSubscriber(String sessionId) throws InterruptedException {
+            sessions.add(sessionId);
+
+            StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+            connect.setSessionId(sessionId);
+            connect.setAcceptVersion("1.2");
+            connect.setHeartbeat(0, 0);
+            awaitFrame("connected-" + sessionId, connect);
+
+            // Artemis acknowledges the SUBSCRIBE with a RECEIPT once the subscription is live
+            StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+            subscribe.setSessionId(sessionId);
+            subscribe.setSubscriptionId("sub-" + sessionId);
+            subscribe.setDestination(TOPIC);
+            subscribe.setReceipt("subscribed-" + sessionId);
+            awaitFrame("subscribed-" + sessionId, subscribe);
+        }
+
+        private void awaitFrame(String key, StompHeaderAccessor frame) throws InterruptedException {
+            CountDownLatch latch = new CountDownLatch(1);
+            pendingFrames.put(key, latch);
+            clientInbound.send(MessageBuilder.createMessage(new byte[0], frame.getMessageHeaders()));
+            assertTrue(latch.await(10, TimeUnit.SECONDS), name + " did not get " + key);
+        }
+
+        void close() {
+            for (String sessionId : sessions) {
+                StompHeaderAccessor disconnect = StompHeaderAccessor.create(StompCommand.DISCONNECT);
+                disconnect.setSessionId(sessionId);
+                clientInbound.send(MessageBuilder.createMessage(new byte[0], disconnect.getMessageHeaders()));
+            }
+            context.close();
+        }
+    }
+
+    @BeforeAll
+    static void startCluster() throws Exception {
+        // Artemis audits every message at INFO, which would dominate the measurement
+        ((Logger) LoggerFactory.getLogger("org.apache.activemq.audit")).setLevel(Level.WARN);
+
+        broker = new AnnotationConfigApplicationContext();
+        broker.getEnvironment().getPropertySources().addFirst(new MapPropertySource("broker", Map.of(
+                "messaging.broker.embedded.enabled", "true",
+                "messaging.broker.relay.host", "localhost",
+                "messaging.broker.relay.port", String.valueOf(BROKER_PORT))));
+        broker.register(EmbeddedBrokerConfig.class);
+        broker.refresh();
+
+        for (String name : List.of("node-a", "node-b")) {
+            Node node = new Node(name);
+            waitFor(() -> node.relay().isBrokerAvailable(), 20);
+            for (int i = 0; i < SESSIONS_PER_NODE; i++) {
+                node.connectSubscriber(name + "-session-" + i);
+            }
+            nodes.add(node);
+        }
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        nodes.forEach(Node::close);
+        if (broker != null) {
+            broker.close();
+        }
+    }
+
+    @Test
+    void everyMessageFromEitherNodeReachesEverySubscriberOnBoth() throws Exception {
+        long expectedPerNode = 2L * MESSAGES_PER_NODE * SESSIONS_PER_NODE;
+
+        long start = System.nanoTime();
+        List<Thread> publishers = new ArrayList<>();
+        for (Node node : nodes) {
+            Thread publisher = new Thread(() -> {
+                for (int i = 0; i < MESSAGES_PER_NODE; i++) {
+                    node.messagingTemplate.convertAndSend(TOPIC, Map.of("type", "RIDE_UPDATED", "seq", i));
+                }
+            }, node.name + "-publisher");
+            publisher.start();
+            publishers.add(publisher);
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+
+        waitFor(() -> nodes.stream().allMatch(node -> node.delivered.get() >= expectedPerNode), 60);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long delivered = nodes.stream().mapToLong(node -> node.delivered.get()).sum();
+        double throughput = delivered / seconds;
+        System.out.printf("Relay fan-out: %d messages to %d sessions on %d nodes, %d deliveries in %.2f s (%.0f/s)%n",
+                2 * MESSAGES_PER_NODE, 2 * SESSIONS_PER_NODE, nodes.size(), delivered, seconds, throughput);
+
+        for (Node node : nodes) {
+            assertEquals(expectedPerNode, node.delivered.get(), node.name + " deliveries");
+        }
+        assertTrue(throughput >= MIN_DELIVERIES_PER_SECOND,
+                "fan-out throughput " + Math.round(throughput) + "/s is below " + MIN_DELIVERIES_PER_SECOND);
+    }
+
+    private static void waitFor(BooleanSupplier condition, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(condition.getAsBoolean(), "timed out after " + seconds + " s");
+    }
+}
@@ -0,0 +1,116 @@
+package com.rideshare.config;
+
+import com.rideshare.security.StompAuthInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.ReactorNettyTcpStompClient;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the relay mode against the embedded Artemis broker: a message published
+ * by this node must come back through the broker to a subscriber connected
+ * elsewhere, which is what another node's relay would see.
+ */
+@SpringJUnitWebConfig(classes = {
+    WebSocketConfig.class,
+    WebSocketMetrics.class,
+    EmbeddedBrokerConfig.class,
+    BrokerRelayIntegrationTest.TestConfig.class
+})
+@TestPropertySource(properties = {
+    "messaging.broker.relay.enabled=true",
+    "messaging.broker.embedded.enabled=true",
+    "messaging.broker.relay.host=localhost",
+    "messaging.broker.relay.port=61671"
+})
+class BrokerRelayIntegrationTest {
+
+    @Configuration
+    static class TestConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    // Only guards client frames, which this test does not send through the app
+    @MockBean
+    private StompAuthInterceptor stompAuthInterceptor;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    @Qualifier("stompBrokerRelayMessageHandler")
+    private AbstractBrokerMessageHandler relay;
+
+    @Test
+    void publishedMessageIsDeliveredThroughTheBroker() throws Exception {
+        waitFor(() -> relay.isBrokerAvailable(), 20);
+
+        ReactorNettyTcpStompClient otherNode = new ReactorNettyTcpStompClient("localhost", 61671);
+        otherNode.setMessageConverter(new MappingJackson2MessageConverter());
+        StompSession session = otherNode.connectAsync(new StompSessionHandlerAdapter() { })
+                .get(10, TimeUnit.SECONDS);
+
+        BlockingQueue<Map<?, ?>> received = new ArrayBlockingQueue<>(16);
+        session.subscribe("/topic/ride/42", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.offer((Map<?, ?>) payload);
+            }
+        });
+
+        try {
+            // The SUBSCRIBE is not acknowledged, so publish until the subscription is live
+            Map<?, ?> message = null;
+            for (int attempt = 0; attempt < 50 && message == null; attempt++) {
+                messagingTemplate.convertAndSend("/topic/ride/42", Map.of("type", "RIDE_CANCELLED"));
+                message = received.poll(200, TimeUnit.MILLISECONDS);
+            }
+            assertNotNull(message, "message was not relayed through the broker");
+            assertEquals("RIDE_CANCELLED", message.get("type"));
+        } finally {
+            session.disconnect();
+            otherNode.shutdown();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(condition.getAsBoolean(), "relay did not connect to the broker");
+    }
+}
@@ -0,0 +1,43 @@
+package com.rideshare.config;
+
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Embedded Artemis broker speaking STOMP, used as a local stand-in for the
+ * external broker when running the relay mode on a laptop or in tests.
+ * Several app instances can share it to exercise cross-node delivery.
+ *
+ * Artemis is a test-scoped dependency so it never ships in the application jar;
+ * for a local run use the test classpath:
+ * mvn spring-boot:test-run -Dspring-boot.run.arguments="--messaging.broker.relay.enabled=true --messaging.broker.embedded.enabled=true"
+ */
+@org.springframework.context.annotation.Configuration
+@ConditionalOnProperty(name = "messaging.broker.embedded.enabled", havingValue = "true")
+public class EmbeddedBrokerConfig {
+
+    @Value("${messaging.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${messaging.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public EmbeddedActiveMQ embeddedStompBroker() throws Exception {
+        Configuration config = new ConfigurationImpl();
+        config.setPersistenceEnabled(false);
+        config.setSecurityEnabled(false);
+        config.setJournalDirectory("target/artemis/journal");
+        // Map STOMP /topic/** destinations to multicast addresses
+        config.addAcceptorConfiguration("stomp",
+                "tcp://" + relayHost + ":" + relayPort + "?protocols=STOMP;multicastPrefix=/topic/");
+
+        EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(config);
+        return broker;
+    }
+}
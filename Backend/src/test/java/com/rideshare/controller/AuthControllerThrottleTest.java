@@ -0,0 +1,65 @@
+package com.rideshare.controller;
+
+import com.rideshare.config.GlobalExceptionHandler;
+import com.rideshare.security.LoginThrottledException;
+import com.rideshare.service.AuthService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Throttled logins answer 429 with Retry-After, distinct from a bad password.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthControllerThrottleTest {
+
+    private static final String LOGIN = "{\"email\":\"asha@example.com\",\"password\":\"secret\"}";
+
+    @Mock
+    private AuthService authService;
+
+    @InjectMocks
+    private AuthController authController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(authController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void throttledLoginIsTooManyRequests() throws Exception {
+        when(authService.login(any(), anyString()))
+                .thenThrow(new LoginThrottledException("Too many login attempts", 30));
+
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "30"));
+    }
+
+    @Test
+    void badPasswordIsUnauthorized() throws Exception {
+        when(authService.login(any(), anyString())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().doesNotExist("Retry-After"));
+    }
+}
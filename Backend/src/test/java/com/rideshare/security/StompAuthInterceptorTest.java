@@ -0,0 +1,49 @@
+package com.rideshare.security;
+
+import com.rideshare.model.Role;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Subscription rules for topics outside the per-user and per-ride ones.
+ */
+@ExtendWith(MockitoExtension.class)
+class StompAuthInterceptorTest {
+
+    @InjectMocks
+    private StompAuthInterceptor interceptor;
+
+    @Test
+    void adminTopicsRequireTheAdminRole() {
+        assertDoesNotThrow(() -> subscribe(Role.ADMIN, "/topic/admin/dashboard"));
+        assertDoesNotThrow(() -> subscribe(Role.ADMIN, "/topic/admin/reports/abc"));
+
+        assertThrows(AccessDeniedException.class, () -> subscribe(Role.PASSENGER, "/topic/admin/dashboard"));
+        assertThrows(AccessDeniedException.class, () -> subscribe(Role.DRIVER, "/topic/admin/reports/abc"));
+    }
+
+    @Test
+    void unknownTopicsAreRefused() {
+        assertThrows(AccessDeniedException.class, () -> subscribe(Role.ADMIN, "/topic/anything"));
+    }
+
+    private void subscribe(Role role, String destination) {
+        UserPrincipal principal = new UserPrincipal(7L, "someone@example.com", null, role, false);
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setUser(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        interceptor.preSend(message, null);
+    }
+}
@@ -0,0 +1,89 @@
+package com.rideshare.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Shutdown and failure handling of the shared batch writer.
+ */
+class BatchWriterTest {
+
+    @Test
+    void stopWritesTheBatchInFlightAndEverythingQueued() throws Exception {
+        CountDownLatch firstInsertStarted = new CountDownLatch(1);
+        List<Integer> stored = Collections.synchronizedList(new ArrayList<>());
+
+        BatchWriter<Integer> writer = new BatchWriter<>("test-writer", 1000, 10, 5, 1, 0) {
+            @Override
+            protected List<Long> insert(List<Integer> batch) {
+                firstInsertStarted.countDown();
+                sleep(50);
+                return List.of();
+            }
+
+            @Override
+            protected void written(List<Integer> rows, List<Long> ids) {
+                stored.addAll(rows);
+            }
+        };
+        writer.start();
+
+        for (int i = 0; i < 100; i++) {
+            writer.offer(i);
+        }
+        assertTrue(firstInsertStarted.await(5, TimeUnit.SECONDS));
+
+        // Lands while the worker holds a batch and more rows are queued behind it
+        writer.stop(TimeUnit.SECONDS.toMillis(5));
+
+        assertEquals(100, stored.size());
+        assertEquals(100, stored.stream().distinct().count());
+    }
+
+    @Test
+    void aRejectedBatchIsRetriedRowByRow() {
+        List<Integer> stored = new ArrayList<>();
+        List<Integer> dropped = new ArrayList<>();
+
+        BatchWriter<Integer> writer = new BatchWriter<>("test-writer", 1000, 10, 5, 2, 0) {
+            @Override
+            protected List<Long> insert(List<Integer> batch) {
+                if (batch.contains(3)) {
+                    throw new IllegalStateException("bad row");
+                }
+                return List.of();
+            }
+
+            @Override
+            protected void written(List<Integer> rows, List<Long> ids) {
+                stored.addAll(rows);
+            }
+
+            @Override
+            protected void dropped(Integer row, Exception error) {
+                dropped.add(row);
+            }
+        };
+
+        writer.writeNow(List.of(1, 2, 3, 4));
+
+        assertEquals(List.of(1, 2, 4), stored);
+        assertEquals(List.of(3), dropped);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.rideshare.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application instances sharing one database: scheduled work must be split
+ * between them, never duplicated, and a node that drops out of the live view
+ * must not fall back onto another node's partition.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:cluster;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.jpa.database-platform=com.rideshare.support.H2MySqlDialect"
+})
+class ClusterMembershipTest {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private ClusterMembership nodeA;
+    private ClusterMembership nodeB;
+
+    @BeforeEach
+    void startTwoNodes() {
+        jdbcTemplate.update("DELETE FROM cluster_nodes", new MapSqlParameterSource());
+        jdbcTemplate.update("DELETE FROM job_leases", new MapSqlParameterSource());
+        nodeA = node("node-a");
+        nodeB = node("node-b");
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+        nodeA.heartbeat();
+    }
+
+    @Test
+    void everyRideIsOwnedByExactlyOneNode() {
+        assertEquals(2, nodeA.getNodeCount());
+        assertEquals(2, nodeB.getNodeCount());
+        assertEquals(0, nodeA.getNodeIndex());
+        assertEquals(1, nodeB.getNodeIndex());
+
+        for (long rideId = 1; rideId <= 100; rideId++) {
+            assertTrue(nodeA.ownsRide(rideId) ^ nodeB.ownsRide(rideId), "ride " + rideId);
+        }
+    }
+
+    @Test
+    void nodeMissingFromTheLiveViewOwnsNothing() {
+        // A third instance that has started but not yet heartbeated
+        ClusterMembership nodeC = node("node-c");
+
+        assertFalse(nodeC.hasPartition());
+        assertEquals(-1, nodeC.getNodeIndex());
+        for (long rideId = 1; rideId <= 20; rideId++) {
+            assertFalse(nodeC.ownsRide(rideId), "ride " + rideId);
+        }
+    }
+
+    @Test
+    void survivingNodeTakesOverAfterTheOtherLeaves() {
+        nodeB.deregister();
+        nodeA.heartbeat();
+
+        assertEquals(1, nodeA.getNodeCount());
+        for (long rideId = 1; rideId <= 20; rideId++) {
+            assertTrue(nodeA.ownsRide(rideId), "ride " + rideId);
+        }
+    }
+
+    @Test
+    void leasedJobRunsOnOneNodeOnly() {
+        JobLeaseService leasesA = leases(nodeA);
+        JobLeaseService leasesB = leases(nodeB);
+        AtomicInteger runs = new AtomicInteger();
+
+        boolean ranOnA = leasesA.runWithLease("test-job", Duration.ofMinutes(5), Duration.ofMinutes(1),
+                runs::incrementAndGet);
+        boolean ranOnB = leasesB.runWithLease("test-job", Duration.ofMinutes(5), Duration.ofMinutes(1),
+                runs::incrementAndGet);
+
+        assertTrue(ranOnA);
+        assertFalse(ranOnB);
+        assertEquals(1, runs.get());
+    }
+
+    private ClusterMembership node(String nodeId) {
+        ClusterMembership node = new ClusterMembership(nodeId);
+        ReflectionTestUtils.setField(node, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(node, "partitioningEnabled", true);
+        ReflectionTestUtils.setField(node, "nodeTimeoutMs", 30000L);
+        return node;
+    }
+
+    private JobLeaseService leases(ClusterMembership node) {
+        JobLeaseService leases = new JobLeaseService();
+        ReflectionTestUtils.setField(leases, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(leases, "clusterMembership", node);
+        return leases;
+    }
+}
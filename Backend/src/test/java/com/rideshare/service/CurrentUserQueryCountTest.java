@@ -0,0 +1,309 @@
+package com.rideshare.service;
+
+import com.rideshare.dto.BookingRequest;
+import com.rideshare.dto.ReviewRequest;
+import com.rideshare.model.Booking;
+import com.rideshare.model.Notification;
+import com.rideshare.model.Ride;
+import com.rideshare.model.Role;
+import com.rideshare.model.User;
+import com.rideshare.repository.BookingRepository;
+import com.rideshare.repository.NotificationRepository;
+import com.rideshare.repository.ReviewRepository;
+import com.rideshare.repository.RideRepository;
+import com.rideshare.repository.UserRepository;
+import com.rideshare.security.UserPrincipal;
+import com.rideshare.support.SqlStatementLog;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.CustomScopeConfigurer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.RequestScope;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Counts Hibernate work for the current-user lookups of one request: however
+ * many services ask for the current User, it is loaded from the database once.
+ * Covers the main authenticated endpoints through their service entry points;
+ * collaborators that never touch the users table are mocked.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({
+    UserService.class,
+    CurrentUserHolder.class,
+    BookingService.class,
+    FareCalculationService.class,
+    NotificationService.class,
+    ReviewService.class,
+    CurrentUserQueryCountTest.RequestScopeConfig.class
+})
+// No surrounding test transaction: each repository call gets its own persistence context, as in a request
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:current-user;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.jpa.database-platform=com.rideshare.support.H2MySqlDialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.rideshare.support.SqlStatementLog"
+})
+class CurrentUserQueryCountTest {
+
+    @TestConfiguration
+    static class RequestScopeConfig {
+        @Bean
+        static CustomScopeConfigurer requestScope() {
+            CustomScopeConfigurer configurer = new CustomScopeConfigurer();
+            configurer.addScope("request", new RequestScope());
+            return configurer;
+        }
+    }
+
+    // Collaborators below never read users; mocked to keep the slice small
+    @MockBean
+    private EmailService emailService;
+
+    @MockBean
+    private DistanceCalculationService distanceCalculationService;
+
+    @MockBean
+    private DemandSupplyAggregator demandSupplyAggregator;
+
+    @MockBean
+    private UserPresenceTracker presenceTracker;
+
+    @MockBean
+    private DashboardStatsSnapshot dashboardStats;
+
+    @MockBean
+    private ActivityLogService activityLog;
+
+    @MockBean
+    private NotificationDispatcher notificationDispatcher;
+
+    @MockBean
+    private UnreadNotificationCounter unreadCounter;
+
+    @MockBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    @MockBean
+    private UserDirectoryService userDirectoryService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User passenger;
+    private User driver;
+
+    @BeforeEach
+    void signIn() {
+        reviewRepository.deleteAll();
+        notificationRepository.deleteAll();
+        bookingRepository.deleteAll();
+        rideRepository.deleteAll();
+        userRepository.deleteAll();
+
+        passenger = saveUser("Asha Rao", "asha@example.com", "9000000000", Role.PASSENGER);
+        driver = saveUser("Ravi Kumar", "ravi@example.com", "9000000001", Role.DRIVER);
+
+        UserPrincipal principal = UserPrincipal.fromUser(passenger);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        resetCounts();
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void currentUserIsLoadedOncePerRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // Controller, booking, notification and review code each ask for the current user
+        User first = userService.getCurrentUser();
+        for (int i = 0; i < 3; i++) {
+            assertSame(first, userService.getCurrentUser());
+        }
+        userService.getCurrentUserProfile();
+
+        assertEquals(1, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+        // The user lookup plus the profile's rating aggregate
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void eachRequestLoadsItsOwnUser() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        userService.getCurrentUser();
+        userService.getCurrentUser();
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        userService.getCurrentUser();
+
+        assertEquals(2, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void bookingLooksUpThePassengerOnce() {
+        Ride ride = saveRide("ACTIVE");
+        BookingRequest request = new BookingRequest();
+        request.setRideId(ride.getId());
+        request.setSeatsBooked(1);
+        request.setPickupLocation("Bangalore");
+        request.setDropLocation("Mysore");
+        request.setDistanceKm(140.0);
+        resetCounts();
+
+        inRequest(() -> bookingService.createBooking(request));
+
+        assertEquals(1, SqlStatementLog.userLookups());
+        // The passenger, plus the driver joined into the ride
+        assertEquals(2, userLoads());
+    }
+
+    @Test
+    void markingANotificationReadNeedsNoUserLookup() {
+        Notification notification = new Notification();
+        notification.setRecipient(passenger);
+        notification.setType("BOOKING_NEW");
+        notification.setMessage("New booking");
+        notification = notificationRepository.save(notification);
+        Long notificationId = notification.getId();
+        resetCounts();
+
+        inRequest(() -> notificationService.markAsRead(notificationId));
+
+        // The recipient check uses the id from the token; the lazy recipient is never initialised
+        assertEquals(0, SqlStatementLog.userLookups());
+        assertEquals(0, userLoads());
+    }
+
+    @Test
+    void reviewLooksUpTheReviewerOnce() {
+        Ride ride = saveRide("COMPLETED");
+        Booking booking = new Booking();
+        booking.setRide(ride);
+        booking.setPassenger(passenger);
+        booking.setSeatsBooked(1);
+        booking.setPickupLocation("Bangalore");
+        booking.setDropLocation("Mysore");
+        booking.setEstimatedFare(300.0);
+        booking.setStatus("COMPLETED");
+        Long bookingId = bookingRepository.save(booking).getId();
+        resetCounts();
+
+        inRequest(() -> reviewService.submitReview(new ReviewRequest(bookingId, 5, "Smooth ride")));
+
+        assertEquals(1, SqlStatementLog.userLookups());
+        // The reviewer, plus the driver joined into the booking's ride; the passenger
+        // row in the same join is the reviewer already in the persistence context
+        assertEquals(2, userLoads());
+    }
+
+    @Test
+    void profileLooksUpTheUserOnce() {
+        inRequest(() -> userService.getCurrentUserProfile());
+
+        assertEquals(1, SqlStatementLog.userLookups());
+        assertEquals(1, userLoads());
+        // The user lookup plus the rating aggregate
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private void inRequest(Runnable request) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            request.run();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private void resetCounts() {
+        statistics.clear();
+        SqlStatementLog.clear();
+    }
+
+    private long userLoads() {
+        return statistics.getEntityStatistics(User.class.getName()).getLoadCount();
+    }
+
+    private User saveUser(String name, String email, String phone, Role role) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPhone(phone);
+        user.setPassword("hashed");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    private Ride saveRide(String status) {
+        Ride ride = new Ride();
+        ride.setSource("Bangalore");
+        ride.setDestination("Mysore");
+        ride.setDepartureDateTime(LocalDateTime.now().plusDays(1));
+        ride.setAvailableSeats(3);
+        ride.setTotalSeats(3);
+        ride.setPricePerKm(2.0);
+        ride.setDriver(driver);
+        ride.setStatus(status);
+        return rideRepository.save(ride);
+    }
+}
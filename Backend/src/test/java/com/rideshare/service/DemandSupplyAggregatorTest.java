@@ -0,0 +1,53 @@
+package com.rideshare.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Surge is driven by recent demand against the seats open right now, not seats posted recently.
+ */
+class DemandSupplyAggregatorTest {
+
+    private DemandSupplyAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new DemandSupplyAggregator();
+        ReflectionTestUtils.setField(aggregator, "surgeEnabled", true);
+        ReflectionTestUtils.setField(aggregator, "maxSurge", 2.0);
+        ReflectionTestUtils.setField(aggregator, "sensitivity", 0.5);
+        ReflectionTestUtils.setField(aggregator, "minDemand", 5.0);
+    }
+
+    @Test
+    void openSeatsPostedLongAgoStillCountAsSupply() {
+        aggregator.recordSeatsOffered("Bangalore, Karnataka", 40);
+        for (int i = 0; i < 25; i++) {
+            aggregator.recordSearch("Bangalore");
+        }
+
+        aggregator.refreshSurgeMultipliers();
+
+        assertEquals(1.0, aggregator.getSurgeMultiplier("bangalore"));
+    }
+
+    @Test
+    void bookingsDrainSupplyUntilTheZoneSurges() {
+        aggregator.recordSeatsOffered("Mysore", 6);
+        for (int i = 0; i < 3; i++) {
+            aggregator.recordBooking("Mysore", 2);
+            aggregator.recordSeatsWithdrawn("Mysore", 2);
+        }
+        for (int i = 0; i < 25; i++) {
+            aggregator.recordSearch("Mysore");
+        }
+
+        aggregator.refreshSurgeMultipliers();
+
+        assertEquals(2.0, aggregator.getSurgeMultiplier("Mysore"));
+        assertEquals(1.0, aggregator.getSurgeMultiplier("Bangalore"));
+    }
+}
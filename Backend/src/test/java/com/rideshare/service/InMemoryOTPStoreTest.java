@@ -0,0 +1,51 @@
+package com.rideshare.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Wrong guesses count against the email, so resending a code doesn't reset them.
+ */
+class InMemoryOTPStoreTest {
+
+    private static final String EMAIL = "asha@example.com";
+
+    private InMemoryOTPStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryOTPStore();
+        ReflectionTestUtils.setField(store, "maxAttempts", 3);
+        ReflectionTestUtils.setField(store, "attemptWindowMinutes", 15L);
+    }
+
+    @Test
+    void resendingKeepsTheAttemptCount() {
+        store.save(EMAIL, "first", LocalDateTime.now().plusMinutes(5));
+        assertEquals(OTPStore.VerificationResult.INVALID, store.verify(EMAIL, "guess-1", false));
+        assertEquals(OTPStore.VerificationResult.INVALID, store.verify(EMAIL, "guess-2", false));
+
+        store.save(EMAIL, "second", LocalDateTime.now().plusMinutes(5));
+
+        assertEquals(OTPStore.VerificationResult.TOO_MANY_ATTEMPTS, store.verify(EMAIL, "guess-3", false));
+        assertEquals(OTPStore.VerificationResult.TOO_MANY_ATTEMPTS, store.verify(EMAIL, "second", true));
+    }
+
+    @Test
+    void consumingACodeClearsTheAttemptCount() {
+        store.save(EMAIL, "first", LocalDateTime.now().plusMinutes(5));
+        store.verify(EMAIL, "guess-1", false);
+        store.verify(EMAIL, "guess-2", false);
+        assertEquals(OTPStore.VerificationResult.VALID, store.verify(EMAIL, "first", true));
+
+        store.save(EMAIL, "second", LocalDateTime.now().plusMinutes(5));
+
+        assertEquals(OTPStore.VerificationResult.INVALID, store.verify(EMAIL, "guess-3", false));
+        assertEquals(OTPStore.VerificationResult.VALID, store.verify(EMAIL, "second", true));
+    }
+}
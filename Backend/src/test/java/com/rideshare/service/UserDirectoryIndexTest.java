@@ -0,0 +1,81 @@
+package com.rideshare.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The search-index backfill resumes from its checkpoint, and the sweep indexes
+ * whatever the backfill skipped.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UserDirectoryService.class, JobLeaseService.class, ClusterMembership.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:user-index;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.jpa.database-platform=com.rideshare.support.H2MySqlDialect",
+    "admin.users.index.chunk-size=2",
+    "admin.users.index.sweep.recent-users=1"
+})
+class UserDirectoryIndexTest {
+
+    @Autowired
+    private UserDirectoryService userDirectoryService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clean() {
+        for (String table : new String[] {"user_search_terms", "job_checkpoints", "job_leases", "users"}) {
+            jdbcTemplate.update("DELETE FROM " + table, new MapSqlParameterSource());
+        }
+    }
+
+    @Test
+    void backfillResumesAfterCheckpointAndSweepFillsTheRest() {
+        long first = insertUser("Asha Rao", "asha@example.com");
+        insertUser("Ben Lee", "ben@example.com");
+        insertUser("Chen Wu", "chen@example.com");
+        insertUser("Dana Cruz", "dana@example.com");
+
+        // A previous run got as far as the first user before stopping
+        jdbcTemplate.update("INSERT INTO job_checkpoints (name, last_id, updated_at) VALUES " +
+                "('user-search-index', :lastId, CURRENT_TIMESTAMP)", new MapSqlParameterSource("lastId", first));
+
+        userDirectoryService.buildIndex();
+        assertEquals(3, indexedUsers());
+
+        jdbcTemplate.update("DELETE FROM job_leases", new MapSqlParameterSource());
+        userDirectoryService.indexMissingUsers();
+        assertEquals(4, indexedUsers());
+        assertEquals(1, userDirectoryService.getPage(null, null, "asha", null, 10).getItems().size());
+    }
+
+    private long insertUser(String name, String email) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(
+                "INSERT INTO users (name, email, phone, password, role, blocked, verified, created_at, updated_at) " +
+                "VALUES (:name, :email, '9000000000', 'x', 'PASSENGER', false, false, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+                new MapSqlParameterSource().addValue("name", name).addValue("email", email),
+                keys, new String[] {"id"});
+        return keys.getKey().longValue();
+    }
+
+    private int indexedUsers() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT user_id) FROM user_search_terms",
+                new MapSqlParameterSource(), Integer.class);
+    }
+}
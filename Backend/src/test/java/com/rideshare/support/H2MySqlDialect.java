@@ -0,0 +1,20 @@
+package com.rideshare.support;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * H2 dialect for JPA slice tests, with the MySQL functions our JPQL relies on.
+ * Pair it with an H2 url in MODE=MySQL.
+ */
+public class H2MySqlDialect extends H2Dialect {
+
+    @Override
+    public void initializeFunctionRegistry(FunctionContributions functionContributions) {
+        super.initializeFunctionRegistry(functionContributions);
+        functionContributions.getFunctionRegistry().registerPattern("date", "cast(?1 as date)",
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                        .resolve(StandardBasicTypes.DATE));
+    }
+}
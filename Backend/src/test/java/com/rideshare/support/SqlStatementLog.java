@@ -0,0 +1,40 @@
+package com.rideshare.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Records the SQL Hibernate prepares, so tests can count statements of a given shape.
+ * Register it with hibernate.session_factory.statement_inspector.
+ */
+public class SqlStatementLog implements StatementInspector {
+
+    // A User loaded on its own by primary key, as opposed to joined into another entity's select
+    private static final Pattern USER_BY_ID =
+            Pattern.compile("select .* from users (\\w+) where \\1\\.id=\\?", Pattern.CASE_INSENSITIVE);
+
+    private static final List<String> statements = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (statements) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    public static void clear() {
+        synchronized (statements) {
+            statements.clear();
+        }
+    }
+
+    public static long userLookups() {
+        synchronized (statements) {
+            return statements.stream().filter(sql -> USER_BY_ID.matcher(sql).matches()).count();
+        }
+    }
+}
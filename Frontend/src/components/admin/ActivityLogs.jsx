@@ -4,16 +4,21 @@ import { adminService } from "../../services/adminService";
 const ActivityLogs = () => {
   const [logs, setLogs] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
 
   useEffect(() => {
     fetchLogs();
   }, []);
 
-  const fetchLogs = async () => {
+  const fetchLogs = async (cursor = null) => {
+    setLoading(true);
     try {
-      const response = await adminService.getActivityLogs(0, 50);
+      const response = await adminService.getActivityLogs(cursor, 50);
       if (response.success) {
-        setLogs(response.data);
+        setLogs((prev) =>
+          cursor ? [...prev, ...response.data.items] : response.data.items
+        );
+        setNextCursor(response.data.nextCursor);
       }
     } catch (err) {
       console.error("Failed to fetch logs", err);
@@ -32,8 +37,8 @@ const ActivityLogs = () => {
 
         <div className="card">
           <div className="list-group">
-            {logs.map((log, index) => (
-              <div key={index} className="log-item">
+            {logs.map((log) => (
+              <div key={log.id} className="log-item">
                 <div className="log-icon">
                   {log.type.includes("RIDE") ? "🚗" : "📝"}
                 </div>
@@ -57,6 +62,17 @@ const ActivityLogs = () => {
                 No recent activity found.
               </div>
             )}
+            {nextCursor && (
+              <div className="p-4 text-center">
+                <button
+                  onClick={() => fetchLogs(nextCursor)}
+                  className="btn btn-secondary"
+                  disabled={loading}
+                >
+                  {loading ? "Loading..." : "Load more"}
+                </button>
+              </div>
+            )}
           </div>
         </div>
       </div>
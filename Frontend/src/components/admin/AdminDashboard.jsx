@@ -1,6 +1,9 @@
 import React, { useState, useEffect } from "react";
 import { Link } from "react-router-dom";
+import { Client } from "@stomp/stompjs";
+import SockJS from "sockjs-client";
 import { adminService } from "../../services/adminService";
+import { API_BASE_URL } from "../../utils/constants";
 
 const AdminDashboard = () => {
   const [stats, setStats] = useState(null);
@@ -9,9 +12,27 @@ const AdminDashboard = () => {
 
   useEffect(() => {
     fetchStats();
-    // Auto-refresh every 30 seconds
-    const interval = setInterval(fetchStats, 30000);
-    return () => clearInterval(interval);
+
+    // The server pushes a fresh snapshot whenever the numbers change
+    const baseUrl = API_BASE_URL.replace("/api", "");
+    const client = new Client({
+      webSocketFactory: () => new SockJS(`${baseUrl}/ws`),
+      beforeConnect: () => {
+        client.connectHeaders = {
+          Authorization: `Bearer ${localStorage.getItem("token")}`,
+        };
+      },
+      reconnectDelay: 5000,
+      onConnect: () => {
+        client.subscribe("/topic/admin/dashboard", (message) => {
+          if (message.body) {
+            setStats(JSON.parse(message.body));
+          }
+        });
+      },
+    });
+    client.activate();
+    return () => client.deactivate();
   }, []);
 
   const fetchStats = async () => {
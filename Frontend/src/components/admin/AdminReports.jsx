@@ -13,6 +13,7 @@ const AdminReports = () => {
   );
   const [reportData, setReportData] = useState(null);
   const [loading, setLoading] = useState(false);
+  const [progress, setProgress] = useState(0);
 
   const generateReport = async (e) => {
     e.preventDefault();
@@ -22,14 +23,22 @@ const AdminReports = () => {
       const startDateTime = `${startDate}T00:00:00`;
       const endDateTime = `${endDate}T23:59:59`;
 
-      const response = await adminService.generateReport(
+      // Reports run as background jobs; poll until the job finishes
+      let response = await adminService.submitReportJob(
         reportType,
         startDateTime,
         endDateTime
       );
-      if (response.success) {
-        setReportData(response.data);
+      setProgress(0);
+      while (response.success && !["COMPLETED", "FAILED"].includes(response.data.status)) {
+        setProgress(response.data.progress);
+        await new Promise((resolve) => setTimeout(resolve, 1000));
+        response = await adminService.getReportJob(response.data.jobId);
       }
+      if (!response.success || response.data.status === "FAILED") {
+        throw new Error(response.data?.error || response.message);
+      }
+      setReportData(response.data.result);
     } catch (err) {
       alert("Failed to generate report");
     } finally {
@@ -116,7 +125,7 @@ const AdminReports = () => {
                   className="btn btn-primary w-full"
                   disabled={loading}
                 >
-                  {loading ? "Generating..." : "Generate Report"}
+                  {loading ? `Generating... ${progress}%` : "Generate Report"}
                 </button>
               </div>
             </form>
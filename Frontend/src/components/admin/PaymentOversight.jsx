@@ -24,6 +24,17 @@ const PaymentOversight = () => {
     }
   };
 
+  const handleExport = async () => {
+    try {
+      await adminService.exportData(
+        "payments",
+        statusFilter ? { status: statusFilter } : {}
+      );
+    } catch (err) {
+      console.error("Failed to export payments", err);
+    }
+  };
+
   const formatDate = (dateString) => {
     return new Date(dateString).toLocaleString("en-IN", {
       dateStyle: "medium",
@@ -55,6 +66,9 @@ const PaymentOversight = () => {
                 <option value="REFUNDED">Refunded</option>
               </select>
             </div>
+            <button onClick={handleExport} className="btn btn-secondary">
+              Export CSV
+            </button>
           </div>
         </div>
 
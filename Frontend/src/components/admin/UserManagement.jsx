@@ -10,21 +10,27 @@ const UserManagement = () => {
   });
   const [selectedUser, setSelectedUser] = useState(null);
   const [showDetails, setShowDetails] = useState(false);
+  const [nextCursor, setNextCursor] = useState(null);
 
   useEffect(() => {
     fetchUsers();
   }, [filters]);
 
-  const fetchUsers = async () => {
+  const fetchUsers = async (cursor = null) => {
     setLoading(true);
     try {
       const response = await adminService.getAllUsers(
         filters.role || null,
         null,
-        filters.search || null
+        filters.search || null,
+        cursor,
+        50
       );
       if (response.success) {
-        setUsers(response.data);
+        setUsers((prev) =>
+          cursor ? [...prev, ...response.data.items] : response.data.items
+        );
+        setNextCursor(response.data.nextCursor);
       }
     } catch (err) {
       console.error("Failed to load users", err);
@@ -111,7 +117,7 @@ const UserManagement = () => {
                 <label className="form-label">Search Users</label>
                 <input
                   type="text"
-                  placeholder="Search by name, email, or phone..."
+                  placeholder="Search by name or email..."
                   value={filters.search}
                   onChange={(e) =>
                     setFilters({ ...filters, search: e.target.value })
@@ -280,6 +286,17 @@ const UserManagement = () => {
               ))}
             </tbody>
           </table>
+          {nextCursor && (
+            <div className="p-4 text-center">
+              <button
+                onClick={() => fetchUsers(nextCursor)}
+                className="btn btn-secondary"
+                disabled={loading}
+              >
+                {loading ? "Loading..." : "Load more"}
+              </button>
+            </div>
+          )}
         </div>
 
         {/* User Details Modal */}
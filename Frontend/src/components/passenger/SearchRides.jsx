@@ -5,6 +5,7 @@ import { bookingService } from "../../services/bookingService";
 import { distanceService } from "../../services/distanceService";
 import { paymentService } from "../../services/paymentService";
 import { useAuth } from "../../context/AuthContext";
+import { useNotification } from "../../context/NotificationContext";
 
 const SearchRides = () => {
   const [searchParams, setSearchParams] = useState({
@@ -27,6 +28,7 @@ const SearchRides = () => {
   const [error, setError] = useState("");
   const navigate = useNavigate();
   const { user } = useAuth();
+  const { watchRide } = useNotification();
 
   const handleSearchChange = (e) =>
     setSearchParams({ ...searchParams, [e.target.name]: e.target.value });
@@ -120,6 +122,7 @@ const SearchRides = () => {
       }
 
       const bookingId = bookingResponse.data.id;
+      watchRide(selectedRide.id);
 
       const paymentOrderResponse = await paymentService.createPaymentOrder(
         bookingId
@@ -300,7 +303,14 @@ const SearchRides = () => {
                             {formatDateTime(ride.departureDateTime)}
                           </div>
                         </div>
-                        <div className="price-tag">₹{ride.pricePerKm}/km</div>
+                        <div style={{ textAlign: "right" }}>
+                          <div className="price-tag">₹{ride.pricePerKm}/km</div>
+                          {ride.estimatedFare != null && (
+                            <div className="text-sm text-gray-500 mt-1">
+                              ~₹{ride.estimatedFare.toFixed(2)} per seat
+                            </div>
+                          )}
+                        </div>
                       </div>
 
                       {/* Match Description */}
@@ -482,6 +492,14 @@ const SearchRides = () => {
                         × {fareEstimate.seatsBooked}
                       </span>
                     </div>
+                    {fareEstimate.surgeMultiplier > 1 && (
+                      <div className="fare-row">
+                        <span>High Demand:</span>
+                        <span className="fare-value">
+                          × {fareEstimate.surgeMultiplier}
+                        </span>
+                      </div>
+                    )}
                     <div className="fare-row">
                       <span>Booking Fee:</span>
                       <span className="fare-value">
@@ -1,17 +1,30 @@
-import React, { createContext, useContext, useEffect, useState } from "react";
+import React, {
+  createContext,
+  useContext,
+  useEffect,
+  useRef,
+  useState,
+} from "react";
 import { Client } from "@stomp/stompjs";
 import SockJS from "sockjs-client";
 import { useAuth } from "./AuthContext";
 import { API_BASE_URL } from "../utils/constants";
 import { notificationService } from "../services/notificationService";
+import { bookingService } from "../services/bookingService";
 
 const NotificationContext = createContext(null);
 
+// Ride events share the list with personal notifications, so give them distinct keys
+const toRideNotification = (event) => ({ ...event, id: `ride-${event.id}` });
+
 export const NotificationProvider = ({ children }) => {
   const { user } = useAuth();
   const [notifications, setNotifications] = useState([]);
   const [unreadCount, setUnreadCount] = useState(0);
   const [stompClient, setStompClient] = useState(null);
+  const clientRef = useRef(null);
+  // Ride topics subscribed on the current connection
+  const rideSubscriptions = useRef(new Set());
 
   // 1. Fetch existing unread notifications from DB on login
   useEffect(() => {
@@ -33,11 +46,24 @@ export const NotificationProvider = ({ children }) => {
 
   const loadNotifications = async () => {
     try {
-      const response = await notificationService.getUnread();
-      if (response.success) {
-        const loadedNotifs = response.data;
-        setNotifications(loadedNotifs);
-        setUnreadCount(loadedNotifs.filter((n) => !n.read).length);
+      const [listResponse, countResponse] = await Promise.all([
+        notificationService.getUnread(),
+        notificationService.getUnreadCount(),
+      ]);
+      if (listResponse.success) {
+        setNotifications(listResponse.data);
+      }
+      if (countResponse.success) {
+        setUnreadCount(countResponse.data.count);
+      }
+
+      if (user.role === "PASSENGER") {
+        const rideResponse = await notificationService.getUnreadRideEvents();
+        if (rideResponse.success && rideResponse.data.length > 0) {
+          const rideNotifs = rideResponse.data.map(toRideNotification);
+          setNotifications((prev) => [...rideNotifs, ...prev]);
+          setUnreadCount((prev) => prev + rideNotifs.length);
+        }
       }
     } catch (error) {
       console.error("Failed to load notifications", error);
@@ -50,24 +76,73 @@ export const NotificationProvider = ({ children }) => {
 
     const client = new Client({
       webSocketFactory: () => new SockJS(socketUrl),
+      // Read on every (re)connect so a refreshed token is picked up
+      beforeConnect: () => {
+        client.connectHeaders = {
+          Authorization: `Bearer ${localStorage.getItem("token")}`,
+        };
+      },
       reconnectDelay: 5000,
       onConnect: (frame) => {
         console.log("WebSocket Connected");
+        // Subscriptions do not survive a reconnect
+        rideSubscriptions.current = new Set();
         client.subscribe(`/topic/user/${user.id}`, (message) => {
           if (message.body) {
-            const newNotif = JSON.parse(message.body);
+            const payload = JSON.parse(message.body);
+            // Bursts for the same user arrive coalesced into one array frame
+            const newNotifs = Array.isArray(payload) ? payload.reverse() : [payload];
             // Add to list immediately
-            setNotifications((prev) => [newNotif, ...prev]);
-            setUnreadCount((prev) => prev + 1);
+            setNotifications((prev) => [...newNotifs, ...prev]);
+            setUnreadCount((prev) => prev + newNotifs.length);
           }
         });
+
+        // Ride-wide updates are published once per ride to its booked passengers
+        if (user.role === "PASSENGER") {
+          subscribeToRideTopics(client);
+        }
       },
     });
 
     client.activate();
+    clientRef.current = client;
     setStompClient(client);
   };
 
+  const subscribeToRide = (client, rideId) => {
+    if (!rideId || rideSubscriptions.current.has(rideId)) return;
+    rideSubscriptions.current.add(rideId);
+    client.subscribe(`/topic/ride/${rideId}`, (message) => {
+      if (message.body) {
+        const rideNotif = toRideNotification(JSON.parse(message.body));
+        setNotifications((prev) => [rideNotif, ...prev]);
+        setUnreadCount((prev) => prev + 1);
+      }
+    });
+  };
+
+  const subscribeToRideTopics = async (client) => {
+    try {
+      const response = await bookingService.getPassengerBookings();
+      if (!response.success) return;
+
+      response.data
+        .filter((b) => b.status !== "CANCELLED")
+        .forEach((b) => subscribeToRide(client, b.ride?.id));
+    } catch (error) {
+      console.error("Failed to subscribe to ride updates", error);
+    }
+  };
+
+  // Follow a ride booked during this session without waiting for a reconnect
+  const watchRide = (rideId) => {
+    const client = clientRef.current;
+    if (client && client.connected) {
+      subscribeToRide(client, rideId);
+    }
+  };
+
   const markAllAsRead = async () => {
     try {
       // Optimistic update
@@ -88,7 +163,13 @@ export const NotificationProvider = ({ children }) => {
 
   return (
     <NotificationContext.Provider
-      value={{ notifications, unreadCount, markAllAsRead, clearNotifications }}
+      value={{
+        notifications,
+        unreadCount,
+        markAllAsRead,
+        clearNotifications,
+        watchRide,
+      }}
     >
       {children}
     </NotificationContext.Provider>
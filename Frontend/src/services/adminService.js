@@ -8,11 +8,18 @@ export const adminService = {
   },
 
   // User Management
-  getAllUsers: async (role = null, status = null, search = null) => {
-    const params = {};
+  getAllUsers: async (
+    role = null,
+    status = null,
+    search = null,
+    cursor = null,
+    size = 50
+  ) => {
+    const params = { size };
     if (role) params.role = role;
     if (status) params.status = status;
     if (search) params.search = search;
+    if (cursor) params.cursor = cursor;
     const response = await api.get("/admin/users", { params });
     return response.data;
   },
@@ -80,11 +87,38 @@ export const adminService = {
     return response.data;
   },
 
-  // Activity Logs
-  getActivityLogs: async (page = 0, size = 50) => {
-    const response = await api.get("/admin/activity-logs", {
-      params: { page, size },
+  // Background report jobs
+  submitReportJob: async (reportType, startDate, endDate) => {
+    const response = await api.post("/admin/reports/jobs", null, {
+      params: { reportType, startDate, endDate },
     });
     return response.data;
   },
+
+  getReportJob: async (jobId) => {
+    const response = await api.get(`/admin/reports/jobs/${jobId}`);
+    return response.data;
+  },
+
+  // Exports (payments, bookings, rides or reports) streamed as CSV or NDJSON
+  exportData: async (dataset, params = {}, format = "csv") => {
+    const response = await api.get(`/admin/export/${dataset}`, {
+      params: { ...params, format },
+      responseType: "blob",
+    });
+    const url = window.URL.createObjectURL(response.data);
+    const link = document.createElement("a");
+    link.href = url;
+    link.download = `${dataset}.${format}`;
+    link.click();
+    window.URL.revokeObjectURL(url);
+  },
+
+  // Activity Logs
+  getActivityLogs: async (cursor = null, size = 50) => {
+    const params = { size };
+    if (cursor) params.cursor = cursor;
+    const response = await api.get("/admin/activity-logs", { params });
+    return response.data;
+  },
 };
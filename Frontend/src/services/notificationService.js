@@ -6,6 +6,23 @@ export const notificationService = {
     return response.data;
   },
 
+  getUnreadCount: async () => {
+    const response = await api.get("/notifications/unread-count");
+    return response.data;
+  },
+
+  getHistory: async (before, size = 20) => {
+    const response = await api.get("/notifications/history", {
+      params: { before, size },
+    });
+    return response.data;
+  },
+
+  getUnreadRideEvents: async () => {
+    const response = await api.get("/notifications/ride-events");
+    return response.data;
+  },
+
   markAsRead: async (id) => {
     const response = await api.put(`/notifications/${id}/read`);
     return response.data;